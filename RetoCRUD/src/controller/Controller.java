@@ -1,38 +1,82 @@
 package controller;
 
+import dao.AsyncClassDAO;
+import dao.AsyncDAOAdapter;
 import dao.ClassDAO;
+import exception.ErrorMessages;
 import exception.OurException;
 import java.awt.Desktop;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.web.WebView;
 import javafx.stage.Stage;
+import model.GameScoreStats;
 import model.Profile;
 import model.Review;
+import model.UserLibrary;
 import model.VideoGame;
 
 /**
  * Controller class that handles interaction between the GUI and the database.
  * Provides login, signup, deletion, modification, and data retrieval methods.
+ * Every data method also has an asynchronous version whose result is handed
+ * back to the JavaFX application thread through {@link #onFxThread}.
+ * The lists of each user who logged in are read once into a {@link UserLibrary}
+ * and served from it; the changes made through the controller are applied to it
+ * too, and it is only read again when the library version of the user moves past
+ * it, which is checked at most once every LIBRARYTTL seconds.
  *
  * @author ema
  */
 public class Controller {
     private final ClassDAO DAO;
+    private final AsyncClassDAO ASYNC;
+    private final Map<String, UserLibrary> libraries = new ConcurrentHashMap<>();
+    private final long libraryTtlMillis;
 
     /**
      * Constructor for Controller.
+     * The asynchronous methods run the DAO calls on the calling thread.
      *
      * @param dao The DAO implementation to handle database operations
      */
     public Controller(ClassDAO dao) {
+        this(dao, new AsyncDAOAdapter(dao, Runnable::run));
+    }
+
+    /**
+     * Constructor for Controller.
+     *
+     * @param dao The DAO implementation to handle database operations
+     * @param asyncDao The asynchronous DAO used by the asynchronous methods
+     */
+    public Controller(ClassDAO dao, AsyncClassDAO asyncDao) {
         this.DAO = dao;
+        this.ASYNC = asyncDao;
+        long ttl;
+        try {
+            ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+            ttl = Long.parseLong(configFile.getString("LIBRARYTTL"));
+        } catch (Exception e) {
+            ttl = 30;
+        }
+        this.libraryTtlMillis = Math.max(0, ttl) * 1000;
     }
 
     //[USERS]
     /**
      * Attempts to log in a user or admin.
+     * On success the lists of the profile are read into its library; if that fails
+     * the login still succeeds and the library is read on first use.
      *
      * @param username The username
      * @param password The password
@@ -40,7 +84,16 @@ public class Controller {
      * @throws exception.OurException
      */
     public Profile logIn(String username, String password) throws OurException {
-        return DAO.logIn(username, password);
+        Profile profile = DAO.logIn(username, password);
+        if (profile != null) {
+            libraries.remove(profile.getUsername());
+            try {
+                libraries.put(profile.getUsername(), DAO.getUserLibrary(profile.getUsername()));
+            } catch (OurException e) {
+                // Read again on first use
+            }
+        }
+        return profile;
     }
 
     /**
@@ -71,6 +124,7 @@ public class Controller {
      * @throws exception.OurException
      */
     public boolean dropOutUser(String username, String password) throws OurException {
+        libraries.remove(username);
         return DAO.dropOutUser(username, password);
     }
 
@@ -84,6 +138,7 @@ public class Controller {
      * @throws exception.OurException
      */
     public boolean dropOutAdmin(String usernameToDelete, String adminUsername, String adminPassword) throws OurException {
+        libraries.remove(usernameToDelete);
         return DAO.dropOutAdmin(usernameToDelete, adminUsername, adminPassword);
     }
 
@@ -138,7 +193,7 @@ public class Controller {
     }
 
     /**
-     * Retrieves games from a specific user's list.
+     * Retrieves games from a specific user's list, from the user's library.
      *
      * @param username The username
      * @param listName The name of the list
@@ -146,7 +201,7 @@ public class Controller {
      * @throws exception.OurException
      */
     public ArrayList<VideoGame> getGamesFromList(String username, String listName) throws OurException {
-        return DAO.getGamesFromList(username, listName);
+        return getUserLibrary(username).getGames(listName);
     }
 
     /**
@@ -159,7 +214,20 @@ public class Controller {
      * @throws exception.OurException
      */
     public boolean verifyGameInList(String username, String listName, int gameId) throws OurException {
-        return DAO.verifyGameInList(username, listName, gameId);
+        return getUserLibrary(username).hasGame(listName, gameId);
+    }
+
+    /**
+     * Finds which of the given games are already in a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param games ArrayList of VideoGame objects to check
+     * @return ArrayList with the IDs of the games that are in the list
+     * @throws exception.OurException
+     */
+    public ArrayList<Integer> verifyGamesInList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
+        return idsInList(getUserLibrary(username), listName, games);
     }
 
     /**
@@ -172,6 +240,7 @@ public class Controller {
      */
     public void addGameToList(String username, String listName, int gameId) throws OurException {
         DAO.addGameToList(username, listName, gameId);
+        libraries.remove(username);
     }
 
     /**
@@ -183,7 +252,8 @@ public class Controller {
      * @throws exception.OurException
      */
     public void addGamesToList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
-        DAO.addGamesToList(username, listName, games);
+        long version = DAO.addGamesToList(username, listName, games);
+        updateLibrary(username, library -> library.gamesChanged(listName, games, new ArrayList<>(), version));
     }
 
     /**
@@ -195,7 +265,8 @@ public class Controller {
      * @throws exception.OurException
      */
     public void removeGameFromList(String username, String listName, int gameId) throws OurException {
-        DAO.removeGameFromList(username, listName, gameId);
+        long version = DAO.removeGameFromList(username, listName, gameId);
+        updateLibrary(username, library -> library.gameRemoved(listName, gameId, version));
     }
 
     /**
@@ -207,7 +278,23 @@ public class Controller {
      * @throws exception.OurException
      */
     public void removeGamesFromList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
-        DAO.removeGamesFromList(username, listName, games);
+        long version = DAO.removeGamesFromList(username, listName, games);
+        updateLibrary(username, library -> library.gamesChanged(listName, new ArrayList<>(), games, version));
+    }
+
+    /**
+     * Applies the games added to and removed from a user's list at once.
+     * If the list is "My Games", removed games are removed from all of the user's lists.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param added ArrayList of VideoGame objects to add
+     * @param removed ArrayList of VideoGame objects to remove
+     * @throws exception.OurException
+     */
+    public void applyListChanges(String username, String listName, ArrayList<VideoGame> added, ArrayList<VideoGame> removed) throws OurException {
+        long version = DAO.applyListChanges(username, listName, added, removed);
+        updateLibrary(username, library -> library.gamesChanged(listName, added, removed, version));
     }
 
     /**
@@ -221,16 +308,28 @@ public class Controller {
         return DAO.findVideoGameByName(gameName);
     }
 
+    /**
+     * Retrieves a page of video games ordered by id.
+     *
+     * @param afterId The id of the last game of the previous page, or 0 for the first page
+     * @param size The maximum number of games in the page
+     * @return ArrayList of VideoGame objects in the page
+     * @throws exception.OurException
+     */
+    public ArrayList<VideoGame> getVideoGamesPage(int afterId, int size) throws OurException {
+        return DAO.getVideoGamesPage(afterId, size);
+    }
+
     //[LISTS]
     /**
-     * Retrieves all list names for a specific user.
+     * Retrieves all list names for a specific user, from the user's library.
      *
      * @param username The username
      * @return ArrayList of list names
      * @throws exception.OurException
      */
     public ArrayList<String> getUserLists(String username) throws OurException {
-        return DAO.getUserLists(username);
+        return getUserLibrary(username).getListNames();
     }
 
     /**
@@ -241,7 +340,8 @@ public class Controller {
      * @throws exception.OurException
      */
     public void newList(Profile profile, String listName) throws OurException {
-        DAO.newList(profile, listName);
+        long version = DAO.newList(profile, listName);
+        updateLibrary(profile.getUsername(), library -> library.listCreated(listName, version));
     }
 
     /**
@@ -252,7 +352,8 @@ public class Controller {
      * @throws exception.OurException
      */
     public void deleteList(String username, String listName) throws OurException {
-        DAO.deleteList(username, listName);
+        long version = DAO.deleteList(username, listName);
+        updateLibrary(username, library -> library.listDeleted(listName, version));
     }
 
     /**
@@ -264,7 +365,7 @@ public class Controller {
      * @throws exception.OurException
      */
     public boolean verifyListName(String username, String listName) throws OurException {
-        return DAO.verifyListName(username, listName);
+        return getUserLibrary(username).hasList(listName);
     }
 
     /**
@@ -276,7 +377,45 @@ public class Controller {
      * @throws exception.OurException
      */
     public void renameList(String username, String listName, String listNewName) throws OurException {
-        DAO.renameList(username, listName, listNewName);
+        long version = DAO.renameList(username, listName, listNewName);
+        updateLibrary(username, library -> library.listRenamed(listName, listNewName, version));
+    }
+
+    /**
+     * Gets the library version of a user, which moves forward on every change to the user's lists.
+     *
+     * @param username The username
+     * @return The library version, or 0 if the user does not exist
+     * @throws exception.OurException
+     */
+    public long getLibraryVersion(String username) throws OurException {
+        return DAO.getLibraryVersion(username);
+    }
+
+    /**
+     * Gets the library of a user, reading it on first use. Once its last check is
+     * older than LIBRARYTTL seconds, the stored library version is compared with it
+     * and the library is read again only if the version moved.
+     *
+     * @param username The username
+     * @return The UserLibrary of the user
+     * @throws exception.OurException
+     */
+    public UserLibrary getUserLibrary(String username) throws OurException {
+        long now = System.currentTimeMillis();
+        UserLibrary library = libraries.get(username);
+        if (library == null) {
+            library = DAO.getUserLibrary(username);
+            libraries.put(username, library);
+        } else if (library.isCheckDue(now, libraryTtlMillis)) {
+            if (DAO.getLibraryVersion(username) == library.getVersion()) {
+                library.checked(now);
+            } else {
+                library = DAO.getUserLibrary(username);
+                libraries.put(username, library);
+            }
+        }
+        return library;
     }
 
     //[REVIEWS]
@@ -334,6 +473,55 @@ public class Controller {
         DAO.deleteReview(review);
     }
     
+    /**
+     * Retrieves the reviews of the games in a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param offset Number of reviews to skip
+     * @param limit Maximum number of reviews, or 0 for all
+     * @param newestFirst true to sort from newest to oldest
+     * @return ArrayList of Review objects for the games in the list
+     * @throws exception.OurException
+     */
+    public ArrayList<Review> findReviewsByList(String username, String listName, int offset, int limit, boolean newestFirst) throws OurException {
+        return DAO.findReviewsByList(username, listName, offset, limit, newestFirst);
+    }
+
+    /**
+     * Retrieves a page of reviews, newest first.
+     *
+     * @param gameName Text the name of the game has to contain, ignoring case, or null for every game
+     * @param after The last review of the previous page, or null for the first page
+     * @param size The maximum number of reviews in the page
+     * @return ArrayList of Review objects in the page
+     * @throws exception.OurException
+     */
+    public ArrayList<Review> getReviewsPage(String gameName, Review after, int size) throws OurException {
+        return DAO.getReviewsPage(gameName, after, size);
+    }
+
+    /**
+     * Passes every review to an action, newest first.
+     *
+     * @param action Called once for every review
+     * @throws exception.OurException
+     */
+    public void forEachReview(Consumer<Review> action) throws OurException {
+        DAO.forEachReview(action);
+    }
+
+    /**
+     * Retrieves the review statistics of every game that has reviews:
+     * the number of reviews, their average score and how many gave each score.
+     *
+     * @return ArrayList of GameScoreStats objects, one per reviewed game
+     * @throws exception.OurException
+     */
+    public ArrayList<GameScoreStats> getScoreStats() throws OurException {
+        return DAO.getScoreStats();
+    }
+
     /**
      * Show the video of new games.
      *
@@ -381,4 +569,531 @@ public class Controller {
     public void generateReport(String name) throws OurException {
         DAO.generateReport(name);
     }
+
+    //[ASYNC]
+    /**
+     * Hands the result of an asynchronous operation to the JavaFX application thread.
+     * The callback runs immediately if the future is already completed and the caller
+     * is the JavaFX application thread, otherwise it is queued with Platform.runLater.
+     *
+     * @param <T> The type of the result
+     * @param future The asynchronous operation
+     * @param onSuccess Called with the result when the operation succeeds
+     * @param onError Called with the error when the operation fails
+     */
+    public <T> void onFxThread(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<OurException> onError) {
+        future.whenComplete((result, ex) -> {
+            Runnable callback = () -> {
+                if (ex == null) {
+                    onSuccess.accept(result);
+                } else {
+                    onError.accept(unwrap(ex));
+                }
+            };
+
+            if (Platform.isFxApplicationThread()) {
+                callback.run();
+            } else {
+                Platform.runLater(callback);
+            }
+        });
+    }
+
+    /**
+     * Extracts the OurException that made an asynchronous operation fail.
+     *
+     * @param ex The exception the future completed with
+     * @return The original OurException, or a DATABASE error for unexpected failures
+     */
+    private OurException unwrap(Throwable ex) {
+        Throwable cause = ex;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof OurException) {
+            return (OurException) cause;
+        }
+        return new OurException(ErrorMessages.DATABASE);
+    }
+
+    /**
+     * Gets the library of a user if it can be used without a database call.
+     *
+     * @param username The username
+     * @return The library, or null if it is not loaded or its check is due
+     */
+    private UserLibrary cachedLibrary(String username) {
+        UserLibrary library = libraries.get(username);
+        return library == null || library.isCheckDue(System.currentTimeMillis(), libraryTtlMillis) ? null : library;
+    }
+
+    /**
+     * Collects the distinct ids of the given games that are in a list of a library.
+     *
+     * @param library The library
+     * @param listName The name of the list
+     * @param games The games to look for
+     * @return The ids of the games found, in the order of the games
+     */
+    private ArrayList<Integer> idsInList(UserLibrary library, String listName, ArrayList<VideoGame> games) {
+        ArrayList<Integer> found = new ArrayList<>();
+        for (VideoGame game : games) {
+            if (library.hasGame(listName, game.getV_id()) && !found.contains(game.getV_id())) {
+                found.add(game.getV_id());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Applies a change stored by the controller to the library of a user, if it is loaded.
+     *
+     * @param username The username
+     * @param change The change to apply
+     */
+    private void updateLibrary(String username, Consumer<UserLibrary> change) {
+        UserLibrary library = libraries.get(username);
+        if (library != null) {
+            change.accept(library);
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #logIn(String, String)}.
+     *
+     * @param username
+     * @param password
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Profile> logInAsync(String username, String password) {
+        return ASYNC.logIn(username, password).thenCompose(profile -> {
+            if (profile == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            libraries.remove(profile.getUsername());
+            return ASYNC.getUserLibrary(profile.getUsername()).handle((library, ex) -> {
+                if (library != null) {
+                    libraries.put(profile.getUsername(), library);
+                }
+                return profile;
+            });
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #signUp(String, String, String, String, String, String, String, String)}.
+     *
+     * @param gender
+     * @param cardNumber
+     * @param username
+     * @param password
+     * @param email
+     * @param name
+     * @param telephone
+     * @param surname
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Boolean> signUpAsync(String gender, String cardNumber, String username, String password, String email, String name, String telephone, String surname) {
+        return ASYNC.signUp(gender, cardNumber, username, password, email, name, telephone, surname);
+    }
+
+    /**
+     * Asynchronous version of {@link #dropOutUser(String, String)}.
+     *
+     * @param username
+     * @param password
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Boolean> dropOutUserAsync(String username, String password) {
+        libraries.remove(username);
+        return ASYNC.dropOutUser(username, password);
+    }
+
+    /**
+     * Asynchronous version of {@link #dropOutAdmin(String, String, String)}.
+     *
+     * @param usernameToDelete
+     * @param adminUsername
+     * @param adminPassword
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Boolean> dropOutAdminAsync(String usernameToDelete, String adminUsername, String adminPassword) {
+        libraries.remove(usernameToDelete);
+        return ASYNC.dropOutAdmin(usernameToDelete, adminUsername, adminPassword);
+    }
+
+    /**
+     * Asynchronous version of {@link #modifyUser(String, String, String, String, String, String, String)}.
+     *
+     * @param password
+     * @param email
+     * @param name
+     * @param telephone
+     * @param surname
+     * @param username
+     * @param gender
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Boolean> modifyUserAsync(String password, String email, String name, String telephone, String surname, String username, String gender) {
+        return ASYNC.modifyUser(password, email, name, telephone, surname, username, gender);
+    }
+
+    /**
+     * Asynchronous version of {@link #comboBoxInsert()}.
+     *
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<ArrayList<String>> comboBoxInsertAsync() {
+        return ASYNC.comboBoxInsert();
+    }
+
+    /**
+     * Asynchronous version of {@link #findProfileByUsername(String)}.
+     *
+     * @param username
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Profile> findProfileByUsernameAsync(String username) {
+        return ASYNC.findProfileByUsername(username);
+    }
+
+    /**
+     * Asynchronous version of {@link #getAllVideoGames()}.
+     *
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<ArrayList<VideoGame>> getAllVideoGamesAsync() {
+        return ASYNC.getAllVideoGames();
+    }
+
+    /**
+     * Asynchronous version of {@link #getGamesFromList(String, String)}.
+     *
+     * @param username
+     * @param listName
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<ArrayList<VideoGame>> getGamesFromListAsync(String username, String listName) {
+        UserLibrary library = cachedLibrary(username);
+        if (library != null) {
+            return CompletableFuture.completedFuture(library.getGames(listName));
+        }
+        return getUserLibraryAsync(username).thenApply(loaded -> loaded.getGames(listName));
+    }
+
+    /**
+     * Asynchronous version of {@link #verifyGameInList(String, String, int)}.
+     *
+     * @param username
+     * @param listName
+     * @param gameId
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Boolean> verifyGameInListAsync(String username, String listName, int gameId) {
+        UserLibrary library = cachedLibrary(username);
+        if (library != null) {
+            return CompletableFuture.completedFuture(library.hasGame(listName, gameId));
+        }
+        return getUserLibraryAsync(username).thenApply(loaded -> loaded.hasGame(listName, gameId));
+    }
+
+    /**
+     * Asynchronous version of {@link #addGameToList(String, String, int)}.
+     *
+     * @param username
+     * @param listName
+     * @param gameId
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Void> addGameToListAsync(String username, String listName, int gameId) {
+        return ASYNC.addGameToList(username, listName, gameId).thenRun(() -> libraries.remove(username));
+    }
+
+    /**
+     * Asynchronous version of {@link #addGamesToList(String, String, ArrayList<VideoGame>)}.
+     *
+     * @param username
+     * @param listName
+     * @param games
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Void> addGamesToListAsync(String username, String listName, ArrayList<VideoGame> games) {
+        return ASYNC.addGamesToList(username, listName, games)
+                .thenAccept(version -> updateLibrary(username, library -> library.gamesChanged(listName, games, new ArrayList<>(), version)));
+    }
+
+    /**
+     * Asynchronous version of {@link #removeGameFromList(String, String, int)}.
+     *
+     * @param username
+     * @param listName
+     * @param gameId
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Void> removeGameFromListAsync(String username, String listName, int gameId) {
+        return ASYNC.removeGameFromList(username, listName, gameId)
+                .thenAccept(version -> updateLibrary(username, library -> library.gameRemoved(listName, gameId, version)));
+    }
+
+    /**
+     * Asynchronous version of {@link #removeGamesFromList(String, String, ArrayList<VideoGame>)}.
+     *
+     * @param username
+     * @param listName
+     * @param games
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Void> removeGamesFromListAsync(String username, String listName, ArrayList<VideoGame> games) {
+        return ASYNC.removeGamesFromList(username, listName, games)
+                .thenAccept(version -> updateLibrary(username, library -> library.gamesChanged(listName, new ArrayList<>(), games, version)));
+    }
+
+    /**
+     * Asynchronous version of {@link #findVideoGameByName(String)}.
+     *
+     * @param gameName
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<VideoGame> findVideoGameByNameAsync(String gameName) {
+        return ASYNC.findVideoGameByName(gameName);
+    }
+
+    /**
+     * Asynchronous version of {@link #getUserLists(String)}.
+     *
+     * @param username
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<ArrayList<String>> getUserListsAsync(String username) {
+        UserLibrary library = cachedLibrary(username);
+        if (library != null) {
+            return CompletableFuture.completedFuture(library.getListNames());
+        }
+        return getUserLibraryAsync(username).thenApply(UserLibrary::getListNames);
+    }
+
+    /**
+     * Asynchronous version of {@link #newList(Profile, String)}.
+     *
+     * @param profile
+     * @param listName
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Void> newListAsync(Profile profile, String listName) {
+        return ASYNC.newList(profile, listName)
+                .thenAccept(version -> updateLibrary(profile.getUsername(), library -> library.listCreated(listName, version)));
+    }
+
+    /**
+     * Asynchronous version of {@link #deleteList(String, String)}.
+     *
+     * @param username
+     * @param listName
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Void> deleteListAsync(String username, String listName) {
+        return ASYNC.deleteList(username, listName)
+                .thenAccept(version -> updateLibrary(username, library -> library.listDeleted(listName, version)));
+    }
+
+    /**
+     * Asynchronous version of {@link #verifyListName(String, String)}.
+     *
+     * @param username
+     * @param listName
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Boolean> verifyListNameAsync(String username, String listName) {
+        UserLibrary library = cachedLibrary(username);
+        if (library != null) {
+            return CompletableFuture.completedFuture(library.hasList(listName));
+        }
+        return getUserLibraryAsync(username).thenApply(loaded -> loaded.hasList(listName));
+    }
+
+    /**
+     * Asynchronous version of {@link #renameList(String, String, String)}.
+     *
+     * @param username
+     * @param listName
+     * @param listNewName
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Void> renameListAsync(String username, String listName, String listNewName) {
+        return ASYNC.renameList(username, listName, listNewName)
+                .thenAccept(version -> updateLibrary(username, library -> library.listRenamed(listName, listNewName, version)));
+    }
+
+    /**
+     * Asynchronous version of {@link #findReview(String, int)}.
+     *
+     * @param username
+     * @param gameId
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Review> findReviewAsync(String username, int gameId) {
+        return ASYNC.findReview(username, gameId);
+    }
+
+    /**
+     * Asynchronous version of {@link #findReviews(int)}.
+     *
+     * @param gameId
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<ArrayList<Review>> findReviewsAsync(int gameId) {
+        return ASYNC.findReviews(gameId);
+    }
+
+    /**
+     * Asynchronous version of {@link #getAllReviews()}.
+     *
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<ArrayList<Review>> getAllReviewsAsync() {
+        return ASYNC.getAllReviews();
+    }
+
+    /**
+     * Asynchronous version of {@link #saveOrUpdateReview(Review)}.
+     *
+     * @param review
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Boolean> saveOrUpdateReviewAsync(Review review) {
+        return ASYNC.saveOrUpdateReview(review);
+    }
+
+    /**
+     * Asynchronous version of {@link #deleteReview(Review)}.
+     *
+     * @param review
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Void> deleteReviewAsync(Review review) {
+        return ASYNC.deleteReview(review);
+    }
+
+    /**
+     * Asynchronous version of {@link #generateReport(String)}.
+     *
+     * @param name
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Void> generateReportAsync(String name) {
+        return ASYNC.generateReport(name);
+    }
+
+    /**
+     * Asynchronous version of {@link #findReviewsByList(String, String, int, int, boolean)}.
+     *
+     * @param username
+     * @param listName
+     * @param offset
+     * @param limit
+     * @param newestFirst
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<ArrayList<Review>> findReviewsByListAsync(String username, String listName, int offset, int limit, boolean newestFirst) {
+        return ASYNC.findReviewsByList(username, listName, offset, limit, newestFirst);
+    }
+
+    /**
+     * Asynchronous version of {@link #getVideoGamesPage(int, int)}.
+     *
+     * @param afterId
+     * @param size
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<ArrayList<VideoGame>> getVideoGamesPageAsync(int afterId, int size) {
+        return ASYNC.getVideoGamesPage(afterId, size);
+    }
+
+    /**
+     * Asynchronous version of {@link #getReviewsPage(String, Review, int)}.
+     *
+     * @param gameName
+     * @param after
+     * @param size
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<ArrayList<Review>> getReviewsPageAsync(String gameName, Review after, int size) {
+        return ASYNC.getReviewsPage(gameName, after, size);
+    }
+
+    /**
+     * Asynchronous version of {@link #forEachReview(Consumer)}.
+     *
+     * @param action
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Void> forEachReviewAsync(Consumer<Review> action) {
+        return ASYNC.forEachReview(action);
+    }
+
+    /**
+     * Asynchronous version of {@link #verifyGamesInList(String, String, ArrayList)}.
+     *
+     * @param username
+     * @param listName
+     * @param games
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<ArrayList<Integer>> verifyGamesInListAsync(String username, String listName, ArrayList<VideoGame> games) {
+        UserLibrary library = cachedLibrary(username);
+        if (library != null) {
+            return CompletableFuture.completedFuture(idsInList(library, listName, games));
+        }
+        return getUserLibraryAsync(username).thenApply(loaded -> idsInList(loaded, listName, games));
+    }
+
+    /**
+     * Asynchronous version of {@link #applyListChanges(String, String, ArrayList, ArrayList)}.
+     *
+     * @param username
+     * @param listName
+     * @param added
+     * @param removed
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Void> applyListChangesAsync(String username, String listName, ArrayList<VideoGame> added, ArrayList<VideoGame> removed) {
+        return ASYNC.applyListChanges(username, listName, added, removed)
+                .thenAccept(version -> updateLibrary(username, library -> library.gamesChanged(listName, added, removed, version)));
+    }
+
+    /**
+     * Asynchronous version of {@link #getLibraryVersion(String)}.
+     *
+     * @param username
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<Long> getLibraryVersionAsync(String username) {
+        return ASYNC.getLibraryVersion(username);
+    }
+
+    /**
+     * Asynchronous version of {@link #getUserLibrary(String)}.
+     *
+     * @param username
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<UserLibrary> getUserLibraryAsync(String username) {
+        UserLibrary library = cachedLibrary(username);
+        if (library != null) {
+            return CompletableFuture.completedFuture(library);
+        }
+        return ASYNC.getUserLibrary(username).thenApply(loaded -> {
+            libraries.put(username, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #getScoreStats()}.
+     *
+     * @return Future completed with the result of the operation
+     */
+    public CompletableFuture<ArrayList<GameScoreStats>> getScoreStatsAsync() {
+        return ASYNC.getScoreStats();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package controller;
+
+import exception.OurException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+import model.VideoGame;
+
+/**
+ * Write-behind queue for the games added to and removed from one list of a user.
+ * Changes are kept per game, so ticking and unticking the same game cancels out,
+ * and they are sent in a single {@link Controller#applyListChangesAsync} call once
+ * no change has been made for a quiet period, or as soon as {@link #flush()} is
+ * called, for example before leaving the window. Flushes are sent one after the
+ * other in the order they were made. If a flush fails, the failure handler gets
+ * the stored state of every game of that flush, so the window can undo them.
+ * Meant to be used from the JavaFX application thread only.
+ *
+ * @author ema
+ */
+public class ListChangeQueue {
+
+    /**
+     * A pending change of one game.
+     */
+    private static final class Change {
+
+        private final VideoGame game;
+        private boolean stored;
+        private boolean selected;
+
+        private Change(VideoGame game, boolean stored, boolean selected) {
+            this.game = game;
+            this.stored = stored;
+            this.selected = selected;
+        }
+    }
+
+    private final Controller cont;
+    private final String username;
+    private final String listName;
+    private final BiConsumer<Map<Integer, Boolean>, OurException> onFailure;
+    private final PauseTransition quietPeriod;
+    private final Map<Integer, Change> pending = new LinkedHashMap<>();
+    private CompletableFuture<Void> lastFlush = CompletableFuture.completedFuture(null);
+    private final List<CompletableFuture<Void>> flushesInFlight = new ArrayList<>();
+
+    /**
+     * Constructs a new ListChangeQueue.
+     *
+     * @param cont The controller used to store the changes
+     * @param username The username of the owner of the list
+     * @param listName The name of the list
+     * @param quietMillis Milliseconds without changes before they are sent
+     * @param onFailure Called on the JavaFX thread with the stored state of each game, by id,
+     * and the error, when a flush fails
+     */
+    public ListChangeQueue(Controller cont, String username, String listName, long quietMillis,
+            BiConsumer<Map<Integer, Boolean>, OurException> onFailure) {
+        this.cont = cont;
+        this.username = username;
+        this.listName = listName;
+        this.onFailure = onFailure;
+        this.quietPeriod = new PauseTransition(Duration.millis(quietMillis));
+        this.quietPeriod.setOnFinished(event -> flush());
+    }
+
+    /**
+     * Records that a game was ticked or unticked and restarts the quiet period.
+     * A game set back to its stored state before the flush is not sent at all.
+     *
+     * @param game The game
+     * @param selected true if the game was added to the list, false if it was removed
+     */
+    public void toggle(VideoGame game, boolean selected) {
+        Change change = pending.get(game.getV_id());
+        if (change == null) {
+            pending.put(game.getV_id(), new Change(game, !selected, selected));
+        } else if (change.stored == selected) {
+            pending.remove(game.getV_id());
+        } else {
+            change.selected = selected;
+        }
+        quietPeriod.playFromStart();
+    }
+
+    /**
+     * Checks whether some changes are not stored yet.
+     *
+     * @return true if changes are waiting or being sent
+     */
+    public boolean hasPendingChanges() {
+        return !pending.isEmpty() || !flushesInFlight.isEmpty();
+    }
+
+    /**
+     * Sends the waiting changes now, after any flush still being sent.
+     */
+    public void flush() {
+        quietPeriod.stop();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Change> batch = new LinkedHashMap<>(pending);
+        pending.clear();
+        ArrayList<VideoGame> added = new ArrayList<>();
+        ArrayList<VideoGame> removed = new ArrayList<>();
+        for (Change change : batch.values()) {
+            (change.selected ? added : removed).add(change.game);
+        }
+
+        CompletableFuture<Void> flush = lastFlush
+                .handle((result, ex) -> null)
+                .thenCompose(ignored -> cont.applyListChangesAsync(username, listName, added, removed));
+        lastFlush = flush;
+        flushesInFlight.add(flush);
+
+        cont.onFxThread(flush,
+                result -> flushesInFlight.remove(flush),
+                ex -> {
+                    flushesInFlight.remove(flush);
+                    onFailure.accept(rollback(batch), ex);
+                });
+    }
+
+    /**
+     * Sends the waiting changes and runs an action once every change is stored.
+     * The action runs at once when nothing is pending, and not at all if any flush
+     * still being sent fails, not only the last one.
+     *
+     * @param action The action to run on the JavaFX thread
+     */
+    public void flushThen(Runnable action) {
+        flush();
+        if (flushesInFlight.isEmpty()) {
+            action.run();
+            return;
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(flushesInFlight.toArray(new CompletableFuture<?>[0]));
+        cont.onFxThread(all, result -> action.run(), ex -> {});
+    }
+
+    /**
+     * Works out the state to restore for each game of a failed flush.
+     * A game changed again since then keeps its newer change, which is now compared
+     * against the state restored here.
+     *
+     * @param batch The changes of the failed flush
+     * @return The stored state of each game to show again, by game id
+     */
+    private Map<Integer, Boolean> rollback(Map<Integer, Change> batch) {
+        Map<Integer, Boolean> restored = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Change> entry : batch.entrySet()) {
+            Change newer = pending.get(entry.getKey());
+            if (newer == null) {
+                restored.put(entry.getKey(), entry.getValue().stored);
+            } else {
+                newer.stored = entry.getValue().stored;
+                if (newer.stored == newer.selected) {
+                    pending.remove(entry.getKey());
+                }
+            }
+        }
+        return restored;
+    }
+}
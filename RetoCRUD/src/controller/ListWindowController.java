@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.ResourceBundle;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -177,6 +178,7 @@ public class ListWindowController implements Initializable {
             public void handle(ActionEvent e) {
                 try {
                     cont.deleteList(profile.getUsername(), buttonName);
+                    profile.removeList(buttonName);
                     loadListButtons();
                 } catch (OurException ex) {
                     GeneraLog.getLogger().severe("Failed deleting list: " + ex.getMessage());
@@ -258,6 +260,7 @@ public class ListWindowController implements Initializable {
     //[LISTS]
     /**
      * Displays the contents of a selected list in the table.
+     * Both lists are loaded in the background and the table is filled on the JavaFX thread.
      *
      * @param button The button representing the list to show
      */
@@ -266,27 +269,32 @@ public class ListWindowController implements Initializable {
         listName.setText(selectedList);
         selectedButton(button);
 
-        try {
-            ArrayList<VideoGame> myGames = cont.getGamesFromList(profile.getUsername(), "My Games");
-            ArrayList<VideoGame> selectedGames = cont.getGamesFromList(profile.getUsername(), selectedList);
-
-            ArrayList<SelectableVideoGame> selectableGames = new ArrayList<>();
+        String shownList = selectedList;
+        cont.onFxThread(cont.getGamesFromListAsync(profile.getUsername(), "My Games").thenCombine(
+                cont.getGamesFromListAsync(profile.getUsername(), shownList),
+                (myGames, selectedGames) -> {
+                    ArrayList<SelectableVideoGame> selectableGames = new ArrayList<>();
 
-            for (VideoGame game : myGames) {
-                boolean isInSelectedList = selectedGames.stream().anyMatch(g -> g.getV_id() == game.getV_id());
+                    BitSet selectedIds = Profile.gameIds(selectedGames);
 
-                if (!"DEFAULT_GAME".equals(game.getV_name()) && isInSelectedList) {
-                    SelectableVideoGame selectable = new SelectableVideoGame(game, false);
-                    selectableGames.add(selectable);
-                }
-            }
+                    for (VideoGame game : myGames) {
+                        if (selectedIds.get(game.getV_id())) {
+                            SelectableVideoGame selectable = new SelectableVideoGame(game, false);
+                            selectableGames.add(selectable);
+                        }
+                    }
 
-            videoGames = FXCollections.observableArrayList(selectableGames);
-            tableLists.setItems(videoGames);
-        } catch (OurException ex) {
-            GeneraLog.getLogger().severe("Failed showing lists: " + ex.getMessage());
-            showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
-        }
+                    return selectableGames;
+                }), selectableGames -> {
+                    if (!shownList.equals(selectedList)) {
+                        return;
+                    }
+                    videoGames = FXCollections.observableArrayList(selectableGames);
+                    tableLists.setItems(videoGames);
+                }, ex -> {
+                    GeneraLog.getLogger().severe("Failed showing lists: " + ex.getMessage());
+                    showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+                });
     }
 
     /**
@@ -377,17 +385,28 @@ public class ListWindowController implements Initializable {
                 boolean anyAlreadyExists = false;
                 StringBuilder alreadyExistsGames = new StringBuilder();
 
+                ArrayList<VideoGame> selectedGames = new ArrayList<>();
                 for (SelectableVideoGame selectable : videoGames) {
                     if (selectable.isSelected()) {
-                        VideoGame game = selectable.getVideoGame();
+                        selectedGames.add(selectable.getVideoGame());
+                    }
+                }
 
-                        boolean alreadyInList = cont.verifyGameInList(profile.getUsername(), targetList, game.getV_id());
+                BitSet targetIds = new BitSet();
+                for (int id : cont.verifyGamesInList(profile.getUsername(), targetList, selectedGames)) {
+                    targetIds.set(id);
+                }
 
-                        if (!alreadyInList) {
-                            cont.addGameToList(profile.getUsername(), targetList, game.getV_id());
-                            profile.addGame(targetList, game);
-                            anyAdded = true;
-                            selectable.setSelected(false);
+                ArrayList<VideoGame> gamesToAdd = new ArrayList<>();
+                ArrayList<SelectableVideoGame> added = new ArrayList<>();
+                for (SelectableVideoGame selectable : videoGames) {
+                    if (selectable.isSelected()) {
+                        VideoGame game = selectable.getVideoGame();
+
+                        if (!targetIds.get(game.getV_id())) {
+                            targetIds.set(game.getV_id());
+                            gamesToAdd.add(game);
+                            added.add(selectable);
                         } else {
                             anyAlreadyExists = true;
                             alreadyExistsGames.append("- ").append(game.getV_name()).append("\n");
@@ -395,6 +414,15 @@ public class ListWindowController implements Initializable {
                     }
                 }
 
+                if (!gamesToAdd.isEmpty()) {
+                    cont.addGamesToList(profile.getUsername(), targetList, gamesToAdd);
+                    for (SelectableVideoGame selectable : added) {
+                        profile.addGame(targetList, selectable.getVideoGame());
+                        selectable.setSelected(false);
+                    }
+                    anyAdded = true;
+                }
+
                 if (anyAdded && anyAlreadyExists) {
                     showAlert("Partial Success",
                             "Some games were added to " + targetList + ", but others already existed:\n" + alreadyExistsGames.toString(),
@@ -423,30 +451,37 @@ public class ListWindowController implements Initializable {
         try {
             boolean anyRemoved = false;
             ArrayList<SelectableVideoGame> toRemoveFromUI = new ArrayList<>();
+            ArrayList<VideoGame> gamesToRemove = new ArrayList<>();
 
             for (SelectableVideoGame selectable : videoGames) {
                 if (selectable.isSelected()) {
-                    VideoGame game = selectable.getVideoGame();
+                    gamesToRemove.add(selectable.getVideoGame());
+                    toRemoveFromUI.add(selectable);
+                }
+            }
 
-                    cont.removeGameFromList(profile.getUsername(), selectedList, game.getV_id());
+            if (!gamesToRemove.isEmpty()) {
+                cont.removeGamesFromList(profile.getUsername(), selectedList, gamesToRemove);
 
-                    if ("My Games".equals(selectedList)) {
-                        try {
-                            ArrayList<String> allLists = cont.getUserLists(profile.getUsername());
+                if ("My Games".equals(selectedList)) {
+                    try {
+                        ArrayList<String> allLists = cont.getUserLists(profile.getUsername());
+                        for (VideoGame game : gamesToRemove) {
                             for (String listName : allLists) {
                                 profile.removeGame(listName, game);
                             }
-                        } catch (OurException ex) {
-                            GeneraLog.getLogger().severe("Failed removing game from list: " + ex.getMessage());
-                            showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
                         }
-                    } else {
+                    } catch (OurException ex) {
+                        GeneraLog.getLogger().severe("Failed removing game from list: " + ex.getMessage());
+                        showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+                    }
+                } else {
+                    for (VideoGame game : gamesToRemove) {
                         profile.removeGame(selectedList, game);
                     }
-
-                    anyRemoved = true;
-                    toRemoveFromUI.add(selectable);
                 }
+
+                anyRemoved = true;
             }
 
             if (anyRemoved) {
@@ -623,16 +658,14 @@ public class ListWindowController implements Initializable {
     }
     
     /**
-     * Handles the print action by generating a report for the current user.
+     * Handles the print action by generating a report in the background for the current user.
      */
     @FXML
     public void handleImprimirAction() {
-        try {
-            cont.generateReport(profile.getName() + " " + profile.getSurname());
-        }
-        catch (OurException ex) {
+        cont.onFxThread(cont.generateReportAsync(profile.getName() + " " + profile.getSurname()), done -> {
+        }, ex -> {
             GeneraLog.getLogger().severe("Failed to generate report: " + ex.getMessage());
             showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
-        }
+        });
     }
-}
\ No newline at end of file
+}
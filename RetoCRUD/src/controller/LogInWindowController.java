@@ -182,17 +182,15 @@ public class LogInWindowController implements Initializable {
     }
     
     /**
-     * Handles the print action by generating a report.
+     * Handles the print action by generating a report in the background.
      * Creates an empty report when triggered from the login screen.
      */
     @FXML
     public void handleImprimirAction() {
-        try {
-            cont.generateReport("");
-        }
-        catch (OurException ex) {
+        cont.onFxThread(cont.generateReportAsync(""), done -> {
+        }, ex -> {
             GeneraLog.getLogger().severe("Failed to generate report: " + ex.getMessage());
             showAlert("Error", "Failed to generate report", Alert.AlertType.ERROR);
-        }
+        });
     }
 }
\ No newline at end of file
@@ -6,7 +6,13 @@ import java.io.IOException;
 import java.net.URL;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -20,8 +26,10 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 import javafx.beans.value.ChangeListener;
 import javafx.scene.image.Image;
+import javafx.util.Duration;
 import model.*;
 import logger.GeneraLog;
 
@@ -82,15 +90,56 @@ public class MainMenuWindowController implements Initializable
     @FXML
     private TableColumn<SelectableVideoGame, Pegi> tcPegi;
     @FXML
+    private TableColumn<SelectableVideoGame, Double> tcRating;
+    @FXML
+    private TableColumn<SelectableVideoGame, Integer> tcReviews;
+    @FXML
     private TableColumn<SelectableVideoGame, Boolean> tcCheckBox;
     
     private Profile profile;
     private Controller cont;
     private ObservableList<SelectableVideoGame> videoGames;
     private boolean filtersVisible = false;
+    private VideoGameIndex gameIndex;
+
+    /**
+     * Milliseconds without typing before the search is applied.
+     */
+    private static final int SEARCH_DELAY_MILLIS = 150;
+
+    /**
+     * Waits for the user to stop typing before filtering by the search text.
+     */
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(SEARCH_DELAY_MILLIS));
+
+    /**
+     * Milliseconds without ticking a checkbox before the "My Games" changes are stored.
+     */
+    private static final int LIST_FLUSH_DELAY_MILLIS = 500;
+
+    /**
+     * Changes of the "My Games" checkboxes waiting to be stored.
+     */
+    private ListChangeQueue myGamesChanges;
+
+    /**
+     * Rows of the table by game id, to undo the checkboxes of a failed flush.
+     */
+    private final Map<Integer, SelectableVideoGame> rowsById = new HashMap<>();
+
+    /**
+     * Set while checkboxes are restored, so restoring them is not recorded as a change.
+     */
+    private boolean restoringSelection = false;
+
+    /**
+     * Whether closing the window already stores the queued changes.
+     */
+    private boolean flushOnCloseSet = false;
 
     /**
      * Sets the user profile and loads the video games.
+     * The controller must be set first.
      *
      * @param profile The user's profile object
      */
@@ -98,6 +147,7 @@ public class MainMenuWindowController implements Initializable
     {
         this.profile = profile;
         menu.setText(profile.getUsername());
+        myGamesChanges = new ListChangeQueue(cont, profile.getUsername(), "My Games", LIST_FLUSH_DELAY_MILLIS, this::restoreSelection);
         loadVideoGames();
     }
 
@@ -126,7 +176,7 @@ public class MainMenuWindowController implements Initializable
      */
     private void setMenuOptions()
     {
-        miProfile.setOnAction((event) ->
+        miProfile.setOnAction((event) -> myGamesChanges.flushThen(() ->
         {
             try
             {
@@ -153,9 +203,9 @@ public class MainMenuWindowController implements Initializable
                 GeneraLog.getLogger().severe("Failed profile listener: " + ex.getMessage());
                 showAlert("Error", "Failed profile listener", Alert.AlertType.ERROR);
             }
-        });
+        }));
 
-        miLists.setOnAction((event) ->
+        miLists.setOnAction((event) -> myGamesChanges.flushThen(() ->
         {
             try
             {
@@ -179,9 +229,9 @@ public class MainMenuWindowController implements Initializable
                 GeneraLog.getLogger().severe("Failed lists listener: " + ex.getMessage());
                 showAlert("Error", "Failed lists listener", Alert.AlertType.ERROR);
             }
-        });
+        }));
 
-        miReviews.setOnAction((event) ->
+        miReviews.setOnAction((event) -> myGamesChanges.flushThen(() ->
         {
             try
             {
@@ -207,13 +257,13 @@ public class MainMenuWindowController implements Initializable
                 GeneraLog.getLogger().severe("Failed loading reviews: " + ex.getMessage());
                 showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
             }
-        });
+        }));
 
-        miLogOut.setOnAction((event) ->
+        miLogOut.setOnAction((event) -> myGamesChanges.flushThen(() ->
         {
             Stage stage = (Stage) menu.getScene().getWindow();
             stage.close();
-        });
+        }));
     }
 
     /**
@@ -269,139 +319,187 @@ public class MainMenuWindowController implements Initializable
     /**
      * Applies filters to the video games table based on user selections.
      * Filters by search text, platform, PEGI rating, and release date range.
+     * The filters are answered by the search index as BitSet intersections.
      */
     private void filterGames()
     {
-        if (videoGames == null) return;
+        if (videoGames == null || gameIndex == null) return;
 
-        ObservableList<SelectableVideoGame> filtered = videoGames.filtered(selectable -> {
-            VideoGame game = selectable.getVideoGame();
+        EnumSet<Platform> platforms = EnumSet.noneOf(Platform.class);
+        if (chkNintendo.isSelected()) platforms.add(Platform.NINTENDO);
+        if (chkPC.isSelected()) platforms.add(Platform.PC);
+        if (chkPlayStation.isSelected()) platforms.add(Platform.PLAYSTATION);
+        if (chkXbox.isSelected()) platforms.add(Platform.XBOX);
 
-            String searchText = searchBar.getText().toLowerCase().trim();
-            if (!searchText.isEmpty() && !game.getV_name().toLowerCase().contains(searchText)) return false;
+        EnumSet<Pegi> pegis = EnumSet.noneOf(Pegi.class);
+        if (chkPegi3.isSelected()) pegis.add(Pegi.PEGI3);
+        if (chkPegi6.isSelected()) pegis.add(Pegi.PEGI6);
+        if (chkPegi12.isSelected()) pegis.add(Pegi.PEGI12);
+        if (chkPegi16.isSelected()) pegis.add(Pegi.PEGI16);
+        if (chkPegi18.isSelected()) pegis.add(Pegi.PEGI18);
 
-            boolean anyPlatformSelected = chkNintendo.isSelected() || chkPC.isSelected() || chkPlayStation.isSelected() || chkXbox.isSelected();
+        BitSet matches = gameIndex.search(searchBar.getText(), platforms, pegis, fromDate.getValue(), toDate.getValue());
 
-            if (anyPlatformSelected)
-            {
-                Platform gamePlatform = game.getV_platform();
-                boolean matches = (chkNintendo.isSelected() && gamePlatform == Platform.NINTENDO) ||
-                                (chkPC.isSelected() && gamePlatform == Platform.PC) ||
-                                (chkPlayStation.isSelected() && gamePlatform == Platform.PLAYSTATION) ||
-                                (chkXbox.isSelected() && gamePlatform == Platform.XBOX);
-
-                if (!matches) return false;
-            }
-
-            boolean anyPegiSelected = chkPegi3.isSelected() || chkPegi6.isSelected() || chkPegi12.isSelected() || chkPegi16.isSelected() || 
-                                     chkPegi18.isSelected();
-
-            if (anyPegiSelected)
-            {
-                Pegi gamePegi = game.getV_pegi();
-                boolean matches = (chkPegi3.isSelected() && gamePegi == Pegi.PEGI3) ||
-                                (chkPegi6.isSelected() && gamePegi == Pegi.PEGI6) ||
-                                (chkPegi12.isSelected() && gamePegi == Pegi.PEGI12) ||
-                                (chkPegi16.isSelected() && gamePegi == Pegi.PEGI16) ||
-                                (chkPegi18.isSelected() && gamePegi == Pegi.PEGI18);
-
-                if (!matches) return false;
-            }
-
-            LocalDate from = fromDate.getValue();
-            LocalDate to = toDate.getValue();
-            LocalDate gameDate = game.getV_release();
-
-            if (gameDate != null)
-            {
-                if ((from != null && gameDate.isBefore(from)) || (to != null && gameDate.isAfter(to)))
-                {
-                    return false;
-                }
-            }
-
-            return true;
-        });
-
-        tableGames.setItems(filtered);
+        tableGames.setItems(FXCollections.observableArrayList(VideoGameIndex.select(videoGames, matches)));
     }
     
     /**
      * Loads all video games from the database and initializes the table.
-     * Checks which games are already in the user's "My Games" list.
+     * The queries run in the background; the table is filled on the JavaFX thread
+     * once they finish. Checks which games are already in the user's "My Games" list,
+     * attaches the review statistics of each game and builds the search index of the
+     * games in the background too. The games are still shown if the statistics fail.
      */
     private void loadVideoGames()
     {
-        try
-        {
-            ArrayList<VideoGame> allGames = cont.getAllVideoGames();
-            ArrayList<VideoGame> myGames = cont.getGamesFromList(profile.getUsername(), "My Games");
+        tcGame.setCellValueFactory(new PropertyValueFactory<>("v_name"));
+        tcRelease.setCellValueFactory(new PropertyValueFactory<>("v_release"));
+        tcPlatform.setCellValueFactory(new PropertyValueFactory<>("v_platform"));
+        tcPegi.setCellValueFactory(new PropertyValueFactory<>("v_pegi"));
+        tcRating.setCellValueFactory(new PropertyValueFactory<>("rating"));
+        tcRating.setCellFactory(column -> new RatingCell());
+        tcReviews.setCellValueFactory(new PropertyValueFactory<>("reviewCount"));
 
-            ArrayList<SelectableVideoGame> selectableGames = new ArrayList<>();
+        tcCheckBox.setCellValueFactory(cellData -> cellData.getValue().selectedProperty());
+        tcCheckBox.setCellFactory(CheckBoxTableCell.forTableColumn(tcCheckBox));
 
-            for (VideoGame game : allGames)
-            {
-                if ("DEFAULT_GAME".equals(game.getV_name())) {
-                    continue;
-                }
+        final VideoGameIndex[] builtIndex = {null};
 
-                boolean isInMyGames = myGames.stream().anyMatch(g -> g.getV_id() == game.getV_id());
+        CompletableFuture<ArrayList<GameScoreStats>> scoreStats = cont.getScoreStatsAsync().exceptionally(ex ->
+        {
+            GeneraLog.getLogger().warning("Failed loading review statistics: " + ex.getMessage());
+            return new ArrayList<>();
+        });
 
-                if (isInMyGames)
+        cont.onFxThread(cont.getAllVideoGamesAsync().thenCombine(
+                cont.getGamesFromListAsync(profile.getUsername(), "My Games"),
+                (allGames, myGames) ->
                 {
-                    profile.addGame("My Games", game);
-                }
-
-                SelectableVideoGame selectable = new SelectableVideoGame(game, isInMyGames);
+                    ArrayList<SelectableVideoGame> selectableGames = new ArrayList<>();
+                    ArrayList<VideoGame> indexedGames = new ArrayList<>();
+                    BitSet myIds = Profile.gameIds(myGames);
 
-                final boolean[] isUpdating = {false};
+                    for (VideoGame game : allGames)
+                    {
+                        selectableGames.add(createSelectable(game, myIds.get(game.getV_id())));
+                        indexedGames.add(game);
+                    }
 
-                selectable.selectedProperty().addListener((obs, oldVal, newVal) ->
+                    builtIndex[0] = new VideoGameIndex(indexedGames);
+                    return selectableGames;
+                }).thenCombine(scoreStats, (selectableGames, stats) ->
                 {
-                    if (isUpdating[0]) return;
-
-                    try
+                    Map<Integer, GameScoreStats> statsById = new HashMap<>();
+                    for (GameScoreStats gameStats : stats)
                     {
-                        if (newVal)
-                        {
-                            cont.addGameToList(profile.getUsername(), "My Games", game.getV_id());
-                            profile.addGame("My Games", game);
-                        }
-                        else
-                        {
-                            cont.removeGameFromList(profile.getUsername(), "My Games", game.getV_id());
-                            profile.removeGame("My Games", game);
-                        }
+                        statsById.put(gameStats.getGameId(), gameStats);
                     }
-                    catch (OurException ex)
+                    for (SelectableVideoGame selectable : selectableGames)
+                    {
+                        selectable.setScoreStats(statsById.get(selectable.getV_id()));
+                    }
+                    return selectableGames;
+                }),
+                selectableGames ->
+                {
+                    for (SelectableVideoGame selectable : selectableGames)
                     {
-                        showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
-                        isUpdating[0] = true;
-                        selectable.setSelected(oldVal);
-                        isUpdating[0] = false;
+                        rowsById.put(selectable.getVideoGame().getV_id(), selectable);
+                        if (selectable.isSelected())
+                        {
+                            profile.addGame("My Games", selectable.getVideoGame());
+                        }
                     }
+
+                    gameIndex = builtIndex[0];
+                    videoGames = FXCollections.observableArrayList(selectableGames);
+                    filterGames();
+                },
+                ex ->
+                {
+                    GeneraLog.getLogger().severe("Failed loading videogames: " + ex.getMessage());
+                    showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
                 });
+    }
 
-                selectableGames.add(selectable);
-            }
+    /**
+     * Wraps a video game in a selectable row whose checkbox adds it to or
+     * removes it from the user's "My Games" list.
+     * The profile is updated at once and the change is queued, so ticking many
+     * checkboxes in a row is stored with a single DAO call.
+     *
+     * @param game The video game shown in the row
+     * @param isInMyGames Whether the game is already in "My Games"
+     * @return The selectable row
+     */
+    private SelectableVideoGame createSelectable(VideoGame game, boolean isInMyGames)
+    {
+        SelectableVideoGame selectable = new SelectableVideoGame(game, isInMyGames);
 
-            videoGames = FXCollections.observableArrayList(selectableGames);
+        selectable.selectedProperty().addListener((obs, oldVal, newVal) ->
+        {
+            if (restoringSelection) return;
 
-            tcGame.setCellValueFactory(new PropertyValueFactory<>("v_name"));
-            tcRelease.setCellValueFactory(new PropertyValueFactory<>("v_release"));
-            tcPlatform.setCellValueFactory(new PropertyValueFactory<>("v_platform"));
-            tcPegi.setCellValueFactory(new PropertyValueFactory<>("v_pegi"));
+            if (newVal)
+            {
+                profile.addGame("My Games", game);
+            }
+            else
+            {
+                profile.removeGame("My Games", game);
+            }
+            flushOnClose();
+            myGamesChanges.toggle(game, newVal);
+        });
+
+        return selectable;
+    }
 
-            tcCheckBox.setCellValueFactory(cellData -> cellData.getValue().selectedProperty());
-            tcCheckBox.setCellFactory(CheckBoxTableCell.forTableColumn(tcCheckBox));
+    /**
+     * Puts back the checkboxes and the profile of a flush that could not be stored.
+     *
+     * @param stored The stored state of each game of the flush, by game id
+     * @param ex The error of the flush
+     */
+    private void restoreSelection(Map<Integer, Boolean> stored, OurException ex)
+    {
+        GeneraLog.getLogger().severe("Failed storing My Games changes: " + ex.getMessage());
+        restoringSelection = true;
+        try
+        {
+            for (Map.Entry<Integer, Boolean> entry : stored.entrySet())
+            {
+                SelectableVideoGame row = rowsById.get(entry.getKey());
+                if (row == null) continue;
 
-            tableGames.setItems(videoGames);
+                row.setSelected(entry.getValue());
+                if (entry.getValue())
+                {
+                    profile.addGame("My Games", row.getVideoGame());
+                }
+                else
+                {
+                    profile.removeGame("My Games", row.getVideoGame());
+                }
+            }
         }
-        catch (OurException ex)
+        finally
         {
-            GeneraLog.getLogger().severe("Failed loading videogames: " + ex.getMessage());
-            showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+            restoringSelection = false;
         }
+        showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+    }
+
+    /**
+     * Makes closing the window store the queued changes.
+     * The handler is added to the window once, the first time a checkbox changes.
+     */
+    private void flushOnClose()
+    {
+        if (flushOnCloseSet || tableGames.getScene() == null || tableGames.getScene().getWindow() == null) return;
+
+        tableGames.getScene().getWindow().addEventHandler(WindowEvent.WINDOW_HIDING, event -> myGamesChanges.flush());
+        flushOnCloseSet = true;
     }
 
     /**
@@ -420,7 +518,8 @@ public class MainMenuWindowController implements Initializable
         tableGames.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         hideFilters();
 
-        searchBar.textProperty().addListener((observable, oldValue, newValue) -> filterGames());
+        searchDelay.setOnFinished(event -> filterGames());
+        searchBar.textProperty().addListener((observable, oldValue, newValue) -> searchDelay.playFromStart());
 
         ChangeListener<Boolean> platformListener = (obs, oldVal, newVal) -> filterGames();
         chkNintendo.selectedProperty().addListener(platformListener);
@@ -469,16 +568,32 @@ public class MainMenuWindowController implements Initializable
     }
     
     /**
-     * Handles the print action by generating a report for the current user.
+     * Handles the print action by generating a report in the background for the current user.
      */
     @FXML
     public void handleImprimirAction() {
-        try {
-            cont.generateReport(profile.getName() + " " + profile.getSurname());
-        }
-        catch (OurException ex) {
+        cont.onFxThread(cont.generateReportAsync(profile.getName() + " " + profile.getSurname()), done -> {
+        }, ex -> {
             GeneraLog.getLogger().severe("Failed to generate report: " + ex.getMessage());
             showAlert("Error", "Failed to generate report", Alert.AlertType.ERROR);
+        });
+    }
+
+    /**
+     * Cell of the rating column. Shows the average score with one decimal, or
+     * nothing for a game without reviews, and the scores given as a tooltip.
+     */
+    private static final class RatingCell extends TableCell<SelectableVideoGame, Double>
+    {
+        @Override
+        protected void updateItem(Double rating, boolean empty)
+        {
+            super.updateItem(rating, empty);
+            Object row = empty || getTableRow() == null ? null : getTableRow().getItem();
+            GameScoreStats stats = row instanceof SelectableVideoGame ? ((SelectableVideoGame) row).getScoreStats() : null;
+
+            setText(empty || rating == null ? null : String.format("%.1f", rating));
+            setTooltip(stats == null || stats.getReviewCount() == 0 ? null : new Tooltip(stats.getHistogramText()));
         }
     }
 }
\ No newline at end of file
@@ -83,21 +83,22 @@ public class RenameListWindowController implements Initializable {
 
     /**
      * Renames the selected list with the new name provided by the user.
-     * Validates that the new name doesn't already exist, then updates the list.
+     * Validates the new name locally first and then that it does not already exist, then updates the list.
      * Refreshes the parent controller's UI after successful rename.
      */
     private void renameList() {
         String newName = listNewName.getText();
 
         try {
-            if (cont.verifyListName(profile.getUsername(), listNewName.getText())) {
-                txtMessage.setText("List named " + newName + " already exists.");
-            } else if (listNewName.getText().trim().length() == 0) {
+            if (listNewName.getText().trim().length() == 0) {
                 txtMessage.setText("List can't have an empty name.");
             } else if (listNewName.getText().length() > 10) {
                 txtMessage.setText("New name can't have more than 10 characters.");
+            } else if (cont.verifyListName(profile.getUsername(), listNewName.getText())) {
+                txtMessage.setText("List named " + newName + " already exists.");
             }else {
                 cont.renameList(profile.getUsername(), listName, newName);
+                profile.renameList(listName, newName);
                 txtMessage.setText(listName + " updated to " + newName + ".");
                 Button newNameButton = new Button(newName);
                 
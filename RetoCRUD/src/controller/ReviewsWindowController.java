@@ -13,6 +13,8 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -32,6 +34,8 @@ import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.WindowEvent;
 import javafx.util.Callback;
+import javafx.util.Duration;
+import javafx.animation.PauseTransition;
 import logger.GeneraLog;
 
 /**
@@ -77,6 +81,33 @@ public class ReviewsWindowController implements Initializable {
     private ObservableList<Review> reviews;
     private ContextMenu currentContextMenu;
 
+    /**
+     * Number of reviews read per page when showing all reviews.
+     */
+    private static final int PAGE_SIZE = 100;
+
+    /**
+     * Fraction of the table that has to be scrolled before the next page is loaded.
+     */
+    private static final double LOAD_THRESHOLD = 0.9;
+
+    /**
+     * Milliseconds without typing before the search is applied.
+     */
+    private static final int SEARCH_DELAY_MILLIS = 150;
+
+    /**
+     * Waits for the user to stop typing before searching, so all reviews are not
+     * paged again for every key pressed.
+     */
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(SEARCH_DELAY_MILLIS));
+
+    private boolean allReviewsMode;
+    private boolean loadingPage;
+    private boolean morePages;
+    private Review lastLoaded;
+    private int generation;
+
     /**
      * Sets the user profile for this controller.
      *
@@ -106,29 +137,90 @@ public class ReviewsWindowController implements Initializable {
     }
 
     /**
-     * Loads all reviews from the database and populates the table.
+     * Loads the first page of reviews from the database and populates the table.
+     * Further pages are loaded in the background as the table is scrolled down.
      *
      * @throws OurException If there's an error retrieving reviews from the database
      */
     public void loadReview() throws OurException {
-        try {
-            ArrayList<Review> allreviews = cont.getAllReviews();
-            reviews = FXCollections.observableArrayList(allreviews);
-
-            tcGame.setCellValueFactory(new PropertyValueFactory<>("gameName"));
-            tcAutor.setCellValueFactory(new PropertyValueFactory<>("ProfileUsername"));
-            tcRelease.setCellValueFactory(new PropertyValueFactory<>("reviewDate"));
-            tcPlatform.setCellValueFactory(new PropertyValueFactory<>("platform"));
-            tcRate.setCellValueFactory(new PropertyValueFactory<>("scoreFormatted"));
-            tcReview.setCellValueFactory(new PropertyValueFactory<>("description"));
-            if (profile.getUsername().equals("asanchez") || profile.getUsername().equals("rluna")) {
-                setupTableContextMenu();
+        tcGame.setCellValueFactory(new PropertyValueFactory<>("gameName"));
+        tcAutor.setCellValueFactory(new PropertyValueFactory<>("ProfileUsername"));
+        tcRelease.setCellValueFactory(new PropertyValueFactory<>("reviewDate"));
+        tcPlatform.setCellValueFactory(new PropertyValueFactory<>("platform"));
+        tcRate.setCellValueFactory(new PropertyValueFactory<>("scoreFormatted"));
+        tcReview.setCellValueFactory(new PropertyValueFactory<>("description"));
+        if (profile.getUsername().equals("asanchez") || profile.getUsername().equals("rluna")) {
+            setupTableContextMenu();
+        }
+
+        allReviewsMode = true;
+        restartPaging();
+    }
+
+    /**
+     * Empties the table and loads the first page of all reviews whose game matches the
+     * search bar. Pages still loading for an earlier search are ignored.
+     */
+    private void restartPaging() {
+        generation++;
+        loadingPage = false;
+        morePages = true;
+        lastLoaded = null;
+        reviews = FXCollections.observableArrayList();
+        tableReview.setItems(reviews);
+        loadNextReviewPage();
+    }
+
+    /**
+     * Loads the next page of all reviews in the background and appends it to the table.
+     * The game name in the search bar is filtered by the query, so every page holds
+     * matching reviews only. Does nothing if a page is already loading, every page was
+     * loaded, or the table is showing the reviews of a list.
+     */
+    private void loadNextReviewPage() {
+        if (!allReviewsMode || loadingPage || !morePages) {
+            return;
+        }
+        loadingPage = true;
+        int requested = generation;
+        cont.onFxThread(cont.getReviewsPageAsync(searchBar.getText(), lastLoaded, PAGE_SIZE), page -> {
+            if (requested != generation) {
+                return;
             }
-            tableReview.setItems(reviews);
-        } catch (OurException ex) {
+            loadingPage = false;
+            morePages = page.size() == PAGE_SIZE;
+            if (!page.isEmpty()) {
+                lastLoaded = page.get(page.size() - 1);
+                reviews.addAll(page);
+            }
+        }, ex -> {
+            if (requested != generation) {
+                return;
+            }
+            loadingPage = false;
             GeneraLog.getLogger().severe("Failed to load reviews: " + ex.getMessage());
             showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
-        }
+        });
+    }
+
+    /**
+     * Loads the next page of reviews when the table is scrolled near its end.
+     * The vertical scroll bar only exists once the table skin is created, so it is
+     * looked up again whenever the skin changes.
+     */
+    private void setupPaging() {
+        tableReview.skinProperty().addListener((observable, oldSkin, newSkin) -> {
+            for (Node node : tableReview.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                    ScrollBar bar = (ScrollBar) node;
+                    bar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                        if (newValue.doubleValue() >= bar.getMax() * LOAD_THRESHOLD) {
+                            loadNextReviewPage();
+                        }
+                    });
+                }
+            }
+        });
     }
 
     /**
@@ -163,11 +255,17 @@ public class ReviewsWindowController implements Initializable {
 
     /**
      * Filters reviews by game name based on the search bar text.
+     * All reviews are paged again with the name filter in the query; the reviews of
+     * a list are all loaded already, so they are filtered in the table.
      */
     private void searchByName() {
         if (reviews == null) {
             return;
         }
+        if (allReviewsMode) {
+            restartPaging();
+            return;
+        }
         ObservableList<Review> filtered = reviews.filtered(review -> {
             String searchText = searchBar.getText().toLowerCase().trim();
 
@@ -309,6 +407,8 @@ public class ReviewsWindowController implements Initializable {
     /**
      * Filters reviews based on the selected list from the combo box.
      * Shows reviews for games in the selected list, or all reviews if "All Reviews" is selected.
+     * The reviews of the list are read with a single query in the background and the
+     * table is filled on the JavaFX thread, unless another list was selected meanwhile.
      */
     public void showReviewsByList() {
         try {
@@ -322,33 +422,22 @@ public class ReviewsWindowController implements Initializable {
                 loadReview();
                 return;
             }
-            ArrayList<VideoGame> gamesList;
-            if ("My Games".equals(selectedList)) {
-                gamesList = cont.getGamesFromList(profile.getUsername(), "My Games");
-            } else {
-                gamesList = cont.getGamesFromList(profile.getUsername(), selectedList);
-            }
-            if (gamesList == null || gamesList.isEmpty()) {
-                reviews.clear();
-                tableReview.setItems(reviews);
-                showAlert("Information", "No games found in this list", Alert.AlertType.INFORMATION);
-                return;
-            }
-            ArrayList<Review> allReviewsByGame = new ArrayList<>();
-            for (VideoGame game : gamesList) {
-                if (!"DEFAULT_GAME".equals(game.getV_name())) {
-                    ArrayList<Review> reviewsByGame = cont.findReviews(game.getV_id());
-                    if (reviewsByGame != null && !reviewsByGame.isEmpty()) {
-                        allReviewsByGame.addAll(reviewsByGame);
-                    }
+            generation++;
+            allReviewsMode = false;
+            cont.onFxThread(cont.findReviewsByListAsync(profile.getUsername(), selectedList, 0, 0, true), listReviews -> {
+                if (!selectedList.equals(combLists.getValue())) {
+                    return;
                 }
-            }
-            if (allReviewsByGame.isEmpty()) {
-                showAlert("Information", "No reviews found for games in this list", Alert.AlertType.INFORMATION);
-            }
-            reviews = FXCollections.observableArrayList(allReviewsByGame);
-            tableReview.setItems(reviews);
-
+                if (listReviews.isEmpty()) {
+                    showAlert("Information", "No reviews found for games in this list", Alert.AlertType.INFORMATION);
+                }
+                reviews = FXCollections.observableArrayList(listReviews);
+                tableReview.setItems(reviews);
+                searchByName();
+            }, ex -> {
+                GeneraLog.getLogger().severe("Failed to show reviews: " + ex.getMessage());
+                showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+            });
         } catch (OurException ex) {
             GeneraLog.getLogger().severe("Failed to show reviews: " + ex.getMessage());
             showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
@@ -458,7 +547,9 @@ public class ReviewsWindowController implements Initializable {
     @Override
     public void initialize(URL url, ResourceBundle rb) {
         setMenuOptions();
-        searchBar.textProperty().addListener((observable, oldValue, newValue) -> searchByName());
+        setupPaging();
+        searchDelay.setOnFinished(event -> searchByName());
+        searchBar.textProperty().addListener((observable, oldValue, newValue) -> searchDelay.playFromStart());
         combLists.setOnAction(event -> {
                 showReviewsByList();
         });
@@ -493,16 +584,14 @@ public class ReviewsWindowController implements Initializable {
     }
     
     /**
-     * Handles the print action by generating a report for the current user.
+     * Handles the print action by generating a report in the background for the current user.
      */
     @FXML
     public void handleImprimirAction() {
-        try {
-            cont.generateReport(profile.getName() + " " + profile.getSurname());
-        }
-        catch (OurException ex) {
+        cont.onFxThread(cont.generateReportAsync(profile.getName() + " " + profile.getSurname()), done -> {
+        }, ex -> {
             GeneraLog.getLogger().severe("Failed to generate report: " + ex.getMessage());
             showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
-        }
+        });
     }
 }
\ No newline at end of file
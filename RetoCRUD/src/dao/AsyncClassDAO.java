@@ -0,0 +1,360 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import model.GameScoreStats;
+import model.Profile;
+import model.Review;
+import model.UserLibrary;
+import model.VideoGame;
+
+/**
+ * Asynchronous variant of the ClassDAO interface. Every operation is started
+ * immediately and returns a CompletableFuture, so the JavaFX application thread
+ * is never blocked waiting for the database. A failed operation completes its
+ * future exceptionally with the OurException thrown by the underlying DAO.
+ *
+ * @author ema
+ */
+public interface AsyncClassDAO {
+
+    //[USERS]
+    /**
+     * Authenticates a user or admin by username and password.
+     *
+     * @param username The username to authenticate
+     * @param password The password to verify
+     * @return Future completed with the Profile object if authentication succeeds, null otherwise
+     */
+    public CompletableFuture<Profile> logIn(String username, String password);
+
+    /**
+     * Registers a new user in the system.
+     *
+     * @param gender The user's gender
+     * @param cardNumber The user's card number
+     * @param username The desired username
+     * @param password The user's password
+     * @param email The user's email address
+     * @param name The user's first name
+     * @param telephone The user's telephone number
+     * @param surname The user's surname
+     * @return Future completed with true if registration succeeds, false otherwise
+     */
+    public CompletableFuture<Boolean> signUp(String gender, String cardNumber, String username, String password, String email, String name, String telephone, String surname);
+
+    /**
+     * Deletes a user account from the system.
+     *
+     * @param username The username of the account to delete
+     * @param password The password for verification
+     * @return Future completed with true if deletion succeeds, false otherwise
+     */
+    public CompletableFuture<Boolean> dropOutUser(String username, String password);
+
+    /**
+     * Deletes a user account as an administrator.
+     *
+     * @param usernameToDelete The username of the account to delete
+     * @param adminUsername The administrator's username
+     * @param adminPassword The administrator's password
+     * @return Future completed with true if deletion succeeds, false otherwise
+     */
+    public CompletableFuture<Boolean> dropOutAdmin(String usernameToDelete, String adminUsername, String adminPassword);
+
+    /**
+     * Modifies an existing user's information.
+     *
+     * @param password The new password (or existing if unchanged)
+     * @param email The user's email address
+     * @param name The user's first name
+     * @param telephone The user's telephone number
+     * @param surname The user's surname
+     * @param username The user's username (cannot be changed)
+     * @param gender The user's gender
+     * @return Future completed with true if modification succeeds, false otherwise
+     */
+    public CompletableFuture<Boolean> modifyUser(String password, String email, String name, String telephone, String surname, String username, String gender);
+
+    /**
+     * Retrieves a list of all usernames for GUI components.
+     *
+     * @return Future completed with the ArrayList of usernames
+     */
+    public CompletableFuture<ArrayList<String>> comboBoxInsert();
+
+    /**
+     * Finds a user profile by username.
+     *
+     * @param username The username to search for
+     * @return Future completed with the Profile object if found, null otherwise
+     */
+    public CompletableFuture<Profile> findProfileByUsername(String username);
+
+    //[VIDEOGAMES]
+    /**
+     * Retrieves all video games from the database.
+     *
+     * @return Future completed with the ArrayList of all VideoGame objects
+     */
+    public CompletableFuture<ArrayList<VideoGame>> getAllVideoGames();
+
+    /**
+     * Retrieves games from a specific user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @return Future completed with the ArrayList of VideoGame objects in the specified list
+     */
+    public CompletableFuture<ArrayList<VideoGame>> getGamesFromList(String username, String listName);
+
+    /**
+     * Verifies if a specific game is in a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param gameId The ID of the game to check
+     * @return Future completed with true if the game is in the list, false otherwise
+     */
+    public CompletableFuture<Boolean> verifyGameInList(String username, String listName, int gameId);
+
+    /**
+     * Finds which of the given games are already in a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param games ArrayList of VideoGame objects to check
+     * @return Future completed with the ArrayList with the IDs of the games that are in the list
+     */
+    public CompletableFuture<ArrayList<Integer>> verifyGamesInList(String username, String listName, ArrayList<VideoGame> games);
+
+    /**
+     * Adds a game to a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param gameId The ID of the game to add
+     * @return Future completed with the library version of the user after the change
+     */
+    public CompletableFuture<Long> addGameToList(String username, String listName, int gameId);
+
+    /**
+     * Adds multiple games to a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param games ArrayList of VideoGame objects to add
+     * @return Future completed with the library version of the user after the change
+     */
+    public CompletableFuture<Long> addGamesToList(String username, String listName, ArrayList<VideoGame> games);
+
+    /**
+     * Removes a game from a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param gameId The ID of the game to remove
+     * @return Future completed with the library version of the user after the change
+     */
+    public CompletableFuture<Long> removeGameFromList(String username, String listName, int gameId);
+
+    /**
+     * Removes multiple games from a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param games ArrayList of VideoGame objects to remove
+     * @return Future completed with the library version of the user after the change
+     */
+    public CompletableFuture<Long> removeGamesFromList(String username, String listName, ArrayList<VideoGame> games);
+
+    /**
+     * Applies the games added to and removed from a user's list at once.
+     * If the list is "My Games", removed games are removed from all of the user's lists.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param added ArrayList of VideoGame objects to add
+     * @param removed ArrayList of VideoGame objects to remove
+     * @return Future completed with the library version of the user after the change
+     */
+    public CompletableFuture<Long> applyListChanges(String username, String listName, ArrayList<VideoGame> added, ArrayList<VideoGame> removed);
+
+    /**
+     * Finds a video game by its name.
+     *
+     * @param gameName The name of the game to search for
+     * @return Future completed with the VideoGame object if found, null otherwise
+     */
+    public CompletableFuture<VideoGame> findVideoGameByName(String gameName);
+
+    /**
+     * Retrieves a page of video games ordered by id, starting after a given id.
+     *
+     * @param afterId The id of the last game of the previous page, or 0 for the first page
+     * @param size The maximum number of games in the page
+     * @return Future completed with the ArrayList of VideoGame objects in the page
+     */
+    public CompletableFuture<ArrayList<VideoGame>> getVideoGamesPage(int afterId, int size);
+
+    //[LISTS]
+    /**
+     * Retrieves all list names for a specific user.
+     *
+     * @param username The username
+     * @return Future completed with the ArrayList of list names
+     */
+    public CompletableFuture<ArrayList<String>> getUserLists(String username);
+
+    /**
+     * Creates a new list for a user.
+     *
+     * @param profile The user's profile
+     * @param listName The name of the new list
+     * @return Future completed with the library version of the user after the change
+     */
+    public CompletableFuture<Long> newList(Profile profile, String listName);
+
+    /**
+     * Deletes a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list to delete
+     * @return Future completed with the library version of the user after the change
+     */
+    public CompletableFuture<Long> deleteList(String username, String listName);
+
+    /**
+     * Verifies if a list name already exists for a user.
+     *
+     * @param username The username
+     * @param listName The list name to verify
+     * @return Future completed with true if the list name exists, false otherwise
+     */
+    public CompletableFuture<Boolean> verifyListName(String username, String listName);
+
+    /**
+     * Renames a user's list.
+     *
+     * @param username The username
+     * @param listName The current name of the list
+     * @param listNewName The new name for the list
+     * @return Future completed with the library version of the user after the change
+     */
+    public CompletableFuture<Long> renameList(String username, String listName, String listNewName);
+
+    /**
+     * Gets the library version of a user, which moves forward on every change to the user's lists.
+     *
+     * @param username The username
+     * @return Future completed with the library version, or 0 if the user does not exist
+     */
+    public CompletableFuture<Long> getLibraryVersion(String username);
+
+    /**
+     * Reads every list of a user with its games, together with the library version they were read at.
+     *
+     * @param username The username
+     * @return Future completed with the UserLibrary of the user
+     */
+    public CompletableFuture<UserLibrary> getUserLibrary(String username);
+
+    //[REVIEWS]
+    /**
+     * Finds a specific review by username and game ID.
+     *
+     * @param username The username
+     * @param gameId The game ID
+     * @return Future completed with the Review object if found, null otherwise
+     */
+    public CompletableFuture<Review> findReview(String username, int gameId);
+
+    /**
+     * Finds all reviews for a specific game.
+     *
+     * @param gameId The game ID
+     * @return Future completed with the ArrayList of Review objects for the specified game
+     */
+    public CompletableFuture<ArrayList<Review>> findReviews(int gameId);
+
+    /**
+     * Retrieves all reviews from the database.
+     *
+     * @return Future completed with the ArrayList of all Review objects
+     */
+    public CompletableFuture<ArrayList<Review>> getAllReviews();
+
+    /**
+     * Saves a new review or updates an existing one.
+     *
+     * @param review The Review object to save or update
+     * @return Future completed with true if the operation succeeds, false otherwise
+     */
+    public CompletableFuture<Boolean> saveOrUpdateReview(Review review);
+
+    /**
+     * Deletes a review from the database.
+     *
+     * @param review The Review object to delete
+     * @return Future completed when the operation finishes
+     */
+    public CompletableFuture<Void> deleteReview(Review review);
+
+    /**
+     * Retrieves the reviews of every game in a user's list in a single query,
+     * sorted by review date.
+     *
+     * @param username The username of the owner of the list
+     * @param listName The name of the list
+     * @param offset Number of reviews to skip
+     * @param limit Maximum number of reviews to return, or 0 for all of them
+     * @param newestFirst true to sort from newest to oldest, false for the opposite
+     * @return Future completed with the ArrayList of Review objects for the games in the list
+     */
+    public CompletableFuture<ArrayList<Review>> findReviewsByList(String username, String listName, int offset, int limit, boolean newestFirst);
+
+    /**
+     * Retrieves a page of reviews, newest first, starting after a given review.
+     * Reviews are ordered by review date and review id, both descending, with the
+     * reviews that have no date last.
+     *
+     * @param gameName Text the name of the game has to contain, ignoring case, or null for every game
+     * @param after The last review of the previous page, or null for the first page
+     * @param size The maximum number of reviews in the page
+     * @return Future completed with the ArrayList of Review objects in the page
+     */
+    public CompletableFuture<ArrayList<Review>> getReviewsPage(String gameName, Review after, int size);
+
+    /**
+     * Passes every review to an action, newest first, without loading them all in memory.
+     *
+     * @param action Called once for every review
+     * @return Future completed when the operation finishes
+     */
+    public CompletableFuture<Void> forEachReview(Consumer<Review> action);
+
+    /**
+     * Retrieves the review statistics of every game that has reviews:
+     * the number of reviews, their average score and how many gave each score.
+     *
+     * @return Future completed with the ArrayList of GameScoreStats objects, one per reviewed game
+     */
+    public CompletableFuture<ArrayList<GameScoreStats>> getScoreStats();
+
+    //[OTHER]
+    /**
+     * Initializes the database with default data if needed.
+     *
+     * @return Future completed when the operation finishes
+     */
+    public CompletableFuture<Void> initializeDefault();
+
+    /**
+     * Generates a report with the specified name.
+     *
+     * @param name The name for the report
+     * @return Future completed when the operation finishes
+     */
+    public CompletableFuture<Void> generateReport(String name);
+}
@@ -0,0 +1,270 @@
+package dao;
+
+import exception.ErrorMessages;
+import exception.OurException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import model.GameScoreStats;
+import model.Profile;
+import model.Review;
+import model.UserLibrary;
+import model.VideoGame;
+
+/**
+ * Adapts a blocking ClassDAO to the AsyncClassDAO interface.
+ * Each call is handed to the given executor and its result, or the OurException
+ * it throws, completes the returned future.
+ *
+ * @author ema
+ */
+public class AsyncDAOAdapter implements AsyncClassDAO {
+
+    /**
+     * A blocking DAO call that may throw an OurException.
+     *
+     * @param <T> The type of the value returned by the call
+     */
+    @FunctionalInterface
+    private interface DAOCall<T> {
+
+        T call() throws OurException;
+    }
+
+    private final ClassDAO dao;
+    private final Executor executor;
+
+    /**
+     * Constructs a new AsyncDAOAdapter.
+     *
+     * @param dao The blocking DAO that performs the operations
+     * @param executor The executor that runs the blocking calls
+     */
+    public AsyncDAOAdapter(ClassDAO dao, Executor executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+
+    /**
+     * Runs a blocking DAO call on the executor.
+     * If the executor refuses the call the future fails with CONNECTION_POOL_FULL.
+     *
+     * @param <T> The type of the value returned by the call
+     * @param call The DAO call to run
+     * @return Future completed with the result of the call
+     */
+    private <T> CompletableFuture<T> supply(DAOCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(new OurException(ErrorMessages.CONNECTION_POOL_FULL));
+        }
+        return future;
+    }
+
+    //[USERS]
+    @Override
+    public CompletableFuture<Profile> logIn(String username, String password) {
+        return supply(() -> dao.logIn(username, password));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> signUp(String gender, String cardNumber, String username, String password, String email, String name, String telephone, String surname) {
+        return supply(() -> dao.signUp(gender, cardNumber, username, password, email, name, telephone, surname));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> dropOutUser(String username, String password) {
+        return supply(() -> dao.dropOutUser(username, password));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> dropOutAdmin(String usernameToDelete, String adminUsername, String adminPassword) {
+        return supply(() -> dao.dropOutAdmin(usernameToDelete, adminUsername, adminPassword));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> modifyUser(String password, String email, String name, String telephone, String surname, String username, String gender) {
+        return supply(() -> dao.modifyUser(password, email, name, telephone, surname, username, gender));
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<String>> comboBoxInsert() {
+        return supply(() -> dao.comboBoxInsert());
+    }
+
+    @Override
+    public CompletableFuture<Profile> findProfileByUsername(String username) {
+        return supply(() -> dao.findProfileByUsername(username));
+    }
+
+    //[VIDEOGAMES]
+    @Override
+    public CompletableFuture<ArrayList<VideoGame>> getAllVideoGames() {
+        return supply(() -> dao.getAllVideoGames());
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<VideoGame>> getGamesFromList(String username, String listName) {
+        return supply(() -> dao.getGamesFromList(username, listName));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> verifyGameInList(String username, String listName, int gameId) {
+        return supply(() -> dao.verifyGameInList(username, listName, gameId));
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Integer>> verifyGamesInList(String username, String listName, ArrayList<VideoGame> games) {
+        return supply(() -> dao.verifyGamesInList(username, listName, games));
+    }
+
+    @Override
+    public CompletableFuture<Long> addGameToList(String username, String listName, int gameId) {
+        return supply(() -> dao.addGameToList(username, listName, gameId));
+    }
+
+    @Override
+    public CompletableFuture<Long> addGamesToList(String username, String listName, ArrayList<VideoGame> games) {
+        return supply(() -> dao.addGamesToList(username, listName, games));
+    }
+
+    @Override
+    public CompletableFuture<Long> removeGameFromList(String username, String listName, int gameId) {
+        return supply(() -> dao.removeGameFromList(username, listName, gameId));
+    }
+
+    @Override
+    public CompletableFuture<Long> removeGamesFromList(String username, String listName, ArrayList<VideoGame> games) {
+        return supply(() -> dao.removeGamesFromList(username, listName, games));
+    }
+
+    @Override
+    public CompletableFuture<Long> applyListChanges(String username, String listName, ArrayList<VideoGame> added, ArrayList<VideoGame> removed) {
+        return supply(() -> dao.applyListChanges(username, listName, added, removed));
+    }
+
+    @Override
+    public CompletableFuture<VideoGame> findVideoGameByName(String gameName) {
+        return supply(() -> dao.findVideoGameByName(gameName));
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<VideoGame>> getVideoGamesPage(int afterId, int size) {
+        return supply(() -> dao.getVideoGamesPage(afterId, size));
+    }
+
+    //[LISTS]
+    @Override
+    public CompletableFuture<ArrayList<String>> getUserLists(String username) {
+        return supply(() -> dao.getUserLists(username));
+    }
+
+    @Override
+    public CompletableFuture<Long> newList(Profile profile, String listName) {
+        return supply(() -> dao.newList(profile, listName));
+    }
+
+    @Override
+    public CompletableFuture<Long> deleteList(String username, String listName) {
+        return supply(() -> dao.deleteList(username, listName));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> verifyListName(String username, String listName) {
+        return supply(() -> dao.verifyListName(username, listName));
+    }
+
+    @Override
+    public CompletableFuture<Long> renameList(String username, String listName, String listNewName) {
+        return supply(() -> dao.renameList(username, listName, listNewName));
+    }
+
+    @Override
+    public CompletableFuture<Long> getLibraryVersion(String username) {
+        return supply(() -> dao.getLibraryVersion(username));
+    }
+
+    @Override
+    public CompletableFuture<UserLibrary> getUserLibrary(String username) {
+        return supply(() -> dao.getUserLibrary(username));
+    }
+
+    //[REVIEWS]
+    @Override
+    public CompletableFuture<Review> findReview(String username, int gameId) {
+        return supply(() -> dao.findReview(username, gameId));
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Review>> findReviews(int gameId) {
+        return supply(() -> dao.findReviews(gameId));
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Review>> getAllReviews() {
+        return supply(() -> dao.getAllReviews());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveOrUpdateReview(Review review) {
+        return supply(() -> dao.saveOrUpdateReview(review));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteReview(Review review) {
+        return supply(() -> {
+            dao.deleteReview(review);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Review>> findReviewsByList(String username, String listName, int offset, int limit, boolean newestFirst) {
+        return supply(() -> dao.findReviewsByList(username, listName, offset, limit, newestFirst));
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Review>> getReviewsPage(String gameName, Review after, int size) {
+        return supply(() -> dao.getReviewsPage(gameName, after, size));
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachReview(Consumer<Review> action) {
+        return supply(() -> {
+            dao.forEachReview(action);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<GameScoreStats>> getScoreStats() {
+        return supply(() -> dao.getScoreStats());
+    }
+
+    //[OTHER]
+    @Override
+    public CompletableFuture<Void> initializeDefault() {
+        return supply(() -> {
+            dao.initializeDefault();
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> generateReport(String name) {
+        return supply(() -> {
+            dao.generateReport(name);
+            return null;
+        });
+    }
+}
@@ -2,8 +2,11 @@ package dao;
 
 import exception.OurException;
 import java.util.ArrayList;
+import java.util.function.Consumer;
+import model.GameScoreStats;
 import model.Profile;
 import model.Review;
+import model.UserLibrary;
 import model.VideoGame;
 
 /**
@@ -122,15 +125,27 @@ public interface ClassDAO {
      */
     public boolean verifyGameInList(String username, String listName, int gameId) throws OurException;
 
+    /**
+     * Finds which of the given games are already in a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param games ArrayList of VideoGame objects to check
+     * @return ArrayList with the IDs of the games that are in the list
+     * @throws OurException If there's an error during the verification
+     */
+    public ArrayList<Integer> verifyGamesInList(String username, String listName, ArrayList<VideoGame> games) throws OurException;
+
     /**
      * Adds a game to a user's list.
      *
      * @param username The username
      * @param listName The name of the list
      * @param gameId The ID of the game to add
+     * @return The library version of the user after the change
      * @throws OurException If there's an error adding the game
      */
-    public void addGameToList(String username, String listName, int gameId) throws OurException;
+    public long addGameToList(String username, String listName, int gameId) throws OurException;
 
     /**
      * Adds multiple games to a user's list.
@@ -138,9 +153,10 @@ public interface ClassDAO {
      * @param username The username
      * @param listName The name of the list
      * @param games ArrayList of VideoGame objects to add
+     * @return The library version of the user after the change
      * @throws OurException If there's an error adding the games
      */
-    public void addGamesToList(String username, String listName, ArrayList<VideoGame> games) throws OurException;
+    public long addGamesToList(String username, String listName, ArrayList<VideoGame> games) throws OurException;
 
     /**
      * Removes a game from a user's list.
@@ -148,19 +164,35 @@ public interface ClassDAO {
      * @param username The username
      * @param listName The name of the list
      * @param gameId The ID of the game to remove
+     * @return The library version of the user after the change
      * @throws OurException If there's an error removing the game
      */
-    public void removeGameFromList(String username, String listName, int gameId) throws OurException;
+    public long removeGameFromList(String username, String listName, int gameId) throws OurException;
 
     /**
      * Removes multiple games from a user's list.
+     * If the list is "My Games", the games are removed from all of the user's lists.
      *
      * @param username The username
      * @param listName The name of the list
      * @param games ArrayList of VideoGame objects to remove
+     * @return The library version of the user after the change
      * @throws OurException If there's an error removing the games
      */
-    public void removeGamesFromList(String username, String listName, ArrayList<VideoGame> games) throws OurException;
+    public long removeGamesFromList(String username, String listName, ArrayList<VideoGame> games) throws OurException;
+
+    /**
+     * Applies the games added to and removed from a user's list at once.
+     * If the list is "My Games", removed games are removed from all of the user's lists.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param added ArrayList of VideoGame objects to add
+     * @param removed ArrayList of VideoGame objects to remove
+     * @return The library version of the user after the change
+     * @throws OurException If there's an error applying the changes; none of them is applied
+     */
+    public long applyListChanges(String username, String listName, ArrayList<VideoGame> added, ArrayList<VideoGame> removed) throws OurException;
 
     /**
      * Finds a video game by its name.
@@ -171,6 +203,16 @@ public interface ClassDAO {
      */
     public VideoGame findVideoGameByName(String gameName) throws OurException;
 
+    /**
+     * Retrieves a page of video games ordered by id, starting after a given id.
+     *
+     * @param afterId The id of the last game of the previous page, or 0 for the first page
+     * @param size The maximum number of games in the page
+     * @return ArrayList of VideoGame objects in the page
+     * @throws OurException If there's an error retrieving the video games
+     */
+    public ArrayList<VideoGame> getVideoGamesPage(int afterId, int size) throws OurException;
+
     //[LISTS]
     /**
      * Retrieves all list names for a specific user.
@@ -186,18 +228,20 @@ public interface ClassDAO {
      *
      * @param profile The user's profile
      * @param listName The name of the new list
+     * @return The library version of the user after the change
      * @throws OurException If there's an error creating the list
      */
-    public void newList(Profile profile, String listName) throws OurException;
+    public long newList(Profile profile, String listName) throws OurException;
 
     /**
      * Deletes a user's list.
      *
      * @param username The username
      * @param listName The name of the list to delete
+     * @return The library version of the user after the change
      * @throws OurException If there's an error deleting the list
      */
-    public void deleteList(String username, String listName) throws OurException;
+    public long deleteList(String username, String listName) throws OurException;
 
     /**
      * Verifies if a list name already exists for a user.
@@ -215,9 +259,28 @@ public interface ClassDAO {
      * @param username The username
      * @param listName The current name of the list
      * @param listNewName The new name for the list
+     * @return The library version of the user after the change
      * @throws OurException If there's an error renaming the list
      */
-    public void renameList(String username, String listName, String listNewName) throws OurException;
+    public long renameList(String username, String listName, String listNewName) throws OurException;
+
+    /**
+     * Gets the library version of a user, which moves forward on every change to the user's lists.
+     *
+     * @param username The username
+     * @return The library version, or 0 if the user does not exist
+     * @throws OurException If there's an error reading the version
+     */
+    public long getLibraryVersion(String username) throws OurException;
+
+    /**
+     * Reads every list of a user with its games, together with the library version they were read at.
+     *
+     * @param username The username
+     * @return The UserLibrary of the user
+     * @throws OurException If there's an error reading the lists
+     */
+    public UserLibrary getUserLibrary(String username) throws OurException;
 
     //[REVIEWS]
     /**
@@ -264,6 +327,50 @@ public interface ClassDAO {
      */
     public void deleteReview(Review review) throws OurException;
 
+    /**
+     * Retrieves the reviews of every game in a user's list in a single query,
+     * sorted by review date.
+     *
+     * @param username The username of the owner of the list
+     * @param listName The name of the list
+     * @param offset Number of reviews to skip
+     * @param limit Maximum number of reviews to return, or 0 for all of them
+     * @param newestFirst true to sort from newest to oldest, false for the opposite
+     * @return ArrayList of Review objects for the games in the list
+     * @throws OurException If there's an error retrieving the reviews
+     */
+    public ArrayList<Review> findReviewsByList(String username, String listName, int offset, int limit, boolean newestFirst) throws OurException;
+
+    /**
+     * Retrieves a page of reviews, newest first, starting after a given review.
+     * Reviews are ordered by review date and review id, both descending, with the
+     * reviews that have no date last.
+     *
+     * @param gameName Text the name of the game has to contain, ignoring case, or null for every game
+     * @param after The last review of the previous page, or null for the first page
+     * @param size The maximum number of reviews in the page
+     * @return ArrayList of Review objects in the page
+     * @throws OurException If there's an error retrieving the reviews
+     */
+    public ArrayList<Review> getReviewsPage(String gameName, Review after, int size) throws OurException;
+
+    /**
+     * Passes every review to an action, newest first, without loading them all in memory.
+     *
+     * @param action Called once for every review
+     * @throws OurException If there's an error reading the reviews
+     */
+    public void forEachReview(Consumer<Review> action) throws OurException;
+
+    /**
+     * Retrieves the review statistics of every game that has reviews:
+     * the number of reviews, their average score and how many gave each score.
+     *
+     * @return ArrayList of GameScoreStats objects, one per reviewed game
+     * @throws OurException If there's an error retrieving the statistics
+     */
+    public ArrayList<GameScoreStats> getScoreStats() throws OurException;
+
     //[OTHER]
     /**
      * Initializes the database with default data if needed.
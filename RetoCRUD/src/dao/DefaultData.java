@@ -0,0 +1,278 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.logging.Logger;
+import model.Pegi;
+import model.Platform;
+
+/**
+ * Seeds the default users, admins, games, lists and reviews.
+ * The seed has a version that is stored in the seed_version table once it is
+ * applied, so a start on an already seeded database costs a single query.
+ * When the stored version is older every row is sent in a JDBC batch with
+ * INSERT IGNORE, or an INSERT ... SELECT that skips existing games, so seeding
+ * twice never duplicates or overwrites rows. Raise SEED_VERSION whenever the
+ * default data changes.
+ *
+ * @author ema
+ */
+public final class DefaultData {
+
+    private static final Logger LOGGER = Logger.getLogger(DefaultData.class.getName());
+
+    /**
+     * Version of the default data below.
+     */
+    static final int SEED_VERSION = 1;
+
+    private static final String SEED_NAME = "default";
+
+    private static final String[][] USERS = {
+        {"User", "jlopez", "Masculino", "AB1234567890123456789012", "pass123", "jlopez@example.com", "Juan", "987654321", "Lopez"},
+        {"User", "mramirez", "Femenino", "ZX9081726354891027364512", "pass456", "mramirez@example.com", "Maria", "912345678", "Ramirez"},
+        {"User", "cperez", "Masculino", "LM0011223344556677889900", "pass789", "cperez@example.com", "Carlos", "934567890", "Perez"},
+        {"Admin", "asanchez", "CTA-001", null, "qwerty", "asanchez@example.com", "Ana", "900112233", "Sanchez"},
+        {"Admin", "rluna", "CTA-002", null, "zxcvbn", "rluna@example.com", "Rosa", "955667788", "Luna"}
+    };
+
+    private static final Object[][] GAMES = {
+        {"Owlboy", LocalDate.of(2016, 11, 1), Platform.NINTENDO, Pegi.PEGI3},
+        {"Animal Crossing New Horizons", LocalDate.of(2020, 5, 20), Platform.NINTENDO, Pegi.PEGI6},
+        {"Detroit: Become Human", LocalDate.of(2018, 5, 25), Platform.PLAYSTATION, Pegi.PEGI16},
+        {"ASTROBOT", LocalDate.of(2024, 9, 6), Platform.PLAYSTATION, Pegi.PEGI3},
+        {"Call of Duty: Black Ops II", LocalDate.of(2012, 11, 13), Platform.PLAYSTATION, Pegi.PEGI18},
+        {"Halo Infinite", LocalDate.of(2021, 12, 8), Platform.PC, Pegi.PEGI16},
+        {"Balatro", LocalDate.of(2024, 2, 20), Platform.PC, Pegi.PEGI12}
+    };
+
+    private static final String[][] LISTS = {
+        {"jlopez", "My Games"},
+        {"mramirez", "My Games"},
+        {"cperez", "My Games"},
+        {"asanchez", "My Games"},
+        {"rluna", "My Games"},
+        {"asanchez", "NINTENDO"},
+        {"asanchez", "PLAYSTATION"}
+    };
+
+    private static final String[][] LIST_ENTRIES = {
+        {"asanchez", "My Games", "Owlboy"},
+        {"asanchez", "My Games", "Animal Crossing New Horizons"},
+        {"asanchez", "My Games", "ASTROBOT"},
+        {"asanchez", "NINTENDO", "Owlboy"},
+        {"asanchez", "NINTENDO", "Animal Crossing New Horizons"},
+        {"asanchez", "PLAYSTATION", "ASTROBOT"}
+    };
+
+    private static final Object[][] REVIEWS = {
+        {"asanchez", "Owlboy", 7, "If Hayao Miyazaki directed it.", Platform.NINTENDO},
+        {"asanchez", "Animal Crossing New Horizons", 2, "Bad experience. Not for me.", Platform.NINTENDO},
+        {"asanchez", "ASTROBOT", 10, "Graphically stunning.", Platform.PLAYSTATION},
+        {"cperez", "Detroit: Become Human", 7, "They dont make games like this.", Platform.PLAYSTATION},
+        {"cperez", "ASTROBOT", 9, "GOTY.", Platform.PLAYSTATION},
+        {"jlopez", "Call of Duty: Black Ops II", 4, "Mid game.", Platform.PLAYSTATION}
+    };
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private DefaultData() {}
+
+    /**
+     * Seeds the default data unless the current version is already applied.
+     * Runs on the connection of the caller, inside its transaction.
+     *
+     * @param connection The connection to seed
+     * @param hasher Hashes the passwords of the default profiles
+     * @return true if the data was seeded, false if it was already current
+     * @throws SQLException If the data cannot be read or written
+     */
+    public static boolean seed(Connection connection, PasswordHasher hasher) throws SQLException {
+        createVersionTable(connection);
+        if (appliedVersion(connection) >= SEED_VERSION) {
+            return false;
+        }
+
+        insertProfiles(connection, hasher);
+        insertGames(connection);
+        insertLists(connection);
+        insertListEntries(connection);
+        insertReviews(connection);
+        SchemaMigration.rebuildScoreStats(connection);
+
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO seed_version (seed_name, seed_version) VALUES (?, ?) ON DUPLICATE KEY UPDATE seed_version = VALUES(seed_version)")) {
+            stmt.setString(1, SEED_NAME);
+            stmt.setInt(2, SEED_VERSION);
+            stmt.executeUpdate();
+        }
+        LOGGER.info("Default data seeded at version " + SEED_VERSION);
+        return true;
+    }
+
+    /**
+     * Creates the seed_version table if it does not exist.
+     *
+     * @param connection The connection to use
+     * @throws SQLException If the table cannot be created
+     */
+    private static void createVersionTable(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS seed_version ("
+                    + "seed_name VARCHAR(40) NOT NULL PRIMARY KEY, "
+                    + "seed_version INT NOT NULL)");
+        }
+    }
+
+    /**
+     * Reads the version of the default data stored in the database.
+     *
+     * @param connection The connection to use
+     * @return The applied version, or 0 if the data was never seeded
+     * @throws SQLException If the version cannot be read
+     */
+    private static int appliedVersion(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT seed_version FROM seed_version WHERE seed_name = ?")) {
+            stmt.setString(1, SEED_NAME);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Inserts the default users and admins that do not exist yet.
+     *
+     * @param connection The connection to use
+     * @param hasher Hashes the passwords
+     * @throws SQLException If the profiles cannot be inserted
+     */
+    private static void insertProfiles(Connection connection, PasswordHasher hasher) throws SQLException {
+        try (PreparedStatement profiles = connection.prepareStatement(
+                "INSERT IGNORE INTO profile_ (username, password_, email, name_, telephone, surname) VALUES (?, ?, ?, ?, ?, ?)");
+                PreparedStatement users = connection.prepareStatement(
+                        "INSERT IGNORE INTO user_ (username, gender, card_number) VALUES (?, ?, ?)");
+                PreparedStatement admins = connection.prepareStatement(
+                        "INSERT IGNORE INTO admin_ (username, current_account) VALUES (?, ?)")) {
+            for (String[] user : USERS) {
+                profiles.setString(1, user[1]);
+                profiles.setString(2, hasher.hash(user[4]));
+                profiles.setString(3, user[5]);
+                profiles.setString(4, user[6]);
+                profiles.setString(5, user[7]);
+                profiles.setString(6, user[8]);
+                profiles.addBatch();
+
+                if (user[0].equals("User")) {
+                    users.setString(1, user[1]);
+                    users.setString(2, user[2]);
+                    users.setString(3, user[3]);
+                    users.addBatch();
+                } else {
+                    admins.setString(1, user[1]);
+                    admins.setString(2, user[2]);
+                    admins.addBatch();
+                }
+            }
+            profiles.executeBatch();
+            users.executeBatch();
+            admins.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts the default games whose name is not in the catalog yet.
+     * Games have a generated id and no unique name, so existing games are
+     * skipped by the query instead of by a key.
+     *
+     * @param connection The connection to use
+     * @throws SQLException If the games cannot be inserted
+     */
+    private static void insertGames(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO videogame (v_name, v_release, v_platform, v_pegi) SELECT ?, ?, ?, ? FROM DUAL "
+                + "WHERE NOT EXISTS (SELECT 1 FROM videogame WHERE v_name = ?)")) {
+            for (Object[] game : GAMES) {
+                stmt.setString(1, (String) game[0]);
+                stmt.setDate(2, Date.valueOf((LocalDate) game[1]));
+                stmt.setString(3, ((Platform) game[2]).name());
+                stmt.setString(4, ((Pegi) game[3]).name());
+                stmt.setString(5, (String) game[0]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts the default lists that do not exist yet.
+     *
+     * @param connection The connection to use
+     * @throws SQLException If the lists cannot be inserted
+     */
+    private static void insertLists(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT IGNORE INTO user_list (username, list_name) VALUES (?, ?)")) {
+            for (String[] list : LISTS) {
+                stmt.setString(1, list[0]);
+                stmt.setString(2, list[1]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts the default list entries that do not exist yet.
+     * Lists and games are found by name, so the entries do not depend on the generated ids.
+     *
+     * @param connection The connection to use
+     * @throws SQLException If the entries cannot be inserted
+     */
+    private static void insertListEntries(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT IGNORE INTO list_entry (list_id, videogame_id) "
+                + "SELECT u.list_id, MIN(v.v_id) FROM user_list u JOIN videogame v ON v.v_name = ? "
+                + "WHERE u.username = ? AND u.list_name = ? GROUP BY u.list_id")) {
+            for (String[] entry : LIST_ENTRIES) {
+                stmt.setString(1, entry[2]);
+                stmt.setString(2, entry[0]);
+                stmt.setString(3, entry[1]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts the default reviews that do not exist yet.
+     * The review id is built as "username-gameId", as the Review constructor does.
+     *
+     * @param connection The connection to use
+     * @throws SQLException If the reviews cannot be inserted
+     */
+    private static void insertReviews(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT IGNORE INTO review (r_id, username, v_id, score, description, review_date, platform) "
+                + "SELECT CONCAT(?, '-', MIN(v_id)), ?, MIN(v_id), ?, ?, ?, ? FROM videogame WHERE v_name = ? HAVING MIN(v_id) IS NOT NULL")) {
+            Date today = Date.valueOf(LocalDate.now());
+            for (Object[] review : REVIEWS) {
+                stmt.setString(1, (String) review[0]);
+                stmt.setString(2, (String) review[0]);
+                stmt.setInt(3, (Integer) review[2]);
+                stmt.setString(4, (String) review[3]);
+                stmt.setDate(5, today);
+                stmt.setString(6, ((Platform) review[4]).name());
+                stmt.setString(7, (String) review[1]);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package dao;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded record of recent failed login attempts, counted per username.
+ * The failures of a username are counted within a window of NEGATIVECACHETTL
+ * seconds that starts with the first of them. Once LOGINMAXFAILURES attempts
+ * have failed, further attempts on that username are refused until the window
+ * ends, without querying the database or checking the password hash, whatever
+ * password they try. Usernames are compared ignoring case. Entries are kept in
+ * access order, so a username under attack stays in the cache, and the least
+ * recently used one is evicted when the cache reaches NEGATIVECACHESIZE entries.
+ *
+ * @author ema
+ */
+public class FailedLoginCache {
+
+    /**
+     * The failures of one username in the current window.
+     */
+    private static final class Entry {
+
+        private int failures;
+        private final long windowEnd;
+
+        private Entry(long windowEnd) {
+            this.windowEnd = windowEnd;
+        }
+    }
+
+    private final int capacity;
+    private final long windowNanos;
+    private final int maxFailures;
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * Constructs a new FailedLoginCache.
+     * Reads the capacity, window and failure limit from the config file, defaulting
+     * to 1000 usernames, a window of 60 seconds and 5 failures.
+     */
+    public FailedLoginCache() {
+        int size;
+        long window;
+        int failures;
+        try {
+            ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+            size = Integer.parseInt(configFile.getString("NEGATIVECACHESIZE"));
+            window = Long.parseLong(configFile.getString("NEGATIVECACHETTL"));
+            failures = Integer.parseInt(configFile.getString("LOGINMAXFAILURES"));
+        } catch (Exception e) {
+            size = 1000;
+            window = 60;
+            failures = 5;
+        }
+        this.capacity = Math.max(0, size);
+        this.windowNanos = TimeUnit.SECONDS.toNanos(Math.max(0, window));
+        this.maxFailures = Math.max(1, failures);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Checks if a username has reached the failure limit in its current window.
+     *
+     * @param username The username of the attempt
+     * @return true if the attempt must be refused
+     */
+    public synchronized boolean isLockedOut(String username) {
+        Entry entry = current(key(username));
+        return entry != null && entry.failures >= maxFailures;
+    }
+
+    /**
+     * Records a failed attempt, starting a new window if the username has none.
+     *
+     * @param username The username of the attempt
+     */
+    public synchronized void recordFailure(String username) {
+        if (capacity == 0 || windowNanos == 0) {
+            return;
+        }
+        String key = key(username);
+        Entry entry = current(key);
+        if (entry == null) {
+            entry = new Entry(System.nanoTime() + windowNanos);
+            entries.put(key, entry);
+        }
+        entry.failures++;
+    }
+
+    /**
+     * Forgets the failed attempts of a username.
+     * Must be called when the user logs in, the profile is created or its password changes.
+     *
+     * @param username The username whose attempts are forgotten
+     */
+    public synchronized void invalidate(String username) {
+        entries.remove(key(username));
+    }
+
+    /**
+     * Forgets every failed attempt, for example once the default profiles are created.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the entry of a username, dropping it if its window has ended.
+     *
+     * @param key The lowercased username
+     * @return The entry, or null if the username has no failures in a current window
+     */
+    private Entry current(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.windowEnd >= 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Builds the key of a username.
+     *
+     * @param username The username
+     * @return The lowercased username
+     */
+    private static String key(String username) {
+        return String.valueOf(username).toLowerCase(Locale.ROOT);
+    }
+}
@@ -3,107 +3,177 @@ package dao;
 import exception.ErrorMessages;
 import exception.OurException;
 import java.io.File;
-import java.io.InputStream;
-import java.sql.Connection;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import logger.GeneraLog;
 import model.*;
-import net.sf.jasperreports.engine.JasperExportManager;
-import net.sf.jasperreports.engine.JasperFillManager;
-import net.sf.jasperreports.engine.JasperPrint;
+import org.hibernate.LockMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
-import threads.SessionThread;
+import org.hibernate.query.Query;
+import threads.SessionExecutor;
 
 /**
  * Hibernate implementation of the ClassDAO interface.
  * Provides data access operations for users, video games, lists, and reviews
- * using Hibernate ORM with connection pool management through SessionThread.
+ * using Hibernate ORM. Every operation runs as a work unit on the bounded
+ * SessionExecutor, which returns the pooled connection as soon as it finishes.
  *
  * @author ema
  */
 public class HibernateImplementation implements ClassDAO {
     /**
-     * List of active SessionThread instances for connection management.
+     * Maximum time in seconds to wait for pending work units on shutdown.
      */
-    private final List<SessionThread> activeThreads = new ArrayList<>();
+    private static final long SHUTDOWN_TIMEOUT = 10;
 
     /**
-     * Starts a new SessionThread and adds it to the active threads list.
+     * Maximum number of ids bound to a single IN clause.
+     */
+    private static final int MAX_IN_PARAMETERS = 1000;
+
+    /**
+     * Subquery of the lists of a user, bound to :username.
+     */
+    private static final String LISTS_OF_USER = "SELECT u FROM UserList u WHERE u.profile.username = :username";
+
+    /**
+     * Subquery of a list of a user by its name, bound to :username and :listName.
+     */
+    private static final String LIST_BY_NAME = LISTS_OF_USER + " AND u.listName = :listName";
+
+    /**
+     * Number of games read per query when the catalog cache is loaded.
+     */
+    private static final int CATALOG_PAGE_SIZE = 1000;
+
+    /**
+     * Worker pool that runs the database work units.
+     */
+    private final SessionExecutor executor = new SessionExecutor();
+
+    /**
+     * Read-through cache of the video game catalog.
+     */
+    private final VideoGameCatalog catalog = HibernateUtil.getCatalog();
+
+    /**
+     * Recent failed login attempts per username, which lock the username out for a while.
+     */
+    private final FailedLoginCache failedLogins = new FailedLoginCache();
+
+    /**
+     * Hashes new passwords and verifies stored ones.
+     */
+    private final PasswordHasher hasher = new PasswordHasher();
+
+    /**
+     * Fills and exports the video game report from the cached catalog.
+     */
+    private final ReportService reports = new ReportService(catalog, this::loadCatalog, this::getScoreStats);
+
+    /**
+     * Gets the executor that runs the database work units.
+     * Exposes the queue depth and in-flight metrics of the session pool.
      *
-     * @return The started SessionThread
+     * @return The SessionExecutor of this DAO
      */
-    private SessionThread startSessionThread() {
-        SessionThread thread = new SessionThread();
-        activeThreads.add(thread);
-        thread.start();
-        return thread;
+    public SessionExecutor getExecutor() {
+        return executor;
     }
 
     /**
-     * Cleans up all active threads by releasing their sessions and waiting for them to finish.
-     * Should be called when shutting down the application or when all operations are complete.
+     * Gets the service that fills and exports the video game report.
+     * Can be used to export the report as CSV or XLSX, or to a stream.
+     *
+     * @return The ReportService of this DAO
      */
-    public void cleanupThreads() {
-        for (SessionThread t : activeThreads) {
-            t.releaseSession();
-        }
+    public ReportService getReportService() {
+        return reports;
+    }
 
-        for (SessionThread t : activeThreads) {
-            try {
-                t.join();
-            } catch (InterruptedException e) {}
-        }
-        activeThreads.clear();
+    /**
+     * Stops the session executor and the report thread, waiting for the pending
+     * work units to finish.
+     * Should be called when shutting down the application.
+     */
+    public void cleanupThreads() {
+        reports.shutdown();
+        executor.shutdown(SHUTDOWN_TIMEOUT);
     }
 
     /**
      * Authenticates a user or admin by username and password.
+     * The profile is resolved polymorphically by its primary key in a single query,
+     * and its lists are not loaded. Failed attempts are counted per username, and
+     * once too many have failed within the window, further attempts are refused
+     * without querying the database or checking the password hash.
+     * Plaintext passwords, or hashes made with a different cost, are rehashed
+     * with the current cost after a successful login.
      *
      * @param username The username to authenticate
      * @param password The password to verify
      * @return The authenticated Profile (User or Admin), or null if authentication fails
-     * @throws OurException if a database error occurs during login
+     * @throws OurException if a database error occurs during login, or the username is locked out
      */
     @Override
     public Profile logIn(String username, String password) throws OurException {
-        Session session = null;
-        try {
-            session = HibernateUtil.getSession();
+        if (username == null || password == null) {
+            return null;
+        }
+        if (failedLogins.isLockedOut(username)) {
+            throw new OurException(ErrorMessages.TOO_MANY_LOGIN_ATTEMPTS);
+        }
 
-            String hql = "FROM User WHERE username = :username AND password = :password";
-            User user = session.createQuery(hql, User.class)
-                    .setParameter("username", username)
-                    .setParameter("password", password)
-                    .uniqueResult();
+        Profile profile = executor.execute(session -> {
+            Profile found = session.get(Profile.class, username);
 
-            if (user != null) {
-                return user;
+            if (found == null || !hasher.verify(password, found.getPassword())) {
+                return null;
             }
 
-            hql = "FROM Admin WHERE username = :username AND password = :password";
-            Admin admin = session.createQuery(hql, Admin.class)
-                    .setParameter("username", username)
-                    .setParameter("password", password)
-                    .uniqueResult();
-
-            return admin;
-        } catch (Exception e) {
-            throw new OurException(ErrorMessages.LOGIN);
-        } finally {
-            if (session != null && session.isOpen()) {
-                session.close();
+            if (hasher.needsRehash(found.getPassword())) {
+                found.setPassword(hasher.hash(password));
+                session.flush();
             }
+
+            return detach(session, found);
+        }, ErrorMessages.LOGIN);
+
+        if (profile == null) {
+            failedLogins.recordFailure(username);
+        } else {
+            failedLogins.invalidate(username);
         }
+        return profile;
+    }
+
+    /**
+     * Detaches a profile from its session so it can be used after the session closes.
+     * The in-memory lists start empty and the windows fill them with the games they load.
+     *
+     * @param session The session the profile was loaded in
+     * @param profile The profile to detach
+     * @return The detached profile
+     */
+    private Profile detach(Session session, Profile profile) {
+        session.evict(profile);
+        profile.setListedGames(new HashSet<>());
+        return profile;
     }
 
     /**
      * Registers a new user in the system.
-     * Creates a new User entity and initializes their "My Games" list with the first game.
+     * Creates a new User entity and their empty "My Games" list.
      *
      * @param gender User's gender
      * @param cardNumber User's card number
@@ -118,34 +188,16 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public boolean signUp(String gender, String cardNumber, String username, String password, String email, String name, String telephone, String surname) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
-
-            User user = new User(gender, cardNumber, username, password, email, name, telephone, surname);
+        boolean registered = executor.execute(session -> {
+            User user = new User(gender, cardNumber, username, hasher.hash(password), email, name, telephone, surname);
             session.save(user);
 
-            ArrayList<VideoGame> allGames = getAllVideoGames();
-            session.save(new Listed(user, allGames.get(0), "My Games"));
+            session.save(new UserList(user, "My Games"));
 
-            session.getTransaction().commit();
             return true;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.REGISTER_USER);
-        } finally {
-            thread.releaseSession();
-        }
+        }, ErrorMessages.REGISTER_USER);
+        failedLogins.invalidate(username);
+        return registered;
     }
 
     /**
@@ -159,35 +211,15 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public boolean dropOutUser(String username, String password) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
-
+        return executor.execute(session -> {
             User user = session.get(User.class, username);
-            if (user == null || !user.getPassword().equals(password)) {
+            if (user == null || !hasher.verify(password, user.getPassword())) {
                 throw new OurException(ErrorMessages.LOGIN);
             }
 
             session.delete(user);
-            session.getTransaction().commit();
-
             return true;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DELETE_USER);
-        } finally {
-            thread.releaseSession();
-        }
+        }, ErrorMessages.DELETE_USER);
     }
 
     /**
@@ -202,15 +234,9 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public boolean dropOutAdmin(String usernameToDelete, String adminUsername, String adminPassword) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
-
+        return executor.execute(session -> {
             Admin admin = session.get(Admin.class, adminUsername);
-            if (admin == null || !admin.getPassword().equals(adminPassword)) {
+            if (admin == null || !hasher.verify(adminPassword, admin.getPassword())) {
                 throw new OurException(ErrorMessages.INVALID_ADMIN_CREDENTIALS);
             }
 
@@ -226,28 +252,16 @@ public class HibernateImplementation implements ClassDAO {
                 }
             }
 
-            session.getTransaction().commit();
             return true;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DELETE_USER);
-        } finally {
-            thread.releaseSession();
-        }
+        }, ErrorMessages.DELETE_USER);
     }
 
     /**
      * Updates user profile information.
      * If the profile is a User (not Admin), also updates the gender field.
+     * A new password is hashed; passing the stored hash keeps the current one.
      *
-     * @param password New password
+     * @param password New password, or the stored hash to keep it unchanged
      * @param email New email address
      * @param name New first name
      * @param telephone New phone number
@@ -259,18 +273,15 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public boolean modifyUser(String password, String email, String name, String telephone, String surname, String username, String gender) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        try {
-            session = waitForSession(thread);
-            session.beginTransaction();
-
+        boolean modified = executor.execute(session -> {
             Profile profile = session.get(Profile.class, username);
             if (profile == null) {
                 throw new OurException(ErrorMessages.USER_NOT_FOUND);
             }
 
-            profile.setPassword(password);
+            if (!password.equals(profile.getPassword())) {
+                profile.setPassword(hasher.hash(password));
+            }
             profile.setEmail(email);
             profile.setName(name);
             profile.setTelephone(telephone);
@@ -281,21 +292,10 @@ public class HibernateImplementation implements ClassDAO {
             }
 
             session.update(profile);
-            session.getTransaction().commit();
             return true;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.UPDATE_USER);
-        } finally {
-            thread.releaseSession();
-        }
+        }, ErrorMessages.UPDATE_USER);
+        failedLogins.invalidate(username);
+        return modified;
     }
 
     /**
@@ -306,22 +306,13 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public ArrayList<String> comboBoxInsert() throws OurException {
-        Session session = null;
-        try {
-            session = HibernateUtil.getSession();
-
+        return executor.execute(session -> {
             List<String> usernames = session.createQuery(
                     "SELECT u.username FROM User u", String.class
             ).list();
 
             return new ArrayList<>(usernames);
-        } catch (Exception e) {
-            throw new OurException(ErrorMessages.GET_USERS);
-        } finally {
-            if (session != null && session.isOpen()) {
-                session.close();
-            }
-        }
+        }, ErrorMessages.GET_USERS);
     }
 
     /**
@@ -333,64 +324,46 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public Profile findProfileByUsername(String username) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        try {
-            session = waitForSession(thread);
-            session.beginTransaction();
-
+        return executor.execute(session -> {
             Profile profile = session.get(Profile.class, username);
-
-            session.getTransaction().commit();
-            return profile;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+            return profile == null ? null : detach(session, profile);
+        }, ErrorMessages.DATABASE);
     }
 
     /**
-     * Retrieves all video games from the database.
+     * Retrieves all video games, from the catalog cache when it is loaded.
      *
      * @return ArrayList of all VideoGame objects
      * @throws OurException if retrieval fails or connection pool is full
      */
     @Override
     public ArrayList<VideoGame> getAllVideoGames() throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        try {
-            session = waitForSession(thread);
-            session.beginTransaction();
-
-            ArrayList<VideoGame> gamesList = new ArrayList<>(
-                    session.createNativeQuery("SELECT * FROM videogame", VideoGame.class).getResultList()
-            );
+        return catalog.getAll(this::loadCatalog);
+    }
 
-            session.getTransaction().commit();
-            return gamesList;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
+    /**
+     * Reads the whole video game catalog in its own work unit.
+     * Used by the catalog cache on a miss. The games are read in keyset pages and
+     * the session is cleared between pages, so it never tracks the whole table.
+     *
+     * @return List of all VideoGame objects
+     * @throws OurException if retrieval fails or connection pool is full
+     */
+    private List<VideoGame> loadCatalog() throws OurException {
+        return executor.execute(session -> {
+            List<VideoGame> games = new ArrayList<>();
+            List<VideoGame> page;
+            int afterId = 0;
+            do {
+                page = queryVideoGamesPage(session, afterId, CATALOG_PAGE_SIZE);
+                games.addAll(page);
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getV_id();
                 }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+                session.clear();
+            } while (page.size() == CATALOG_PAGE_SIZE);
+            return games;
+        }, ErrorMessages.DATABASE);
     }
 
     /**
@@ -403,49 +376,20 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public ArrayList<VideoGame> getGamesFromList(String username, String listName) throws OurException {
-        ArrayList<VideoGame> games = new ArrayList<>();
-        SessionThread thread = startSessionThread();
-        Session session = null;
-
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
-
-            Profile profile = session.get(Profile.class, username);
-
-            if (profile != null) {
-                List<Listed> listedGames = session.createQuery(
-                        "FROM Listed l WHERE l.profile.username = :username AND l.listName = :listName", Listed.class)
-                        .setParameter("username", username)
-                        .setParameter("listName", listName)
-                        .list();
-
-                for (Listed listed : listedGames) {
-                    games.add(listed.getVideogame());
-                }
-            }
-
-            session.getTransaction().commit();
+        return executor.execute(session -> {
+            List<VideoGame> games = session.createQuery(
+                    "SELECT l.videogame FROM Listed l JOIN l.userList u WHERE u.profile.username = :username AND u.listName = :listName", VideoGame.class)
+                    .setParameter("username", username)
+                    .setParameter("listName", listName)
+                    .list();
 
-            return games;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+            return new ArrayList<>(games);
+        }, ErrorMessages.DATABASE);
     }
 
     /**
      * Verifies if a specific game exists in a user's list.
+     * Projects a constant with LIMIT 1, so no list, profile or game is loaded.
      *
      * @param username The username of the profile
      * @param listName The name of the list
@@ -455,130 +399,139 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public boolean verifyGameInList(String username, String listName, int gameId) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        boolean listed = false;
-
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
-
-            Profile profile = session.get(Profile.class, username);
-
-            if (profile != null) {
-                List<Listed> listedGames = session.createQuery(
-                        "FROM Listed l WHERE l.profile.username = :username AND l.listName = :listName AND l.videogame.v_id = :gameId", Listed.class
-                )
-                        .setParameter("username", username)
-                        .setParameter("listName", listName)
-                        .setParameter("gameId", gameId)
-                        .list();
-
-                if (!listedGames.isEmpty()) {
-                    listed = true;
-                }
-            }
+        return executor.execute(session -> session.createQuery(
+                "SELECT 1 FROM Listed l JOIN l.userList u "
+                + "WHERE u.profile.username = :username AND u.listName = :listName AND l.videogame.v_id = :gameId", Integer.class)
+                .setParameter("username", username)
+                .setParameter("listName", listName)
+                .setParameter("gameId", gameId)
+                .setMaxResults(1)
+                .uniqueResult() != null, ErrorMessages.DATABASE);
+    }
 
-            session.getTransaction().commit();
+    /**
+     * Finds which of the given games are already in a user's list.
+     * Only the ids are projected from list_entry, so no entity is loaded.
+     *
+     * @param username The username of the profile
+     * @param listName The name of the list
+     * @param games ArrayList of VideoGame objects to check
+     * @return ArrayList with the IDs of the games that are in the list
+     * @throws OurException if verification fails or connection pool is full
+     */
+    @Override
+    public ArrayList<Integer> verifyGamesInList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
+        if (games.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return executor.execute(session -> new ArrayList<>(listedGameIds(session, username, listName, gameIds(games))), ErrorMessages.DATABASE);
+    }
 
-            return listed;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
+    /**
+     * Queries which of the given game ids are in a user's list, in chunks of at most MAX_IN_PARAMETERS ids.
+     *
+     * @param session The session to run the query in
+     * @param username The username of the profile
+     * @param listName The name of the list
+     * @param ids The game ids to check
+     * @return The ids that are in the list
+     */
+    private Set<Integer> listedGameIds(Session session, String username, String listName, List<Integer> ids) {
+        Set<Integer> listed = new HashSet<>();
+        for (List<Integer> chunk : chunks(ids)) {
+            listed.addAll(session.createQuery(
+                    "SELECT l.videogame.v_id FROM Listed l JOIN l.userList u "
+                    + "WHERE u.profile.username = :username AND u.listName = :listName AND l.videogame.v_id IN (:ids)", Integer.class)
+                    .setParameter("username", username)
+                    .setParameter("listName", listName)
+                    .setParameterList("ids", chunk)
+                    .list());
         }
+        return listed;
     }
 
     /**
-     * Adds a game to a user's list.
+     * Adds a game to a user's list, creating the list if it does not exist.
      *
      * @param username The username of the profile
      * @param listName The name of the list
      * @param gameId The ID of the game to add
+     * @return The library version of the profile after the change
      * @throws OurException if addition fails or connection pool is full
      */
     @Override
-    public void addGameToList(String username, String listName, int gameId) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
+    public long addGameToList(String username, String listName, int gameId) throws OurException {
+        return executor.execute(session -> {
             Profile profile = session.get(Profile.class, username);
             VideoGame game = session.get(VideoGame.class, gameId);
-            if (profile != null && game != null) {
-                Listed listed = new Listed(profile, game, listName);
-                session.save(listed);
+            if (profile == null || game == null) {
+                return readLibraryVersion(session, username);
             }
-            session.getTransaction().commit();
-
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+            Listed listed = new Listed(listFor(session, profile, listName), game);
+            session.save(listed);
+            return bumpLibraryVersion(session, username);
+        }, ErrorMessages.DATABASE);
     }
 
     /**
-     * Adds multiple games to a user's list.
+     * Adds multiple games to a user's list, creating the list if it does not exist.
+     * The games are fetched with one multi-id query, games already in the list are
+     * skipped, and the new rows are inserted in JDBC batches.
      *
      * @param username The username of the profile
      * @param listName The name of the list
      * @param games ArrayList of VideoGame objects to add
+     * @return The library version of the profile after the change
      * @throws OurException if addition fails or connection pool is full
      */
     @Override
-    public void addGamesToList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
+    public long addGamesToList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
+        if (games.isEmpty()) {
+            return getLibraryVersion(username);
+        }
+        return executor.execute(session -> {
+            insertGames(session, username, listName, games);
+            return bumpLibraryVersion(session, username);
+        }, ErrorMessages.DATABASE);
+    }
 
-        try {
-            session = waitForSession(thread);
+    /**
+     * Inserts the games that are not in a user's list yet, creating the list if it does not exist.
+     *
+     * @param session The session to run the queries in
+     * @param username The username of the profile
+     * @param listName The name of the list
+     * @param games The games to add
+     */
+    private void insertGames(Session session, String username, String listName, List<VideoGame> games) {
+        if (games.isEmpty()) {
+            return;
+        }
+        Profile profile = session.get(Profile.class, username);
+        if (profile == null) {
+            return;
+        }
+        UserList list = listFor(session, profile, listName);
 
-            session.beginTransaction();
+        List<Integer> ids = gameIds(games);
+        Set<Integer> alreadyListed = listedGameIds(session, username, listName, ids);
 
-            Profile profile = session.get(Profile.class, username);
-            for (VideoGame game : games) {
-                VideoGame gameToAdd = session.get(VideoGame.class, game.getV_id());
+        List<VideoGame> found = session.byMultipleIds(VideoGame.class)
+                .withBatchSize(HibernateUtil.getBatchSize())
+                .multiLoad(ids);
 
-                if (profile != null && gameToAdd != null) {
-                    Listed listed = new Listed(profile, gameToAdd, listName);
-                    session.save(listed);
-                }
-            }
+        int batchSize = HibernateUtil.getBatchSize();
+        int pending = 0;
+        for (VideoGame gameToAdd : found) {
+            if (gameToAdd != null && alreadyListed.add(gameToAdd.getV_id())) {
+                session.save(new Listed(list, gameToAdd));
 
-            session.getTransaction().commit();
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
+                if (++pending % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                    list = session.load(UserList.class, list.getListId());
                 }
             }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
         }
     }
 
@@ -589,254 +542,297 @@ public class HibernateImplementation implements ClassDAO {
      * @param username The username of the profile
      * @param listName The name of the list
      * @param gameId The ID of the game to remove
+     * @return The library version of the profile after the change
      * @throws OurException if removal fails or connection pool is full
      */
     @Override
-    public void removeGameFromList(String username, String listName, int gameId) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
-
+    public long removeGameFromList(String username, String listName, int gameId) throws OurException {
+        return executor.execute(session -> {
             if ("My Games".equals(listName)) {
-                session.createQuery("DELETE FROM Listed l WHERE l.profile.username = :username AND l.videogame.v_id = :gameId")
+                session.createQuery("DELETE FROM Listed l WHERE l.userList IN (" + LISTS_OF_USER + ") AND l.videogame.v_id = :gameId")
                         .setParameter("username", username)
                         .setParameter("gameId", gameId)
                         .executeUpdate();
             } else {
-                session.createQuery("DELETE FROM Listed l WHERE l.profile.username = :username AND l.listName = :listName AND l.videogame.v_id = :gameId")
+                session.createQuery("DELETE FROM Listed l WHERE l.userList IN (" + LIST_BY_NAME + ") AND l.videogame.v_id = :gameId")
                         .setParameter("username", username)
                         .setParameter("listName", listName)
                         .setParameter("gameId", gameId)
                         .executeUpdate();
             }
-
-            session.getTransaction().commit();
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+            return bumpLibraryVersion(session, username);
+        }, ErrorMessages.DATABASE);
     }
 
     /**
-     * Removes multiple games from a user's list.
+     * Removes multiple games from a user's list with a single bulk delete.
+     * If the list is "My Games", removes the games from all lists.
      *
      * @param username The username of the profile
      * @param listName The name of the list
      * @param games ArrayList of VideoGame objects to remove
+     * @return The library version of the profile after the change
      * @throws OurException if removal fails or connection pool is full
      */
     @Override
-    public void removeGamesFromList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-
-        if (!games.isEmpty()) {
-            try {
-                session = waitForSession(thread);
-
-                session.beginTransaction();
-                for (VideoGame game : games) {
-                    session.createQuery("DELETE FROM Listed l WHERE l.profile.username = :username AND l.listName = :listName AND l.videogame.v_id = :gameId")
-                            .setParameter("username", username)
-                            .setParameter("listName", listName)
-                            .setParameter("gameId", game.getV_id())
-                            .executeUpdate();
-                }
-
-                session.getTransaction().commit();
-            } catch (OurException e) {
-                throw e;
-            } catch (Exception e) {
-                if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                    try {
-                        session.getTransaction().rollback();
-                    } catch (Exception rollbackEx) {
-                    }
-                }
-                throw new OurException(ErrorMessages.DATABASE);
-            } finally {
-                thread.releaseSession();
-            }
+    public long removeGamesFromList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
+        if (games.isEmpty()) {
+            return getLibraryVersion(username);
         }
+        return executor.execute(session -> {
+            deleteGames(session, username, listName, games);
+            return bumpLibraryVersion(session, username);
+        }, ErrorMessages.DATABASE);
     }
 
     /**
-     * Finds a video game by its name.
+     * Deletes games from a user's list with bulk deletes of at most MAX_IN_PARAMETERS ids.
+     * If the list is "My Games", the games are deleted from all lists.
      *
-     * @param name The name of the video game to search for
-     * @return The VideoGame object, or null if not found
-     * @throws OurException if search fails or connection pool is full
+     * @param session The session to run the deletes in
+     * @param username The username of the profile
+     * @param listName The name of the list
+     * @param games The games to remove
      */
-    @Override
-    public VideoGame findVideoGameByName(String name) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        try {
-            session = waitForSession(thread);
-            session.beginTransaction();
-
-            VideoGame videoGame = (VideoGame) session.createNativeQuery(
-                    "SELECT * FROM videogame WHERE v_name = :name", VideoGame.class)
-                    .setParameter("name", name)
-                    .uniqueResult();
-
-            session.getTransaction().commit();
-            return videoGame;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
+    private void deleteGames(Session session, String username, String listName, List<VideoGame> games) {
+        if (games.isEmpty()) {
+            return;
+        }
+        boolean allLists = "My Games".equals(listName);
+        String hql = allLists
+                ? "DELETE FROM Listed l WHERE l.userList IN (" + LISTS_OF_USER + ") AND l.videogame.v_id IN (:ids)"
+                : "DELETE FROM Listed l WHERE l.userList IN (" + LIST_BY_NAME + ") AND l.videogame.v_id IN (:ids)";
+
+        for (List<Integer> chunk : chunks(gameIds(games))) {
+            Query<?> delete = session.createQuery(hql)
+                    .setParameter("username", username)
+                    .setParameterList("ids", chunk);
+            if (!allLists) {
+                delete.setParameter("listName", listName);
             }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
+            delete.executeUpdate();
         }
     }
 
     /**
-     * Retrieves all list names for a specific user.
+     * Applies the games added to and removed from a user's list in one transaction.
+     * Removals run first as bulk deletes and additions are then inserted in JDBC
+     * batches, so a burst of changes costs a single work unit.
+     * If the list is "My Games", removed games are removed from all lists.
      *
      * @param username The username of the profile
-     * @return ArrayList of distinct list names
-     * @throws OurException if retrieval fails or connection pool is full
+     * @param listName The name of the list
+     * @param added ArrayList of VideoGame objects to add
+     * @param removed ArrayList of VideoGame objects to remove
+     * @return The library version of the profile after the change
+     * @throws OurException if the changes fail or connection pool is full; none of them is applied
      */
     @Override
-    public ArrayList<String> getUserLists(String username) throws OurException {
-        ArrayList<String> lists = new ArrayList<>();
-        SessionThread thread = startSessionThread();
-        Session session = null;
-
-        try {
-            session = waitForSession(thread);
+    public long applyListChanges(String username, String listName, ArrayList<VideoGame> added, ArrayList<VideoGame> removed) throws OurException {
+        if (added.isEmpty() && removed.isEmpty()) {
+            return getLibraryVersion(username);
+        }
+        return executor.execute(session -> {
+            deleteGames(session, username, listName, removed);
+            insertGames(session, username, listName, added);
+            return bumpLibraryVersion(session, username);
+        }, ErrorMessages.DATABASE);
+    }
 
-            session.beginTransaction();
+    /**
+     * Moves the library version of a profile forward, in the transaction of the
+     * change to its lists, so clients holding a snapshot of them know to read it again.
+     * The new version is read back in the same transaction, while the update holds the
+     * row lock, so it is the version written by this change.
+     *
+     * @param session The session of the change
+     * @param username The username of the profile
+     * @return The new library version, or 0 if the profile does not exist
+     */
+    private long bumpLibraryVersion(Session session, String username) {
+        session.createQuery("UPDATE Profile p SET p.libraryVersion = p.libraryVersion + 1 WHERE p.username = :username")
+                .setParameter("username", username)
+                .executeUpdate();
+        return readLibraryVersion(session, username);
+    }
 
-            Profile profile = session.get(Profile.class, username);
+    /**
+     * Reads the library version of a profile, projecting the single column.
+     *
+     * @param session The session to run the query in
+     * @param username The username of the profile
+     * @return The library version, or 0 if the profile does not exist
+     */
+    private long readLibraryVersion(Session session, String username) {
+        Long version = session.createQuery(
+                "SELECT p.libraryVersion FROM Profile p WHERE p.username = :username", Long.class)
+                .setParameter("username", username)
+                .uniqueResult();
+        return version == null ? 0L : version;
+    }
 
-            if (profile != null) {
-                List<String> listNames = session.createQuery(
-                        "SELECT DISTINCT l.listName FROM Listed l WHERE l.profile.username = :username",
-                        String.class
-                )
-                        .setParameter("username", username)
-                        .list();
+    /**
+     * Collects the distinct ids of a list of games, keeping their order.
+     *
+     * @param games The games
+     * @return The ids of the games
+     */
+    private List<Integer> gameIds(List<VideoGame> games) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (VideoGame game : games) {
+            ids.add(game.getV_id());
+        }
+        return new ArrayList<>(ids);
+    }
 
-                lists.addAll(listNames);
-            }
+    /**
+     * Splits a list of ids into chunks small enough for an IN clause.
+     *
+     * @param ids The ids to split
+     * @return The chunks, in order
+     */
+    private List<List<Integer>> chunks(List<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_PARAMETERS) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + MAX_IN_PARAMETERS)));
+        }
+        return chunks;
+    }
 
-            session.getTransaction().commit();
+    /**
+     * Finds a list of a user by its name.
+     *
+     * @param session The session to run the query in
+     * @param username The username of the owner
+     * @param listName The name of the list
+     * @return The UserList, or null if the user has no list with that name
+     */
+    private UserList findList(Session session, String username, String listName) {
+        return session.createQuery("FROM UserList u WHERE u.profile.username = :username AND u.listName = :listName", UserList.class)
+                .setParameter("username", username)
+                .setParameter("listName", listName)
+                .uniqueResult();
+    }
 
-            return lists;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
+    /**
+     * Finds a list of a profile by its name, creating it if it does not exist yet.
+     *
+     * @param session The session to run the query in
+     * @param profile The managed profile that owns the list
+     * @param listName The name of the list
+     * @return The managed UserList
+     */
+    private UserList listFor(Session session, Profile profile, String listName) {
+        UserList list = findList(session, profile.getUsername(), listName);
+        if (list == null) {
+            list = new UserList(profile, listName);
+            session.save(list);
         }
+        return list;
     }
 
     /**
-     * Creates a new list for a profile.
-     * Initializes the list with the first game in the database.
+     * Finds a video game by its name using the name index of the catalog cache.
      *
-     * @param profile The Profile object for which to create the list
-     * @param listName The name of the new list
-     * @throws OurException if creation fails or connection pool is full
+     * @param name The name of the video game to search for
+     * @return The VideoGame object, or null if not found
+     * @throws OurException if search fails or connection pool is full
      */
     @Override
-    public void newList(Profile profile, String listName) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-
-        try {
-            session = waitForSession(thread);
+    public VideoGame findVideoGameByName(String name) throws OurException {
+        return catalog.findByName(this::loadCatalog, name);
+    }
 
-            session.beginTransaction();
+    /**
+     * Retrieves a page of video games using keyset pagination on v_id.
+     *
+     * @param afterId The v_id of the last game of the previous page, or 0 for the first page
+     * @param size The maximum number of games in the page
+     * @return ArrayList of VideoGame objects ordered by v_id
+     * @throws OurException if retrieval fails or connection pool is full
+     */
+    @Override
+    public ArrayList<VideoGame> getVideoGamesPage(int afterId, int size) throws OurException {
+        return executor.execute(session -> new ArrayList<>(queryVideoGamesPage(session, afterId, size)), ErrorMessages.DATABASE);
+    }
 
-            Listed listed = new Listed(profile, session.get(VideoGame.class, 1), listName);
+    /**
+     * Queries a page of video games ordered by v_id with an already open session.
+     *
+     * @param session The session to run the query in
+     * @param afterId The v_id of the last game of the previous page
+     * @param size The maximum number of games in the page
+     * @return List of VideoGame objects
+     */
+    private List<VideoGame> queryVideoGamesPage(Session session, int afterId, int size) {
+        return session.createQuery("FROM VideoGame v WHERE v.v_id > :afterId ORDER BY v.v_id", VideoGame.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(size)
+                .list();
+    }
 
-            session.save(listed);
+    /**
+     * Retrieves all list names for a specific user, including empty lists.
+     * Reads the (username, list_name) unique index of the user_list table only.
+     *
+     * @param username The username of the profile
+     * @return ArrayList of list names, ordered by name
+     * @throws OurException if retrieval fails or connection pool is full
+     */
+    @Override
+    public ArrayList<String> getUserLists(String username) throws OurException {
+        return executor.execute(session -> new ArrayList<>(session.createQuery(
+                "SELECT u.listName FROM UserList u WHERE u.profile.username = :username ORDER BY u.listName", String.class)
+                .setParameter("username", username)
+                .list()), ErrorMessages.DATABASE);
+    }
 
-            session.getTransaction().commit();
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
+    /**
+     * Creates a new, empty list for a profile.
+     *
+     * @param profile The Profile object for which to create the list
+     * @param listName The name of the new list
+     * @return The library version of the profile after the change, or 0 if it does not exist
+     * @throws OurException if creation fails or connection pool is full
+     */
+    @Override
+    public long newList(Profile profile, String listName) throws OurException {
+        return executor.execute(session -> {
+            Profile owner = session.get(Profile.class, profile.getUsername());
+            if (owner == null) {
+                return 0L;
             }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+            session.save(new UserList(owner, listName));
+            return bumpLibraryVersion(session, owner.getUsername());
+        }, ErrorMessages.DATABASE);
     }
 
     /**
-     * Deletes all entries of a specific list for a user.
+     * Deletes a list of a user together with its games.
      *
      * @param username The username of the profile
      * @param listName The name of the list to delete
+     * @return The library version of the profile after the change
      * @throws OurException if deletion fails or connection pool is full
      */
     @Override
-    public void deleteList(String username, String listName) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
-
-            session.createQuery("DELETE FROM Listed l WHERE l.profile.username = :username AND l.listName = :listName")
+    public long deleteList(String username, String listName) throws OurException {
+        return executor.execute(session -> {
+            session.createQuery("DELETE FROM Listed l WHERE l.userList IN (" + LIST_BY_NAME + ")")
                     .setParameter("username", username)
                     .setParameter("listName", listName)
                     .executeUpdate();
-
-            session.getTransaction().commit();
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+            session.createQuery("DELETE FROM UserList u WHERE u.profile.username = :username AND u.listName = :listName")
+                    .setParameter("username", username)
+                    .setParameter("listName", listName)
+                    .executeUpdate();
+            return bumpLibraryVersion(session, username);
+        }, ErrorMessages.DATABASE);
     }
 
     /**
      * Verifies if a list name already exists for a user.
+     * Projects a constant with LIMIT 1 on the (username, list_name) unique index.
      *
      * @param username The username of the profile
      * @param listName The list name to verify
@@ -845,87 +841,76 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public boolean verifyListName(String username, String listName) throws OurException {
-        boolean nameExist = true;
-        SessionThread thread = startSessionThread();
-        Session session = null;
-
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
-
-            Profile profile = session.get(Profile.class, username);
-
-            if (profile != null) {
-                List<Listed> list = session.createQuery(
-                        "FROM Listed l WHERE l.profile.username = :username AND l.listName = :listName", Listed.class)
-                        .setParameter("username", username)
-                        .setParameter("listName", listName)
-                        .list();
-
-                if (list.isEmpty()) {
-                    nameExist = false;
-                }
-
-                session.getTransaction().commit();
-            }
-
-            return nameExist;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+        return executor.execute(session -> session.createQuery(
+                "SELECT 1 FROM UserList u WHERE u.profile.username = :username AND u.listName = :listName", Integer.class)
+                .setParameter("username", username)
+                .setParameter("listName", listName)
+                .setMaxResults(1)
+                .uniqueResult() != null, ErrorMessages.DATABASE);
     }
 
     /**
      * Renames an existing list for a user.
+     * Only the row of the list changes; its games reference it by id.
      *
      * @param username The username of the profile
      * @param listName The current name of the list
      * @param listNewName The new name for the list
+     * @return The library version of the profile after the change
      * @throws OurException if renaming fails or connection pool is full
      */
     @Override
-    public void renameList(String username, String listName, String listNewName) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        try {
-            session = waitForSession(thread);
-            session.beginTransaction();
+    public long renameList(String username, String listName, String listNewName) throws OurException {
+        return executor.execute(session -> {
+            session.createQuery("UPDATE UserList u SET u.listName = :listNewName WHERE u.profile.username = :username AND u.listName = :listName")
+                    .setParameter("listName", listName)
+                    .setParameter("listNewName", listNewName)
+                    .setParameter("username", username)
+                    .executeUpdate();
+            return bumpLibraryVersion(session, username);
+        }, ErrorMessages.DATABASE);
+    }
 
-            Profile profile = session.get(Profile.class, username);
-            if (profile != null) {
-                session.createQuery(
-                        "UPDATE Listed l SET l.listName = :listNewName WHERE l.profile.username = :username AND l.listName = :listName")
-                        .setParameter("listName", listName)
-                        .setParameter("listNewName", listNewName)
-                        .setParameter("username", username)
-                        .executeUpdate();
-            }
+    /**
+     * Gets the library version of a profile, which moves forward on every change
+     * to its lists. Projects the single column, so the profile is not loaded.
+     *
+     * @param username The username of the profile
+     * @return The library version, or 0 if the profile does not exist
+     * @throws OurException if the query fails or connection pool is full
+     */
+    @Override
+    public long getLibraryVersion(String username) throws OurException {
+        return executor.execute(session -> readLibraryVersion(session, username), ErrorMessages.DATABASE);
+    }
 
-            session.getTransaction().commit();
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
+    /**
+     * Reads every list of a user with its games in one query.
+     * The version is read first in the same work unit, so a change made while the
+     * lists are read moves the stored version past the snapshot and it is read again.
+     *
+     * @param username The username of the profile
+     * @return The UserLibrary of the user
+     * @throws OurException if the query fails or connection pool is full
+     */
+    @Override
+    public UserLibrary getUserLibrary(String username) throws OurException {
+        return executor.execute(session -> {
+            UserLibrary library = new UserLibrary(username, readLibraryVersion(session, username));
+            List<Object[]> rows = session.createQuery(
+                    "SELECT u.listName, v FROM UserList u LEFT JOIN u.entries l LEFT JOIN l.videogame v "
+                    + "WHERE u.profile.username = :username ORDER BY u.listName", Object[].class)
+                    .setParameter("username", username)
+                    .list();
+            for (Object[] row : rows) {
+                if (row[1] == null) {
+                    library.putList((String) row[0]);
+                } else {
+                    library.putGame((String) row[0], (VideoGame) row[1]);
                 }
             }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+            return library;
+        }, ErrorMessages.DATABASE);
     }
 
     /**
@@ -938,35 +923,11 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public Review findReview(String username, int gameId) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        Review review = null;
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
-            review = session.createQuery("SELECT r FROM Review r JOIN r.profile p JOIN r.videogame v WHERE p.username = :username AND v.v_id = :gameId", Review.class)
-                    .setParameter("username", username)
-                    .setParameter("gameId", gameId)
-                    .setMaxResults(1)
-                    .uniqueResult();
-
-            session.getTransaction().commit();
-
-            return review;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+        return executor.execute(session -> session.createQuery("SELECT r FROM Review r JOIN r.profile p JOIN r.videogame v WHERE p.username = :username AND v.v_id = :gameId", Review.class)
+                .setParameter("username", username)
+                .setParameter("gameId", gameId)
+                .setMaxResults(1)
+                .uniqueResult(), ErrorMessages.DATABASE);
     }
 
     /**
@@ -978,33 +939,13 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public ArrayList<Review> findReviews(int gameId) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        ArrayList<Review> review = new ArrayList<>();
-
-        try {
-            session = waitForSession(thread);
-            session.beginTransaction();
+        return executor.execute(session -> {
             List<Review> reviews = session.createQuery("FROM Review r WHERE r.videogame.v_id = :gameId", Review.class)
                     .setParameter("gameId", gameId)
                     .list();
-            
-            review.addAll(reviews);
-            session.getTransaction().commit();
-            return review;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+
+            return new ArrayList<>(reviews);
+        }, ErrorMessages.DATABASE);
     }
 
     /**
@@ -1015,39 +956,17 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public ArrayList<Review> getAllReviews() throws OurException {
-        ArrayList<Review> reviews;
-        SessionThread thread = startSessionThread();
-        Session session = null;
-
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
-            List<Review> reviewList = session.createQuery("FROM Review r ORDER BY r.reviewDate DESC", Review.class).list();
-            reviews = new ArrayList<>(reviewList);
-
-            session.getTransaction().commit();
-
-            return reviews;
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+        return executor.execute(session -> new ArrayList<>(
+                session.createQuery("FROM Review r ORDER BY r.reviewDate DESC", Review.class).list()
+        ), ErrorMessages.DATABASE);
     }
 
     /**
      * Saves a new review or updates an existing review.
      * If a review already exists for the user-game combination, updates it.
-     * Otherwise, creates a new review.
+     * Otherwise, creates a new review. The score statistics of the game are
+     * updated in the same transaction; an existing review is locked while it is
+     * read, so two updates of it never count the same old score twice.
      *
      * @param review The Review object to save or update
      * @return true if the operation is successful
@@ -1055,14 +974,7 @@ public class HibernateImplementation implements ClassDAO {
      */
     @Override
     public boolean saveOrUpdateReview(Review review) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
-
+        return executor.execute(session -> {
             Profile managedProfile = session.get(Profile.class, review.getProfile().getUsername());
             if (managedProfile == null) {
                 throw new OurException(ErrorMessages.PROFILE_NOT_FOUND);
@@ -1079,268 +991,253 @@ public class HibernateImplementation implements ClassDAO {
                     managedGame.getV_id(),
                     managedProfile.getUsername()
             );
-            Review existing = session.get(Review.class, pk);
+            Review existing = session.get(Review.class, pk, LockMode.PESSIMISTIC_WRITE);
 
             if (existing != null) {
+                if (existing.getScore() != review.getScore()) {
+                    adjustScoreStats(session, managedGame.getV_id(), existing.getScore(), -1);
+                    adjustScoreStats(session, managedGame.getV_id(), review.getScore(), 1);
+                }
                 existing.setScore(review.getScore());
                 existing.setDescription(review.getDescription());
                 existing.setPlatform(review.getPlatform());
                 existing.setReviewDate(review.getReviewDate());
             } else {
                 session.persist(review);
+                adjustScoreStats(session, managedGame.getV_id(), review.getScore(), 1);
             }
 
-            session.getTransaction().commit();
             return true;
-
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
-            }
-            throw new OurException(ErrorMessages.SAVE_REVIEW_ERROR);
-        } finally {
-            thread.releaseSession();
-        }
+        }, ErrorMessages.SAVE_REVIEW_ERROR);
     }
 
     /**
-     * Deletes a review from the database.
+     * Deletes a review from the database and takes it out of the score statistics
+     * of its game. The stored review is locked to read its score, so a review
+     * deleted twice at once is only taken out once.
      *
      * @param review The Review object to delete
      * @throws OurException if deletion fails or connection pool is full
      */
     @Override
     public void deleteReview(Review review) throws OurException {
-        SessionThread thread = startSessionThread();
-        Session session = null;
-        try {
-            session = waitForSession(thread);
-
-            session.beginTransaction();
+        executor.execute(session -> {
+            int gameId = review.getVideogame().getV_id();
+            Review stored = session.get(Review.class, new ReviewId(gameId, review.getProfile().getUsername()), LockMode.PESSIMISTIC_WRITE);
+            if (stored == null) {
+                return null;
+            }
             session.createQuery("DELETE FROM Review r WHERE r.profile.username = :username AND r.videogame.v_id = :gameId")
                     .setParameter("username", review.getProfile().getUsername())
-                    .setParameter("gameId", review.getVideogame().getV_id())
+                    .setParameter("gameId", gameId)
                     .executeUpdate();
+            adjustScoreStats(session, gameId, stored.getScore(), -1);
+            return null;
+        }, ErrorMessages.DATABASE);
+    }
 
-            session.getTransaction().commit();
-        } catch (OurException e) {
-            throw e;
-        } catch (Exception e) {
-            if (session != null && session.getTransaction() != null && session.getTransaction().isActive()) {
-                try {
-                    session.getTransaction().rollback();
-                } catch (Exception rollbackEx) {
-                }
+    /**
+     * Adds reviews with a score to the statistics of a game, or removes them with
+     * a negative count. Both rows are upserted, so the first review of a game or
+     * score creates them; the upserts run on the primary keys and lock only the
+     * rows of that game.
+     *
+     * @param session The session of the review change
+     * @param gameId The ID of the game
+     * @param score The score of the reviews
+     * @param count The number of reviews added, negative to remove them
+     */
+    private void adjustScoreStats(Session session, int gameId, int score, int count) {
+        session.createNativeQuery("INSERT INTO game_score_stats (v_id, review_count, score_sum) VALUES (:gameId, :count, :sum) "
+                + "ON DUPLICATE KEY UPDATE review_count = review_count + VALUES(review_count), score_sum = score_sum + VALUES(score_sum)")
+                .setParameter("gameId", gameId)
+                .setParameter("count", count)
+                .setParameter("sum", (long) score * count)
+                .executeUpdate();
+        session.createNativeQuery("INSERT INTO game_score_histogram (v_id, score, review_count) VALUES (:gameId, :score, :count) "
+                + "ON DUPLICATE KEY UPDATE review_count = review_count + VALUES(review_count)")
+                .setParameter("gameId", gameId)
+                .setParameter("score", score)
+                .setParameter("count", count)
+                .executeUpdate();
+    }
+
+    /**
+     * Retrieves the reviews of every game in a user's list with a single join query
+     * (UserList, Listed, Review and VideoGame), ordered by review date.
+     * The game and author of each review are fetched in the same query.
+     *
+     * @param username The username of the owner of the list
+     * @param listName The name of the list
+     * @param offset Number of reviews to skip
+     * @param limit Maximum number of reviews to return, or 0 for all of them
+     * @param newestFirst true to sort from newest to oldest, false for the opposite
+     * @return ArrayList of Review objects for the games in the list
+     * @throws OurException if retrieval fails or connection pool is full
+     */
+    @Override
+    public ArrayList<Review> findReviewsByList(String username, String listName, int offset, int limit, boolean newestFirst) throws OurException {
+        return executor.execute(session -> {
+            String order = newestFirst ? "DESC" : "ASC";
+            Query<Review> query = session.createQuery(
+                    "SELECT r FROM Review r JOIN FETCH r.videogame v JOIN FETCH r.profile, Listed l JOIN l.userList u "
+                    + "WHERE l.videogame = v AND u.profile.username = :username AND u.listName = :listName "
+                    + "ORDER BY r.reviewDate " + order + ", r.reviewId " + order, Review.class)
+                    .setParameter("username", username)
+                    .setParameter("listName", listName)
+                    .setFirstResult(Math.max(0, offset));
+            if (limit > 0) {
+                query.setMaxResults(limit);
             }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            thread.releaseSession();
-        }
+
+            return new ArrayList<>(query.list());
+        }, ErrorMessages.DATABASE);
     }
 
     /**
-     * Initializes the database with default data including users, admins, games, lists, and reviews.
-     * Only creates entities that don't already exist in the database.
+     * Retrieves a page of reviews using keyset pagination, newest first.
+     * Reviews are ordered by review date and then by review id, both descending,
+     * and the page starts right after the given key, so no rows are skipped by offset.
+     * MySQL sorts null dates below every date, so the reviews without a date come
+     * last, and the key condition lets paging carry on through them.
+     * The name filter is applied in the query, so every page is full of matches.
      *
-     * @throws OurException if initialization fails
+     * @param gameName Text the name of the game has to contain, ignoring case, or null for every game
+     * @param after The last review of the previous page, or null for the first page
+     * @param size The maximum number of reviews in the page
+     * @return ArrayList of Review objects in the page
+     * @throws OurException if retrieval fails or connection pool is full
      */
     @Override
-    public void initializeDefault() throws OurException {
-        Session session = null;
-        try {
-            session = HibernateUtil.getSession();
-            session.beginTransaction();
-            String[][] users = {
-                {"User", "jlopez", "Masculino", "AB1234567890123456789012", "pass123", "jlopez@example.com", "Juan", "987654321", "Lopez", null},
-                {"User", "mramirez", "Femenino", "ZX9081726354891027364512", "pass456", "mramirez@example.com", "Maria", "912345678", "Ramirez", null},
-                {"User", "cperez", "Masculino", "LM0011223344556677889900", "pass789", "cperez@example.com", "Carlos", "934567890", "Perez", null},
-                {"Admin", "asanchez", "CTA-001", null, "qwerty", "asanchez@example.com", "Ana", "900112233", "Sanchez", null},
-                {"Admin", "rluna", "CTA-002", null, "zxcvbn", "rluna@example.com", "Rosa", "955667788", "Luna", null}
-            };
-            for (String[] userData : users) {
-                boolean exists;
-                if (userData[0].equals("User")) {
-                    exists = session.get(User.class, userData[1]) != null;
-                    if (!exists) {
-                        session.save(new User(userData[2], userData[3], userData[1], userData[4], userData[5], userData[6], userData[7], userData[8]));
-                    }
-                } else {
-                    exists = session.get(Admin.class, userData[1]) != null;
-                    if (!exists) {
-                        session.save(new Admin(userData[2], userData[1], userData[4], userData[5], userData[6], userData[7], userData[8]));
-                    }
-                }
+    public ArrayList<Review> getReviewsPage(String gameName, Review after, int size) throws OurException {
+        return executor.execute(session -> {
+            boolean filtered = gameName != null && !gameName.trim().isEmpty();
+            List<String> conditions = new ArrayList<>();
+            if (filtered) {
+                conditions.add("LOWER(g.v_name) LIKE :gameName ESCAPE '!'");
             }
-            Object[][] games = {
-                {"DEFAULT_GAME", LocalDate.now(), Platform.DEFAULT, Pegi.DEFAULT},
-                {"Owlboy", LocalDate.of(2016, 11, 1), Platform.NINTENDO, Pegi.PEGI3},
-                {"Animal Crossing New Horizons", LocalDate.of(2020, 5, 20), Platform.NINTENDO, Pegi.PEGI6},
-                {"Detroit: Become Human", LocalDate.of(2018, 5, 25), Platform.PLAYSTATION, Pegi.PEGI16},
-                {"ASTROBOT", LocalDate.of(2024, 9, 6), Platform.PLAYSTATION, Pegi.PEGI3},
-                {"Call of Duty: Black Ops II", LocalDate.of(2012, 11, 13), Platform.PLAYSTATION, Pegi.PEGI18},
-                {"Halo Infinite", LocalDate.of(2021, 12, 8), Platform.PC, Pegi.PEGI16},
-                {"Balatro", LocalDate.of(2024, 2, 20), Platform.PC, Pegi.PEGI12}
-            };
-            for (Object[] gameData : games) {
-                VideoGame existing = session.createQuery("FROM VideoGame v WHERE v.v_name = :name", VideoGame.class)
-                        .setParameter("name", (String) gameData[0]).uniqueResult();
-                if (existing == null) {
-                    session.save(new VideoGame((String) gameData[0], (LocalDate) gameData[1], (Platform) gameData[2], (Pegi) gameData[3]));
-                }
+            if (after != null && after.getReviewDate() != null) {
+                conditions.add("(r.reviewDate < :afterDate OR (r.reviewDate = :afterDate AND r.reviewId < :afterId)"
+                        + " OR r.reviewDate IS NULL)");
+            } else if (after != null) {
+                conditions.add("r.reviewDate IS NULL AND r.reviewId < :afterId");
             }
-            String[][] listEntries = {
-                {"jlopez", "User", "My Games", "1"},
-                {"mramirez", "User", "My Games", "1"},
-                {"cperez", "User", "My Games", "1"},
-                {"asanchez", "Admin", "My Games", "1"},
-                {"rluna", "Admin", "My Games", "1"},
-                {"asanchez", "Admin", "My Games", "2"},
-                {"asanchez", "Admin", "My Games", "3"},
-                {"asanchez", "Admin", "My Games", "5"},
-                {"asanchez", "Admin", "NINTENDO", "1"},
-                {"asanchez", "Admin", "NINTENDO", "2"},
-                {"asanchez", "Admin", "NINTENDO", "3"},
-                {"asanchez", "Admin", "PLAYSTATION", "1"},
-                {"asanchez", "Admin", "PLAYSTATION", "5"}
-            };
-            for (String[] entry : listEntries) {
-                Profile profile;
-                if (entry[1].equals("User")) {
-                    profile = session.get(User.class, entry[0]);
-                } else {
-                    profile = session.get(Admin.class, entry[0]);
-                }
 
-                VideoGame game = session.get(VideoGame.class, Integer.parseInt(entry[3]));
-                Listed existing = session.createQuery("FROM Listed l WHERE l.profile.username = :username AND l.listName = :listName AND l.videogame.v_id = :gameId", Listed.class)
-                        .setParameter("username", entry[0]).setParameter("listName", entry[2]).setParameter("gameId", Integer.parseInt(entry[3])).uniqueResult();
-                if (existing == null) {
-                    session.save(new Listed(profile, game, entry[2]));
-                }
-            }
-            Object[][] reviews = {
-                {"asanchez", "Admin", "2", 7, "If Hayao Miyazaki directed it.", Platform.NINTENDO},
-                {"asanchez", "Admin", "3", 2, "Bad experience. Not for me.", Platform.NINTENDO},
-                {"asanchez", "Admin", "5", 10, "Graphically stunning.", Platform.PLAYSTATION},
-                {"cperez", "User", "4", 7, "They dont make games like this.", Platform.PLAYSTATION},
-                {"cperez", "User", "5", 9, "GOTY.", Platform.PLAYSTATION},
-                {"jlopez", "User", "6", 4, "Mid game.", Platform.PLAYSTATION}
-            };
-            for (Object[] reviewData : reviews) {
-                Profile profile;
-                if (((String) reviewData[1]).equals("User")) {
-                    profile = session.get(User.class, (String) reviewData[0]);
-                } else {
-                    profile = session.get(Admin.class, (String) reviewData[0]);
-                }
-                VideoGame game = session.get(VideoGame.class, Integer.parseInt((String) reviewData[2]));
-                Review existing = session.createQuery("FROM Review r WHERE r.profile.username = :username AND r.videogame.v_id = :gameId", Review.class)
-                        .setParameter("username", (String) reviewData[0]).setParameter("gameId", Integer.parseInt((String) reviewData[2])).uniqueResult();
-                if (existing == null) {
-                    session.save(new Review(profile, game, (int) reviewData[3], (String) reviewData[4], LocalDate.now(), (Platform) reviewData[5]));
-                }
+            String hql = "SELECT r FROM Review r JOIN FETCH r.videogame g JOIN FETCH r.profile";
+            if (!conditions.isEmpty()) {
+                hql += " WHERE " + String.join(" AND ", conditions);
             }
-            session.getTransaction().commit();
-        } catch (Exception e) {
-            if (session != null && session.getTransaction().isActive()) {
-                session.getTransaction().rollback();
+            hql += " ORDER BY r.reviewDate DESC, r.reviewId DESC";
+
+            Query<Review> query = session.createQuery(hql, Review.class).setMaxResults(size);
+            if (filtered) {
+                String pattern = gameName.trim().toLowerCase().replace("!", "!!").replace("%", "!%").replace("_", "!_");
+                query.setParameter("gameName", "%" + pattern + "%");
             }
-            throw new OurException(ErrorMessages.DATABASE);
-        } finally {
-            if (session != null && session.isOpen()) {
-                session.close();
+            if (after != null) {
+                query.setParameter("afterId", after.getReviewId());
+                if (after.getReviewDate() != null) {
+                    query.setParameter("afterDate", after.getReviewDate());
+                }
             }
-        }
+
+            return new ArrayList<>(query.list());
+        }, ErrorMessages.DATABASE);
     }
 
     /**
-     * Waits for a SessionThread to be ready and validates the connection.
-     * Performs a test transaction to verify connection pool availability.
+     * Streams every review, newest first, without loading them all in memory.
+     * The rows are read with a forward-only cursor and the session is cleared
+     * every batch, so memory use does not grow with the size of the table.
+     * This is the only query that sets a fetch size, which is what makes MySQL
+     * serve it through a server-side cursor; every other query is read at once.
+     * The action runs on the worker thread that reads the rows.
      *
-     * @param thread The SessionThread to wait for
-     * @return The Session object from the thread
-     * @throws InterruptedException if the wait is interrupted
-     * @throws OurException if session creation fails or connection pool is full
+     * @param action Called once for every review
+     * @throws OurException if retrieval fails or connection pool is full
      */
-    private Session waitForSession(SessionThread thread) throws InterruptedException, OurException {
-        int attempts = 0;
-        while (!thread.isReady() && attempts < 50) {
-            Thread.sleep(10);
-            attempts++;
-        }
+    @Override
+    public void forEachReview(Consumer<Review> action) throws OurException {
+        executor.execute(session -> {
+            int batchSize = HibernateUtil.getBatchSize();
+            try (ScrollableResults results = session.createQuery(
+                    "SELECT r FROM Review r JOIN FETCH r.videogame JOIN FETCH r.profile ORDER BY r.reviewDate DESC, r.reviewId DESC", Review.class)
+                    .setReadOnly(true)
+                    .setFetchSize(batchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                int count = 0;
+                while (results.next()) {
+                    action.accept((Review) results.get(0));
+                    if (++count % batchSize == 0) {
+                        session.clear();
+                    }
+                }
+            }
+            return null;
+        }, ErrorMessages.DATABASE);
+    }
 
-        if (thread.hasSessionCreationFailed()) {
-            throw new OurException(ErrorMessages.CONNECTION_POOL_FULL);
-        }
+    /**
+     * Retrieves the review statistics of every game that has reviews.
+     * Reads game_score_stats and its histogram rows in one query; the reviews
+     * themselves are not read or grouped.
+     *
+     * @return ArrayList of GameScoreStats objects, one per reviewed game
+     * @throws OurException if retrieval fails or connection pool is full
+     */
+    @Override
+    public ArrayList<GameScoreStats> getScoreStats() throws OurException {
+        return executor.execute(session -> new ArrayList<>(session.createQuery(
+                "SELECT DISTINCT s FROM GameScoreStats s LEFT JOIN FETCH s.histogram WHERE s.reviewCount > 0", GameScoreStats.class)
+                .list()), ErrorMessages.DATABASE);
+    }
 
-        Session session = thread.getSession();
-        if (session == null) {
-            throw new OurException(ErrorMessages.CONNECTION_POOL_FULL);
-        }
+    /**
+     * Initializes the database with default data including users, admins, games, lists, and reviews.
+     * Does nothing but read the seed version when the current default data is already applied;
+     * otherwise inserts the missing rows in JDBC batches. See {@link DefaultData}.
+     * Failed logins are forgotten after seeding: the ones tried while the profiles
+     * were still missing would otherwise lock those usernames out.
+     *
+     * @throws OurException if initialization fails
+     */
+    @Override
+    public void initializeDefault() throws OurException {
+        boolean seeded = executor.execute(session -> session.doReturningWork(connection -> DefaultData.seed(connection, hasher)), ErrorMessages.DATABASE);
 
-        try {
-            session.beginTransaction();
-            session.getTransaction().rollback();
-        } catch (org.hibernate.exception.JDBCConnectionException ex) {
-            throw new OurException(ErrorMessages.CONNECTION_POOL_FULL);
+        if (seeded) {
+            catalog.invalidate();
+            failedLogins.clear();
         }
-
-        return session;
     }
-    
+
+    /**
+     * Generates the video game report as a PDF in the reports folder and opens it.
+     * The report is filled from the cached catalog on the report thread, so no
+     * pooled connection is held, and a report already filled for the same name
+     * is reused while the catalog has not changed.
+     *
+     * @param name The name printed as the author of the report
+     * @throws OurException If the report cannot be generated or opened
+     */
     @Override
     public void generateReport(String name) throws OurException {
-        Session session = null;
+        File pdfFile;
         try {
-            session = HibernateUtil.getSession();
-            HashMap<String, Object> params = new HashMap<>();
-            params.put("GENERATED_BY", name);
-            params.put("GENERATION_DATE", new java.util.Date());
-
-            session.doWork((Connection connection) -> {
-                try {
-                    String reportPath = "/reports/Report.jasper";
-                    InputStream reportStream = getClass().getResourceAsStream(reportPath);
-
-                    if (reportStream == null) {
-                        throw new SQLException("Report not found: " + reportPath);
-                    }
-
-                    JasperPrint jasperPrint = JasperFillManager.fillReport(
-                            reportStream,
-                            params, 
-                            connection
-                    );
-
-                    File reportsDir = new File("reports");
-                    if (!reportsDir.exists()) {
-                        reportsDir.mkdirs();
-                    }
-
-                    String timestamp = new java.text.SimpleDateFormat("yyyyMMdd_HHmmss").format(new java.util.Date());
-                    String pdfPath = reportsDir + "/Report_" + timestamp + ".pdf";
-
-                    JasperExportManager.exportReportToPdfFile(jasperPrint, pdfPath);
+            pdfFile = reports.export(name, ReportService.Format.PDF, new File("reports")).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof OurException) {
+                throw (OurException) ex.getCause();
+            }
+            throw new OurException("Error generating report: " + ex.getCause().getMessage());
+        }
 
-                    File pdfFile = new File(pdfPath);
-                    if (java.awt.Desktop.isDesktopSupported()) {
-                        java.awt.Desktop.getDesktop().open(pdfFile);
-                    } 
-                } catch (Exception ex) {
-                    throw new SQLException("Error generating PDF: " + ex.getMessage(), ex);
-                }
-            });
-        } catch (Exception ex) {
-            throw new OurException("Error generating report: " + ex.getMessage());
-        } finally {
-            if (session != null && session.isOpen()) {
-                session.close();
+        try {
+            if (java.awt.Desktop.isDesktopSupported()) {
+                java.awt.Desktop.getDesktop().open(pdfFile);
             }
+        } catch (Exception ex) {
+            throw new OurException("Error opening report: " + ex.getMessage());
         }
     }
 }
\ No newline at end of file
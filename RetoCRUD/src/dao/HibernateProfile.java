@@ -0,0 +1,146 @@
+package dao;
+
+import java.util.Locale;
+import java.util.Properties;
+import java.util.ResourceBundle;
+
+/**
+ * Named sets of Hibernate, Hikari and MySQL driver settings.
+ * The profile is chosen with the retocrud.profile system property or the
+ * PROFILE key of the config file, and defaults to PROD.
+ * <ul>
+ * <li>DEV prints the SQL, updates the schema on every start and keeps a small pool.</li>
+ * <li>PROD is quiet, leaves the schema alone once it exists, caches prepared
+ * statements on the server and keeps a warm pool.</li>
+ * <li>BENCH is like PROD with a fixed-size pool, and creates the schema so
+ * benchmarks can start from an empty database.</li>
+ * </ul>
+ * No profile sets a default JDBC fetch size: MySQL ignores it unless cursor fetch
+ * is on, and with cursor fetch on it would run every query through a server-side
+ * cursor. Queries that stream their rows set a fetch size of their own.
+ * Any hibernate.* system property still overrides the profile.
+ *
+ * @author ema
+ */
+public enum HibernateProfile
+{
+    DEV(true, "update", false, 10, 1, 1000, 60000),
+    PROD(false, "none", true, Integer.MAX_VALUE, 10, 5000, 0),
+    BENCH(false, "update", true, Integer.MAX_VALUE, Integer.MAX_VALUE, 30000, 0);
+
+    /**
+     * System property that selects the profile, winning over the config file.
+     */
+    public static final String PROFILE_PROPERTY = "retocrud.profile";
+
+    private final boolean showSql;
+    private final String ddlMode;
+    private final boolean serverStatementCache;
+    private final int maxPoolSize;
+    private final int minIdle;
+    private final long connectionTimeout;
+    private final long leakDetectionThreshold;
+
+    HibernateProfile(boolean showSql, String ddlMode, boolean serverStatementCache, int maxPoolSize,
+            int minIdle, long connectionTimeout, long leakDetectionThreshold)
+    {
+        this.showSql = showSql;
+        this.ddlMode = ddlMode;
+        this.serverStatementCache = serverStatementCache;
+        this.maxPoolSize = maxPoolSize;
+        this.minIdle = minIdle;
+        this.connectionTimeout = connectionTimeout;
+        this.leakDetectionThreshold = leakDetectionThreshold;
+    }
+
+    /**
+     * Returns the profile selected by the system property or the config file.
+     *
+     * @return The active profile, PROD if none is set or the name is unknown
+     */
+    public static HibernateProfile active()
+    {
+        String name = System.getProperty(PROFILE_PROPERTY);
+        if (name == null)
+        {
+            try
+            {
+                ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+                name = configFile.getString("PROFILE");
+            }
+            catch (Exception e)
+            {
+                name = null;
+            }
+        }
+        try
+        {
+            return name == null ? PROD : valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e)
+        {
+            return PROD;
+        }
+    }
+
+    /**
+     * Returns the hbm2ddl mode of the profile.
+     * "none" means the schema is only created when tables are missing.
+     *
+     * @return The value of hibernate.hbm2ddl.auto
+     */
+    public String getDdlMode()
+    {
+        return ddlMode;
+    }
+
+    /**
+     * Adds the Hibernate and Hikari settings of the profile.
+     *
+     * @param props The Hibernate properties to fill
+     * @param maxConnections The MAXCONNECTIONS limit of the config file
+     * @param batchSize The JDBC batch size of the config file
+     */
+    public void apply(Properties props, int maxConnections, int batchSize)
+    {
+        int poolSize = Math.max(1, Math.min(maxPoolSize, maxConnections));
+
+        props.put("hibernate.show_sql", String.valueOf(showSql));
+        props.put("hibernate.hbm2ddl.auto", ddlMode);
+
+        props.put("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+        props.put("hibernate.order_inserts", "true");
+        props.put("hibernate.order_updates", "true");
+        props.put("hibernate.jdbc.batch_versioned_data", "true");
+
+        props.put("hibernate.hikari.maximumPoolSize", String.valueOf(poolSize));
+        props.put("hibernate.hikari.minimumIdle", String.valueOf(Math.min(minIdle, poolSize)));
+        props.put("hibernate.hikari.connectionTimeout", String.valueOf(connectionTimeout));
+        props.put("hibernate.hikari.idleTimeout", "600000");
+        props.put("hibernate.hikari.maxLifetime", "1800000");
+        props.put("hibernate.hikari.leakDetectionThreshold", String.valueOf(leakDetectionThreshold));
+    }
+
+    /**
+     * Adds the MySQL Connector/J settings of the profile, passed to the driver
+     * through Hikari. Only meant for MySQL URLs; other drivers may reject them.
+     * Batched inserts are always rewritten into multi-row statements, and the
+     * PROD and BENCH profiles also cache prepared statements on the server.
+     *
+     * @param props The Hibernate properties to fill
+     */
+    public void applyMySqlDriver(Properties props)
+    {
+        props.put("hibernate.hikari.dataSource.rewriteBatchedStatements", "true");
+        if (serverStatementCache)
+        {
+            props.put("hibernate.hikari.dataSource.useServerPrepStmts", "true");
+            props.put("hibernate.hikari.dataSource.cachePrepStmts", "true");
+            props.put("hibernate.hikari.dataSource.prepStmtCacheSize", "250");
+            props.put("hibernate.hikari.dataSource.prepStmtCacheSqlLimit", "2048");
+            props.put("hibernate.hikari.dataSource.cacheResultSetMetadata", "true");
+            props.put("hibernate.hikari.dataSource.cacheServerConfiguration", "true");
+            props.put("hibernate.hikari.dataSource.useLocalSessionState", "true");
+        }
+    }
+}
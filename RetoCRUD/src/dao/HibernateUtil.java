@@ -1,13 +1,22 @@
 package dao;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.persistence.Table;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 
 /**
  * Utility class for managing Hibernate sessions and database connections.
@@ -18,7 +27,28 @@ import org.hibernate.cfg.Configuration;
  */
 public final class HibernateUtil
 {
-    private static SessionFactory sessionFactory;
+    private static volatile SessionFactory sessionFactory;
+    private static final Object LOCK = new Object();
+    private static final String URL_PROPERTY = "hibernate.connection.url";
+    private static final String DDL_PROPERTY = "hibernate.hbm2ddl.auto";
+    
+    /**
+     * MySQL error code of "Unknown database".
+     */
+    private static final int UNKNOWN_DATABASE = 1049;
+    
+    private static final int batchSize = readBatchSize();
+    private static final long acquireTimeout = readAcquireTimeout();
+    private static final VideoGameCatalog catalog = new VideoGameCatalog();
+    
+    /**
+     * The mapped entity classes, whose tables make up the schema.
+     */
+    private static final Class<?>[] ENTITIES = {
+        model.Profile.class, model.User.class, model.Admin.class,
+        model.VideoGame.class, model.UserList.class, model.Listed.class, model.Review.class,
+        model.GameScoreStats.class
+    };
     
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -26,81 +56,288 @@ public final class HibernateUtil
     private HibernateUtil() {}
     
     /**
-     * Builds and configures the Hibernate SessionFactory if not already created.
-     * Reads database configuration from properties file, creates the database if it doesn't exist,
-     * and configures Hibernate with HikariCP connection pooling.
+     * Returns the Hibernate SessionFactory, building it if not already created.
+     * Concurrent first calls wait for a single build instead of building one each.
+     * A failed build leaves no factory behind, so the next call tries again.
      * 
      * @return The configured SessionFactory instance
      * @throws ExceptionInInitializerError if there's an error creating the SessionFactory
      */
     private static SessionFactory buildSessionFactory()
     {
-        if (sessionFactory == null)
+        SessionFactory factory = sessionFactory;
+        if (factory == null)
         {
-            try
+            synchronized (LOCK)
             {
-                ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
-                String db = configFile.getString("DB");
-                String host = configFile.getString("HOST");
-                String port = configFile.getString("PORT");
-                String user = configFile.getString("DBUSER");
-                String pass = configFile.getString("DBPASS");
-                String driver = configFile.getString("DRIVER");
-                String maxConnection = configFile.getString("MAXCONNECTIONS");
-                
-                try (java.sql.Connection conn = java.sql.DriverManager.getConnection(
-                        "jdbc:mysql://" + host + ":" + port + "/?serverTimezone=Europe/Madrid&useSSL=false&allowPublicKeyRetrieval=true",
-                        user, pass);
-                     java.sql.Statement stmt = conn.createStatement())
+                factory = sessionFactory;
+                if (factory == null)
                 {
-                    stmt.executeUpdate("CREATE DATABASE IF NOT EXISTS " + db + " CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci");
+                    try
+                    {
+                        factory = createSessionFactory();
+                    }
+                    catch (RuntimeException e)
+                    {
+                        throw new ExceptionInInitializerError("Error creating SessionFactory: " + e.getMessage());
+                    }
+                    sessionFactory = factory;
                 }
-                catch (SQLException ex)
+            }
+        }
+        return factory;
+    }
+    
+    /**
+     * Builds and configures a new Hibernate SessionFactory.
+     * Reads database configuration from properties file and configures Hibernate with
+     * HikariCP connection pooling using the settings of the active HibernateProfile.
+     * Hibernate reads the JDBC metadata at startup: without it the driver is assumed not
+     * to support batch updates and the JDBC batch size is dropped to 0. The database is
+     * only created when MySQL reports it does not exist, and a profile that leaves the
+     * schema alone still creates it when some mapped table is missing.
+     * The URL turns on cursor fetch, but MySQL only opens a server-side cursor for a
+     * statement with a fetch size, and only the review stream sets one.
+     * A positive ACQUIRETIMEOUT in the config file replaces the connection timeout of the
+     * profile, so a caller waits at most that long for Hikari before the pool is reported full.
+     * 
+     * @return The new SessionFactory
+     * @throws HibernateException if the SessionFactory cannot be built
+     */
+    private static SessionFactory createSessionFactory()
+    {
+        ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+        String db = configFile.getString("DB");
+        String host = configFile.getString("HOST");
+        String port = configFile.getString("PORT");
+        String user = configFile.getString("DBUSER");
+        String pass = configFile.getString("DBPASS");
+        String driver = configFile.getString("DRIVER");
+        int maxConnections = Integer.parseInt(configFile.getString("MAXCONNECTIONS"));
+        
+        HibernateProfile profile = HibernateProfile.active();
+        
+        String url = "jdbc:mysql://" + host + ":" + port + "/" + db + "?serverTimezone=Europe/Madrid&useSSL=false&allowPublicKeyRetrieval=true&useCursorFetch=true";
+        
+        Properties props = new Properties();
+        
+        props.put("hibernate.connection.driver_class", driver);
+        props.put("hibernate.connection.url", url);
+        props.put("hibernate.connection.username", user);
+        props.put("hibernate.connection.password", pass);
+        props.put("hibernate.dialect", "org.hibernate.dialect.MySQL8Dialect");
+        props.put("hibernate.connection.provider_class", "org.hibernate.hikaricp.internal.HikariCPConnectionProvider");
+        
+        profile.apply(props, maxConnections, batchSize);
+        if (acquireTimeout > 0)
+        {
+            props.put("hibernate.hikari.connectionTimeout", String.valueOf(acquireTimeout));
+        }
+        
+        applySystemOverrides(props);
+        if (props.getProperty(URL_PROPERTY, "").startsWith("jdbc:mysql:"))
+        {
+            profile.applyMySqlDriver(props);
+        }
+        
+        SessionFactory factory;
+        try
+        {
+            factory = open(props);
+        }
+        catch (HibernateException e)
+        {
+            if (System.getProperty(URL_PROPERTY) != null || !isUnknownDatabase(e))
+            {
+                throw e;
+            }
+            createDatabase(host, port, db, user, pass);
+            factory = open(props);
+        }
+        
+        if ("none".equals(props.getProperty(DDL_PROPERTY)) && !hasSchema(factory))
+        {
+            factory.close();
+            props.put(DDL_PROPERTY, "update");
+            factory = open(props);
+        }
+        int effectiveBatchSize = ((SessionFactoryImplementor) factory).getSessionFactoryOptions().getJdbcBatchSize();
+        Logger.getLogger(HibernateUtil.class.getName()).info("Hibernate profile " + profile + ", hbm2ddl " + props.getProperty(DDL_PROPERTY)
+                + ", JDBC batch size " + effectiveBatchSize);
+        if (effectiveBatchSize < 2 && Integer.parseInt(props.getProperty("hibernate.jdbc.batch_size", "0")) > 1)
+        {
+            Logger.getLogger(HibernateUtil.class.getName()).warning("JDBC batching is off: the driver did not report batch update support");
+        }
+        
+        SchemaMigration.migrate(factory);
+        return factory;
+    }
+    
+    /**
+     * Builds a SessionFactory with the given settings and the mapped entities.
+     * 
+     * @param props The Hibernate properties
+     * @return The new SessionFactory
+     */
+    private static SessionFactory open(Properties props)
+    {
+        Configuration configuration = new Configuration();
+        configuration.setProperties(props);
+        
+        for (Class<?> entity : ENTITIES)
+        {
+            configuration.addAnnotatedClass(entity);
+        }
+        
+        return configuration.buildSessionFactory();
+    }
+    
+    /**
+     * Checks if a failure was caused by MySQL not knowing the configured database.
+     * 
+     * @param e The failure
+     * @return true if an SQLException in the causes has the "Unknown database" error code
+     */
+    private static boolean isUnknownDatabase(Throwable e)
+    {
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof SQLException && ((SQLException) cause).getErrorCode() == UNKNOWN_DATABASE)
+            {
+                return true;
+            }
+            if (cause.getCause() == cause)
+            {
+                break;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Creates the configured MySQL database.
+     * Only called when connecting reported that it does not exist.
+     * 
+     * @param host The database host
+     * @param port The database port
+     * @param db The database name
+     * @param user The database user
+     * @param pass The database password
+     */
+    private static void createDatabase(String host, String port, String db, String user, String pass)
+    {
+        try (java.sql.Connection conn = java.sql.DriverManager.getConnection(
+                "jdbc:mysql://" + host + ":" + port + "/?serverTimezone=Europe/Madrid&useSSL=false&allowPublicKeyRetrieval=true",
+                user, pass);
+             java.sql.Statement stmt = conn.createStatement())
+        {
+            stmt.executeUpdate("CREATE DATABASE IF NOT EXISTS " + db + " CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci");
+        }
+        catch (SQLException ex)
+        {
+            Logger.getLogger(HibernateUtil.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+    
+    /**
+     * Checks whether every mapped table exists, using a pooled connection.
+     * 
+     * @param factory The SessionFactory whose database is checked
+     * @return true if every mapped table exists, false if some are missing or the check failed
+     */
+    private static boolean hasSchema(SessionFactory factory)
+    {
+        Set<String> tables = new HashSet<>();
+        try (Session session = factory.openSession())
+        {
+            session.doWork(connection ->
+            {
+                try (java.sql.ResultSet rs = connection.getMetaData().getTables(connection.getCatalog(), null, "%", new String[] {"TABLE"}))
                 {
-                    Logger.getLogger(HibernateUtil.class.getName()).log(Level.SEVERE, null, ex);
+                    while (rs.next())
+                    {
+                        tables.add(rs.getString("TABLE_NAME").toLowerCase(Locale.ROOT));
+                    }
                 }
-                
-                String url = "jdbc:mysql://" + host + ":" + port + "/" + db + "?serverTimezone=Europe/Madrid&useSSL=false&allowPublicKeyRetrieval=true";
-                
-                Properties props = new Properties();
-                
-                props.put("hibernate.connection.driver_class", driver);
-                props.put("hibernate.connection.url", url);
-                props.put("hibernate.connection.username", user);
-                props.put("hibernate.connection.password", pass);
-                props.put("hibernate.dialect", "org.hibernate.dialect.MySQL8Dialect");
-                props.put("hibernate.show_sql", "true");
-                props.put("hibernate.hbm2ddl.auto", "update");
-                
-                props.put("hibernate.connection.provider_class", "org.hibernate.hikaricp.internal.HikariCPConnectionProvider");
-                
-                props.put("hibernate.hikari.maximumPoolSize", maxConnection);
-                props.put("hibernate.hikari.minimumIdle", "1");
-                
-                props.put("hibernate.hikari.connectionTimeout", "1000");
-                props.put("hibernate.hikari.idleTimeout", "600000");
-                props.put("hibernate.hikari.maxLifetime", "1800000");
-                
-                props.put("hibernate.hikari.leakDetectionThreshold", "60000");
-                
-                Configuration configuration = new Configuration();
-                configuration.setProperties(props);
-                
-                configuration.addAnnotatedClass(model.Profile.class);
-                configuration.addAnnotatedClass(model.User.class);
-                configuration.addAnnotatedClass(model.Admin.class);
-                configuration.addAnnotatedClass(model.VideoGame.class);
-                configuration.addAnnotatedClass(model.Listed.class);
-                configuration.addAnnotatedClass(model.Review.class);
-                
-                sessionFactory = configuration.buildSessionFactory();
+            });
+        }
+        catch (HibernateException ex)
+        {
+            Logger.getLogger(HibernateUtil.class.getName()).log(Level.WARNING, "Could not read the schema", ex);
+            return false;
+        }
+        for (Class<?> entity : ENTITIES)
+        {
+            Table table = entity.getAnnotation(Table.class);
+            String name = table != null ? table.name() : entity.getSimpleName();
+            if (!tables.contains(name.toLowerCase(Locale.ROOT)))
+            {
+                return false;
             }
-            catch (HibernateException e)
+        }
+        return true;
+    }
+    
+    /**
+     * Starts building the SessionFactory on a background thread, so the first
+     * window can be shown while Hibernate starts. The pool is also asked for a
+     * first connection, so the first DAO call does not pay for opening it.
+     * 
+     * @return Future completed with the SessionFactory once it can be used
+     */
+    public static CompletableFuture<SessionFactory> warmUp()
+    {
+        CompletableFuture<SessionFactory> result = new CompletableFuture<>();
+        Thread thread = new Thread(() ->
+        {
+            try
+            {
+                SessionFactory factory = buildSessionFactory();
+                try (Session session = factory.openSession())
+                {
+                    session.doWork(connection -> connection.isValid(2));
+                }
+                result.complete(factory);
+            }
+            catch (Throwable e)
+            {
+                result.completeExceptionally(e);
+            }
+        }, "hibernate-bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+    
+    /**
+     * Checks if the SessionFactory has been built and not closed.
+     * 
+     * @return true if sessions can be opened without waiting for Hibernate to start
+     */
+    public static boolean isReady()
+    {
+        SessionFactory factory = sessionFactory;
+        return factory != null && !factory.isClosed();
+    }
+    
+    /**
+     * Replaces Hibernate settings with the JVM system properties of the same name.
+     * Any system property starting with "hibernate." wins over the config file, so
+     * benchmarks and tools can point the application at another database, such as
+     * -Dhibernate.connection.url=jdbc:h2:mem:bench;MODE=MySQL, without editing it.
+     * When the URL is overridden the MySQL database is never created.
+     * 
+     * @param props The Hibernate properties to update
+     */
+    private static void applySystemOverrides(Properties props)
+    {
+        for (String name : System.getProperties().stringPropertyNames())
+        {
+            if (name.startsWith("hibernate."))
             {
-                throw new ExceptionInInitializerError("Error creating SessionFactory: " + e.getMessage());
+                props.put(name, System.getProperty(name));
             }
         }
-        return sessionFactory;
     }
     
     /**
@@ -114,6 +351,116 @@ public final class HibernateUtil
         return buildSessionFactory().openSession();
     }
     
+    /**
+     * Returns the JDBC batch size configured for Hibernate.
+     * Bulk DAO operations flush and clear their session every this many rows.
+     * 
+     * @return The number of statements sent in each JDBC batch
+     */
+    public static int getBatchSize()
+    {
+        return batchSize;
+    }
+    
+    /**
+     * Returns the JDBC batch size Hibernate really uses, building the SessionFactory if needed.
+     * It is lower than {@link #getBatchSize()}, normally 0, when the driver did not
+     * report batch update support while the SessionFactory was built.
+     * 
+     * @return The JDBC batch size of the SessionFactory
+     */
+    public static int getEffectiveBatchSize()
+    {
+        return ((SessionFactoryImplementor) buildSessionFactory()).getSessionFactoryOptions().getJdbcBatchSize();
+    }
+    
+    /**
+     * Reads the JDBC batch size from the config file, defaulting to 50.
+     * 
+     * @return The configured batch size
+     */
+    private static int readBatchSize()
+    {
+        try
+        {
+            ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+            return Math.max(1, Integer.parseInt(configFile.getString("BATCHSIZE")));
+        }
+        catch (Exception e)
+        {
+            return 50;
+        }
+    }
+    
+    /**
+     * Returns the time a work unit may wait for a pooled connection.
+     * 
+     * @return The ACQUIRETIMEOUT of the config file in milliseconds, or 0 if the profile decides
+     */
+    public static long getAcquireTimeout()
+    {
+        return acquireTimeout;
+    }
+    
+    /**
+     * Reads the connection acquire timeout from the config file.
+     * Hikari does not accept less than 250 milliseconds, so smaller positive values are raised to it.
+     * 
+     * @return The configured timeout in milliseconds, or 0 if it is missing or not positive
+     */
+    private static long readAcquireTimeout()
+    {
+        try
+        {
+            ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+            long timeout = Long.parseLong(configFile.getString("ACQUIRETIMEOUT").trim());
+            return timeout > 0 ? Math.max(250, timeout) : 0;
+        }
+        catch (Exception e)
+        {
+            return 0;
+        }
+    }
+    
+    /**
+     * Returns the shared read-through cache of the video game catalog.
+     * Hibernate's second-level cache needs a cache provider that is not part of
+     * the project libraries, so the catalog is cached in process instead.
+     * 
+     * @return The VideoGameCatalog shared by the whole application
+     */
+    public static VideoGameCatalog getCatalog()
+    {
+        return catalog;
+    }
+    
+    /**
+     * Returns the management bean of the Hikari connection pool, for its gauges.
+     * 
+     * @return The pool bean, or null if the SessionFactory is not built yet or does not use Hikari
+     */
+    public static HikariPoolMXBean getPoolMXBean()
+    {
+        SessionFactory factory = sessionFactory;
+        if (factory == null || factory.isClosed())
+        {
+            return null;
+        }
+        try
+        {
+            ConnectionProvider provider = ((SessionFactoryImplementor) factory).getServiceRegistry().getService(ConnectionProvider.class);
+            if (provider != null && provider.isUnwrappableAs(HikariDataSource.class))
+            {
+                return provider.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        }
+        catch (RuntimeException e)
+        {
+            Logger.getLogger(HibernateUtil.class.getName()).log(Level.FINE, null, e);
+        }
+        return null;
+    }
+    
     /**
      * Closes the Hibernate SessionFactory if it's open.
      * This should be called when the application is shutting down
@@ -121,9 +468,17 @@ public final class HibernateUtil
      */
     public static void close()
     {
-        if (sessionFactory != null && !sessionFactory.isClosed())
+        Logger.getLogger(HibernateUtil.class.getName()).info(catalog.getStatistics());
+        catalog.invalidate();
+        
+        synchronized (LOCK)
         {
-            sessionFactory.close();
+            SessionFactory factory = sessionFactory;
+            sessionFactory = null;
+            if (factory != null && !factory.isClosed())
+            {
+                factory.close();
+            }
         }
     }
 }
\ No newline at end of file
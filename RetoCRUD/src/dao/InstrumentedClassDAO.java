@@ -0,0 +1,269 @@
+package dao;
+
+import exception.OurException;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+import metrics.DAOMetrics;
+import model.GameScoreStats;
+import model.Profile;
+import model.Review;
+import model.UserLibrary;
+import model.VideoGame;
+
+/**
+ * Decorates a ClassDAO with metrics.
+ * Every call is timed into the latency histogram of its method, and every
+ * failure is counted under the ErrorMessages constant of its message, before
+ * the result or the exception is passed on unchanged.
+ *
+ * @author ema
+ */
+public class InstrumentedClassDAO implements ClassDAO {
+
+    /**
+     * A blocking DAO call that may throw an OurException.
+     *
+     * @param <T> The type of the value returned by the call
+     */
+    @FunctionalInterface
+    private interface DAOCall<T> {
+
+        T call() throws OurException;
+    }
+
+    private final ClassDAO dao;
+    private final DAOMetrics metrics;
+
+    /**
+     * Constructs a new InstrumentedClassDAO.
+     *
+     * @param dao The DAO that performs the operations
+     * @param metrics The metrics the calls are recorded in
+     */
+    public InstrumentedClassDAO(ClassDAO dao, DAOMetrics metrics) {
+        this.dao = dao;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the metrics the calls are recorded in.
+     *
+     * @return The DAOMetrics of this DAO
+     */
+    public DAOMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Runs a DAO call, recording its latency and its failure if it throws.
+     *
+     * @param <T> The type of the value returned by the call
+     * @param method The name of the DAO method
+     * @param call The DAO call to run
+     * @return The result of the call
+     * @throws OurException If the call throws it
+     */
+    private <T> T call(String method, DAOCall<T> call) throws OurException {
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } catch (OurException | RuntimeException ex) {
+            metrics.recordError(ex.getMessage());
+            throw ex;
+        } finally {
+            metrics.recordCall(method, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Profile logIn(String username, String password) throws OurException {
+        return call("logIn", () -> dao.logIn(username, password));
+    }
+
+    @Override
+    public boolean signUp(String gender, String cardNumber, String username, String password, String email, String name, String telephone, String surname) throws OurException {
+        return call("signUp", () -> dao.signUp(gender, cardNumber, username, password, email, name, telephone, surname));
+    }
+
+    @Override
+    public boolean dropOutUser(String username, String password) throws OurException {
+        return call("dropOutUser", () -> dao.dropOutUser(username, password));
+    }
+
+    @Override
+    public boolean dropOutAdmin(String usernameToDelete, String adminUsername, String adminPassword) throws OurException {
+        return call("dropOutAdmin", () -> dao.dropOutAdmin(usernameToDelete, adminUsername, adminPassword));
+    }
+
+    @Override
+    public boolean modifyUser(String password, String email, String name, String telephone, String surname, String username, String gender) throws OurException {
+        return call("modifyUser", () -> dao.modifyUser(password, email, name, telephone, surname, username, gender));
+    }
+
+    @Override
+    public ArrayList<String> comboBoxInsert() throws OurException {
+        return call("comboBoxInsert", () -> dao.comboBoxInsert());
+    }
+
+    @Override
+    public Profile findProfileByUsername(String username) throws OurException {
+        return call("findProfileByUsername", () -> dao.findProfileByUsername(username));
+    }
+
+    @Override
+    public ArrayList<VideoGame> getAllVideoGames() throws OurException {
+        return call("getAllVideoGames", () -> dao.getAllVideoGames());
+    }
+
+    @Override
+    public ArrayList<VideoGame> getGamesFromList(String username, String listName) throws OurException {
+        return call("getGamesFromList", () -> dao.getGamesFromList(username, listName));
+    }
+
+    @Override
+    public boolean verifyGameInList(String username, String listName, int gameId) throws OurException {
+        return call("verifyGameInList", () -> dao.verifyGameInList(username, listName, gameId));
+    }
+
+    @Override
+    public long addGameToList(String username, String listName, int gameId) throws OurException {
+        return call("addGameToList", () -> dao.addGameToList(username, listName, gameId));
+    }
+
+    @Override
+    public long addGamesToList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
+        return call("addGamesToList", () -> dao.addGamesToList(username, listName, games));
+    }
+
+    @Override
+    public long removeGameFromList(String username, String listName, int gameId) throws OurException {
+        return call("removeGameFromList", () -> dao.removeGameFromList(username, listName, gameId));
+    }
+
+    @Override
+    public long removeGamesFromList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
+        return call("removeGamesFromList", () -> dao.removeGamesFromList(username, listName, games));
+    }
+
+    @Override
+    public VideoGame findVideoGameByName(String gameName) throws OurException {
+        return call("findVideoGameByName", () -> dao.findVideoGameByName(gameName));
+    }
+
+    @Override
+    public ArrayList<VideoGame> getVideoGamesPage(int afterId, int size) throws OurException {
+        return call("getVideoGamesPage", () -> dao.getVideoGamesPage(afterId, size));
+    }
+
+    @Override
+    public ArrayList<String> getUserLists(String username) throws OurException {
+        return call("getUserLists", () -> dao.getUserLists(username));
+    }
+
+    @Override
+    public long newList(Profile profile, String listName) throws OurException {
+        return call("newList", () -> dao.newList(profile, listName));
+    }
+
+    @Override
+    public long deleteList(String username, String listName) throws OurException {
+        return call("deleteList", () -> dao.deleteList(username, listName));
+    }
+
+    @Override
+    public boolean verifyListName(String username, String listName) throws OurException {
+        return call("verifyListName", () -> dao.verifyListName(username, listName));
+    }
+
+    @Override
+    public long renameList(String username, String listName, String listNewName) throws OurException {
+        return call("renameList", () -> dao.renameList(username, listName, listNewName));
+    }
+
+    @Override
+    public Review findReview(String username, int gameId) throws OurException {
+        return call("findReview", () -> dao.findReview(username, gameId));
+    }
+
+    @Override
+    public ArrayList<Review> findReviews(int gameId) throws OurException {
+        return call("findReviews", () -> dao.findReviews(gameId));
+    }
+
+    @Override
+    public ArrayList<Review> getAllReviews() throws OurException {
+        return call("getAllReviews", () -> dao.getAllReviews());
+    }
+
+    @Override
+    public boolean saveOrUpdateReview(Review review) throws OurException {
+        return call("saveOrUpdateReview", () -> dao.saveOrUpdateReview(review));
+    }
+
+    @Override
+    public void deleteReview(Review review) throws OurException {
+        call("deleteReview", () -> {
+            dao.deleteReview(review);
+            return null;
+        });
+    }
+
+    @Override
+    public ArrayList<Review> findReviewsByList(String username, String listName, int offset, int limit, boolean newestFirst) throws OurException {
+        return call("findReviewsByList", () -> dao.findReviewsByList(username, listName, offset, limit, newestFirst));
+    }
+
+    @Override
+    public ArrayList<Review> getReviewsPage(String gameName, Review after, int size) throws OurException {
+        return call("getReviewsPage", () -> dao.getReviewsPage(gameName, after, size));
+    }
+
+    @Override
+    public void forEachReview(Consumer<Review> action) throws OurException {
+        call("forEachReview", () -> {
+            dao.forEachReview(action);
+            return null;
+        });
+    }
+
+    @Override
+    public void initializeDefault() throws OurException {
+        call("initializeDefault", () -> {
+            dao.initializeDefault();
+            return null;
+        });
+    }
+
+    @Override
+    public void generateReport(String name) throws OurException {
+        call("generateReport", () -> {
+            dao.generateReport(name);
+            return null;
+        });
+    }
+
+    @Override
+    public ArrayList<Integer> verifyGamesInList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
+        return call("verifyGamesInList", () -> dao.verifyGamesInList(username, listName, games));
+    }
+
+    @Override
+    public long applyListChanges(String username, String listName, ArrayList<VideoGame> added, ArrayList<VideoGame> removed) throws OurException {
+        return call("applyListChanges", () -> dao.applyListChanges(username, listName, added, removed));
+    }
+
+    @Override
+    public long getLibraryVersion(String username) throws OurException {
+        return call("getLibraryVersion", () -> dao.getLibraryVersion(username));
+    }
+
+    @Override
+    public UserLibrary getUserLibrary(String username) throws OurException {
+        return call("getUserLibrary", () -> dao.getUserLibrary(username));
+    }
+
+    @Override
+    public ArrayList<GameScoreStats> getScoreStats() throws OurException {
+        return call("getScoreStats", () -> dao.getScoreStats());
+    }
+}
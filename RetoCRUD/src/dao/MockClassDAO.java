@@ -3,8 +3,10 @@ package dao;
 import exception.OurException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import model.*;
 
 /**
@@ -310,16 +312,40 @@ public class MockClassDAO implements ClassDAO {
         return false;
     }
 
+    /**
+     * Finds which of the given games are in a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param games ArrayList of VideoGame objects to check
+     * @return ArrayList with the IDs of the games that are in the list
+     * @throws OurException If shouldThrowException is true
+     */
+    @Override
+    public ArrayList<Integer> verifyGamesInList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
+        if (shouldThrowException) {
+            throw exceptionToThrow;
+        }
+        ArrayList<Integer> listed = new ArrayList<>();
+        for (VideoGame game : games) {
+            if (verifyGameInList(username, listName, game.getV_id()) && !listed.contains(game.getV_id())) {
+                listed.add(game.getV_id());
+            }
+        }
+        return listed;
+    }
+
     /**
      * Adds a game to a user's list.
      *
      * @param username The username
      * @param listName The name of the list
      * @param gameId The ID of the game to add
+     * @return Always 0, as the mock does not count changes
      * @throws OurException If game not found or shouldThrowException is true
      */
     @Override
-    public void addGameToList(String username, String listName, int gameId) throws OurException {
+    public long addGameToList(String username, String listName, int gameId) throws OurException {
         if (shouldThrowException) {
             throw exceptionToThrow;
         }
@@ -335,6 +361,7 @@ public class MockClassDAO implements ClassDAO {
             userListGames.get(username).put(listName, new ArrayList<>());
         }
         userListGames.get(username).get(listName).add(gameToAdd);
+        return 0;
     }
 
     /**
@@ -343,16 +370,18 @@ public class MockClassDAO implements ClassDAO {
      * @param username The username
      * @param listName The name of the list
      * @param games ArrayList of VideoGame objects to add
+     * @return Always 0, as the mock does not count changes
      * @throws OurException If shouldThrowException is true
      */
     @Override
-    public void addGamesToList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
+    public long addGamesToList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
         if (shouldThrowException) {
             throw exceptionToThrow;
         }
         for (VideoGame game : games) {
             addGameToList(username, listName, game.getV_id());
         }
+        return 0;
     }
 
     /**
@@ -361,34 +390,67 @@ public class MockClassDAO implements ClassDAO {
      * @param username The username
      * @param listName The name of the list
      * @param gameId The ID of the game to remove
+     * @return Always 0, as the mock does not count changes
      * @throws OurException If shouldThrowException is true
      */
     @Override
-    public void removeGameFromList(String username, String listName, int gameId) throws OurException {
+    public long removeGameFromList(String username, String listName, int gameId) throws OurException {
         if (shouldThrowException) {
             throw exceptionToThrow;
         }
         if (userListGames.containsKey(username) && userListGames.get(username).containsKey(listName)) {
             userListGames.get(username).get(listName).removeIf(game -> game.getV_id() == gameId);
         }
+        return 0;
     }
 
     /**
      * Removes multiple games from a user's list.
+     * If the list is "My Games", removes the games from all of the user's lists.
      *
      * @param username The username
      * @param listName The name of the list
      * @param games ArrayList of VideoGame objects to remove
+     * @return Always 0, as the mock does not count changes
      * @throws OurException If shouldThrowException is true
      */
     @Override
-    public void removeGamesFromList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
+    public long removeGamesFromList(String username, String listName, ArrayList<VideoGame> games) throws OurException {
         if (shouldThrowException) {
             throw exceptionToThrow;
         }
-        for (VideoGame game : games) {
-            removeGameFromList(username, listName, game.getV_id());
+        if ("My Games".equals(listName) && userListGames.containsKey(username)) {
+            for (String list : userListGames.get(username).keySet()) {
+                for (VideoGame game : games) {
+                    removeGameFromList(username, list, game.getV_id());
+                }
+            }
+        } else {
+            for (VideoGame game : games) {
+                removeGameFromList(username, listName, game.getV_id());
+            }
         }
+        return 0;
+    }
+
+    /**
+     * Applies the games added to and removed from a user's list.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param added ArrayList of VideoGame objects to add
+     * @param removed ArrayList of VideoGame objects to remove
+     * @return Always 0, as the mock does not count changes
+     * @throws OurException If shouldThrowException is true
+     */
+    @Override
+    public long applyListChanges(String username, String listName, ArrayList<VideoGame> added, ArrayList<VideoGame> removed) throws OurException {
+        if (shouldThrowException) {
+            throw exceptionToThrow;
+        }
+        removeGamesFromList(username, listName, removed);
+        addGamesToList(username, listName, added);
+        return 0;
     }
 
     /**
@@ -409,6 +471,28 @@ public class MockClassDAO implements ClassDAO {
                 .orElseThrow(() -> new OurException("Game not found"));
     }
 
+    /**
+     * Retrieves a page of mock video games ordered by id.
+     *
+     * @param afterId The id of the last game of the previous page, or 0 for the first page
+     * @param size The maximum number of games in the page
+     * @return ArrayList of VideoGame objects
+     * @throws OurException If shouldThrowException is true
+     */
+    @Override
+    public ArrayList<VideoGame> getVideoGamesPage(int afterId, int size) throws OurException {
+        if (shouldThrowException) {
+            throw exceptionToThrow;
+        }
+        ArrayList<VideoGame> page = new ArrayList<>();
+        mockVideoGames.stream()
+                .filter(game -> game.getV_id() > afterId)
+                .sorted(Comparator.comparingInt(VideoGame::getV_id))
+                .limit(size)
+                .forEach(page::add);
+        return page;
+    }
+
     // ==================== LISTS ====================
     /**
      * Retrieves all list names for a specific user.
@@ -430,10 +514,11 @@ public class MockClassDAO implements ClassDAO {
      *
      * @param profile The user's profile
      * @param listName The name of the new list
+     * @return Always 0, as the mock does not count changes
      * @throws OurException If shouldThrowException is true
      */
     @Override
-    public void newList(Profile profile, String listName) throws OurException {
+    public long newList(Profile profile, String listName) throws OurException {
         if (shouldThrowException) {
             throw exceptionToThrow;
         }
@@ -444,6 +529,7 @@ public class MockClassDAO implements ClassDAO {
         }
         userLists.get(username).add(listName);
         userListGames.get(username).put(listName, new ArrayList<>());
+        return 0;
     }
 
     /**
@@ -451,10 +537,11 @@ public class MockClassDAO implements ClassDAO {
      *
      * @param username The username
      * @param listName The name of the list to delete
+     * @return Always 0, as the mock does not count changes
      * @throws OurException If shouldThrowException is true
      */
     @Override
-    public void deleteList(String username, String listName) throws OurException {
+    public long deleteList(String username, String listName) throws OurException {
         if (shouldThrowException) {
             throw exceptionToThrow;
         }
@@ -462,6 +549,7 @@ public class MockClassDAO implements ClassDAO {
             userLists.get(username).remove(listName);
             userListGames.get(username).remove(listName);
         }
+        return 0;
     }
 
     /**
@@ -486,10 +574,11 @@ public class MockClassDAO implements ClassDAO {
      * @param username The username
      * @param listName The current name of the list
      * @param listNewName The new name for the list
+     * @return Always 0, as the mock does not count changes
      * @throws OurException If shouldThrowException is true
      */
     @Override
-    public void renameList(String username, String listName, String listNewName) throws OurException {
+    public long renameList(String username, String listName, String listNewName) throws OurException {
         if (shouldThrowException) {
             throw exceptionToThrow;
         }
@@ -500,6 +589,46 @@ public class MockClassDAO implements ClassDAO {
             ArrayList<VideoGame> games = userListGames.get(username).remove(listName);
             userListGames.get(username).put(listNewName, games);
         }
+        return 0;
+    }
+
+    /**
+     * Gets the library version of a user.
+     * The mock does not count changes, so a library changed through the controller keeps
+     * version 0 and is never read again.
+     *
+     * @param username The username
+     * @return Always 0
+     * @throws OurException If shouldThrowException is true
+     */
+    @Override
+    public long getLibraryVersion(String username) throws OurException {
+        if (shouldThrowException) {
+            throw exceptionToThrow;
+        }
+        return 0;
+    }
+
+    /**
+     * Builds the library of a user from the stored lists.
+     *
+     * @param username The username
+     * @return The UserLibrary of the user
+     * @throws OurException If shouldThrowException is true
+     */
+    @Override
+    public UserLibrary getUserLibrary(String username) throws OurException {
+        if (shouldThrowException) {
+            throw exceptionToThrow;
+        }
+        UserLibrary library = new UserLibrary(username, 0);
+        for (String listName : userLists.getOrDefault(username, new ArrayList<>())) {
+            library.putList(listName);
+            for (VideoGame game : userListGames.get(username).getOrDefault(listName, new ArrayList<>())) {
+                library.putGame(listName, game);
+            }
+        }
+        return library;
     }
 
     // ==================== REVIEWS ====================
@@ -591,6 +720,94 @@ public class MockClassDAO implements ClassDAO {
         mockReviews.remove(review);
     }
 
+    /**
+     * Retrieves the mock reviews of the games in a user's list, sorted by date.
+     *
+     * @param username The username
+     * @param listName The name of the list
+     * @param offset Number of reviews to skip
+     * @param limit Maximum number of reviews to return, or 0 for all of them
+     * @param newestFirst true to sort from newest to oldest
+     * @return ArrayList of matching reviews
+     * @throws OurException If shouldThrowException is true
+     */
+    @Override
+    public ArrayList<Review> findReviewsByList(String username, String listName, int offset, int limit, boolean newestFirst) throws OurException {
+        if (shouldThrowException) {
+            throw exceptionToThrow;
+        }
+        ArrayList<Review> listReviews = new ArrayList<>();
+        for (VideoGame game : getGamesFromList(username, listName)) {
+            listReviews.addAll(findReviews(game.getV_id()));
+        }
+        Comparator<Review> byDate = Comparator.comparing(Review::getReviewDate);
+        listReviews.sort(newestFirst ? byDate.reversed() : byDate);
+
+        int from = Math.min(Math.max(0, offset), listReviews.size());
+        int to = limit > 0 ? Math.min(listReviews.size(), from + limit) : listReviews.size();
+        return new ArrayList<>(listReviews.subList(from, to));
+    }
+
+    /**
+     * Retrieves a page of mock reviews, newest first, with the reviews without a date last.
+     *
+     * @param gameName Text the name of the game has to contain, ignoring case, or null for every game
+     * @param after The last review of the previous page, or null for the first page
+     * @param size The maximum number of reviews in the page
+     * @return ArrayList of Review objects in the page
+     * @throws OurException If shouldThrowException is true
+     */
+    @Override
+    public ArrayList<Review> getReviewsPage(String gameName, Review after, int size) throws OurException {
+        if (shouldThrowException) {
+            throw exceptionToThrow;
+        }
+        Comparator<Review> newestFirst = Comparator.comparing(Review::getReviewDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+                .thenComparing(Review::getReviewId).reversed();
+        String search = gameName == null ? "" : gameName.trim().toLowerCase();
+        ArrayList<Review> page = new ArrayList<>();
+        mockReviews.stream()
+                .sorted(newestFirst)
+                .filter(review -> search.isEmpty() || (review.getVideogame() != null
+                        && review.getVideogame().getV_name().toLowerCase().contains(search)))
+                .filter(review -> after == null || newestFirst.compare(review, after) > 0)
+                .limit(size)
+                .forEach(page::add);
+        return page;
+    }
+
+    /**
+     * Passes every mock review to an action, newest first.
+     *
+     * @param action Called once for every review
+     * @throws OurException If shouldThrowException is true
+     */
+    @Override
+    public void forEachReview(Consumer<Review> action) throws OurException {
+        if (shouldThrowException) {
+            throw exceptionToThrow;
+        }
+        getReviewsPage(null, null, Integer.MAX_VALUE).forEach(action);
+    }
+
+    /**
+     * Computes the review statistics of the mock reviews.
+     *
+     * @return ArrayList of GameScoreStats objects, one per reviewed game
+     * @throws OurException If shouldThrowException is true
+     */
+    @Override
+    public ArrayList<GameScoreStats> getScoreStats() throws OurException {
+        if (shouldThrowException) {
+            throw exceptionToThrow;
+        }
+        Map<Integer, GameScoreStats> stats = new HashMap<>();
+        for (Review review : mockReviews) {
+            stats.computeIfAbsent(review.getVideogame().getV_id(), GameScoreStats::new).add(review.getScore(), 1);
+        }
+        return new ArrayList<>(stats.values());
+    }
+
     // ==================== OTHER ====================
     /**
      * Initializes the mock database. No operation performed unless configured
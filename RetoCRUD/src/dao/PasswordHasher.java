@@ -0,0 +1,183 @@
+package dao;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.ResourceBundle;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted, adaptive password hashing based on PBKDF2 with HMAC-SHA256.
+ * Hashes are stored as {@code pbkdf2$<iterations>$<salt>$<hash>}, with the salt
+ * and hash in Base64, so every stored value carries the cost it was made with.
+ * The cost for new hashes is read from HASHITERATIONS in the config file.
+ * Values without the prefix are legacy plaintext passwords; they still verify
+ * and are reported by {@link #needsRehash(String)} so they can be migrated.
+ *
+ * @author ema
+ */
+public class PasswordHasher {
+
+    /**
+     * Prefix that identifies a stored PBKDF2 hash.
+     */
+    private static final String PREFIX = "pbkdf2";
+
+    /**
+     * Key derivation algorithm provided by the JDK.
+     */
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    /**
+     * Cost used when the config file cannot be read.
+     */
+    public static final int DEFAULT_ITERATIONS = 120000;
+
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iterations;
+
+    /**
+     * Constructs a new PasswordHasher with the cost set in the config file.
+     */
+    public PasswordHasher() {
+        this(readIterations());
+    }
+
+    /**
+     * Constructs a new PasswordHasher with the given cost.
+     *
+     * @param iterations The number of PBKDF2 iterations for new hashes
+     */
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Gets the number of iterations used for new hashes.
+     *
+     * @return The hash cost
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Hashes a password with a new random salt.
+     *
+     * @param password The plaintext password
+     * @return The encoded hash, ready to be stored
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = derive(password, salt, iterations, HASH_BITS);
+
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Checks a password against a stored value.
+     * Stored values that are not PBKDF2 hashes are compared as legacy plaintext.
+     *
+     * @param password The plaintext password to check
+     * @param stored The stored hash or legacy plaintext password
+     * @return true if the password matches
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int cost = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            byte[] actual = derive(password, salt, cost, expected.length * 8);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if a stored value should be replaced by a new hash.
+     * That is the case for legacy plaintext passwords and for hashes made
+     * with a different cost than the current one.
+     *
+     * @param stored The stored hash or legacy plaintext password
+     * @return true if the value should be rehashed after a successful login
+     */
+    public boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) != iterations;
+        } catch (NumberFormatException ex) {
+            return true;
+        }
+    }
+
+    /**
+     * Checks if a stored value is a PBKDF2 hash.
+     *
+     * @param stored The stored value
+     * @return true if the value was produced by {@link #hash(String)}
+     */
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX + "$");
+    }
+
+    /**
+     * Runs the key derivation.
+     *
+     * @param password The plaintext password
+     * @param salt The salt
+     * @param cost The number of iterations
+     * @param bits The length of the derived key in bits
+     * @return The derived key
+     */
+    private static byte[] derive(String password, byte[] salt, int cost, int bits) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, cost, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ALGORITHM + " not available", ex);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Reads the hash cost from the config file.
+     *
+     * @return The configured number of iterations, or the default if it cannot be read
+     */
+    private static int readIterations() {
+        try {
+            ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+            return Integer.parseInt(configFile.getString("HASHITERATIONS"));
+        } catch (Exception e) {
+            return DEFAULT_ITERATIONS;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package dao;
+
+import exception.OurException;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import model.GameScoreStats;
+import model.VideoGame;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.data.JRMapCollectionDataSource;
+import net.sf.jasperreports.engine.export.JRCsvExporter;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimpleWriterExporterOutput;
+
+/**
+ * Generates the video game report on a background thread.
+ * The compiled report is loaded once, and it is filled from the cached
+ * video game catalog and the review statistics instead of a JDBC connection,
+ * so no pooled connection is held while the report is filled or exported.
+ * Filled reports are kept per author until the catalog or the statistics
+ * change. Filling and exporting run on a single
+ * thread, so two requests for the same report fill it only once.
+ *
+ * @author ema
+ */
+public class ReportService {
+
+    /**
+     * File formats the report can be exported to.
+     */
+    public enum Format {
+        PDF("pdf"),
+        CSV("csv"),
+        XLSX("xlsx");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Gets the file extension of the format.
+         *
+         * @return The extension, without the dot
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Reads the review statistics printed next to each game.
+     */
+    @FunctionalInterface
+    public interface StatsLoader {
+
+        /**
+         * Reads the review statistics of every game that has reviews.
+         *
+         * @return The statistics, one per reviewed game
+         * @throws OurException If the statistics cannot be read
+         */
+        List<GameScoreStats> load() throws OurException;
+    }
+
+    /**
+     * A filled report and the catalog version and statistics stamp it was filled from.
+     */
+    private static final class Filled {
+
+        private final JasperPrint print;
+        private final long version;
+        private final long statsStamp;
+
+        private Filled(JasperPrint print, long version, long statsStamp) {
+            this.print = print;
+            this.version = version;
+            this.statsStamp = statsStamp;
+        }
+    }
+
+    private static final String REPORT_PATH = "/reports/Report.jasper";
+
+    /**
+     * Number of filled reports kept, one per author.
+     */
+    private static final int CACHED_REPORTS = 8;
+
+    private final VideoGameCatalog catalog;
+    private final VideoGameCatalog.Loader loader;
+    private final StatsLoader statsLoader;
+    private final ExecutorService worker;
+
+    private final Map<String, Filled> filled = new LinkedHashMap<String, Filled>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Filled> eldest) {
+            return size() > CACHED_REPORTS;
+        }
+    };
+
+    private JasperReport report;
+
+    private final AtomicLong fills = new AtomicLong();
+    private final AtomicLong reuses = new AtomicLong();
+
+    /**
+     * Constructs a new ReportService.
+     *
+     * @param catalog The catalog the report is filled from
+     * @param loader Reads the catalog from the database when it is not cached
+     * @param statsLoader Reads the review statistics of the games
+     */
+    public ReportService(VideoGameCatalog catalog, VideoGameCatalog.Loader loader, StatsLoader statsLoader) {
+        this.catalog = catalog;
+        this.loader = loader;
+        this.statsLoader = statsLoader;
+        this.worker = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "report-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Fills the report on the background thread, or reuses the last one filled
+     * for the same author if neither the catalog nor the review statistics have
+     * changed since. The catalog and the statistics are read on the calling thread,
+     * which queries the database for the statistics and for the catalog if it is
+     * not cached, so the background thread never waits for a connection.
+     *
+     * @param generatedBy The name printed as the author of the report
+     * @return The filled report
+     */
+    public CompletableFuture<JasperPrint> fill(String generatedBy) {
+        String author = generatedBy == null ? "" : generatedBy;
+        long version;
+        long statsStamp;
+        List<VideoGame> games;
+        List<GameScoreStats> stats;
+        try {
+            version = catalog.getVersion(loader);
+            stats = statsLoader.load();
+            statsStamp = stamp(stats);
+            JasperPrint cached = cached(author, version, statsStamp);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            games = catalog.getAll(loader);
+        } catch (OurException ex) {
+            CompletableFuture<JasperPrint> failed = new CompletableFuture<>();
+            failed.completeExceptionally(ex);
+            return failed;
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return fillNow(author, version, games, statsStamp, stats);
+            } catch (OurException ex) {
+                throw new CompletionException(ex);
+            }
+        }, worker);
+    }
+
+    /**
+     * Fills the report if needed and writes it to a new timestamped file.
+     * Both steps run on the background thread.
+     *
+     * @param generatedBy The name printed as the author of the report
+     * @param format The format of the file
+     * @param directory The folder of the file, created if it does not exist
+     * @return The written file
+     */
+    public CompletableFuture<File> export(String generatedBy, Format format, File directory) {
+        return fill(generatedBy).thenApplyAsync(print -> {
+            if (!directory.exists()) {
+                directory.mkdirs();
+            }
+            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+            File file = new File(directory, "Report_" + timestamp + "." + format.getExtension());
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                export(print, format, out);
+            } catch (IOException | OurException ex) {
+                file.delete();
+                throw new CompletionException(ex instanceof OurException ? ex : new OurException("Error writing report: " + ex.getMessage()));
+            }
+            return file;
+        }, worker);
+    }
+
+    /**
+     * Writes a filled report to a stream, page by page.
+     * The stream is flushed but not closed.
+     *
+     * @param print The filled report
+     * @param format The format to write
+     * @param out The stream to write to
+     * @throws OurException If the report cannot be exported
+     */
+    public void export(JasperPrint print, Format format, OutputStream out) throws OurException {
+        try {
+            switch (format) {
+                case PDF: {
+                    JRPdfExporter exporter = new JRPdfExporter();
+                    exporter.setExporterInput(new SimpleExporterInput(print));
+                    exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+                    exporter.exportReport();
+                    break;
+                }
+                case CSV: {
+                    JRCsvExporter exporter = new JRCsvExporter();
+                    exporter.setExporterInput(new SimpleExporterInput(print));
+                    exporter.setExporterOutput(new SimpleWriterExporterOutput(out, "UTF-8"));
+                    exporter.exportReport();
+                    break;
+                }
+                case XLSX: {
+                    JRXlsxExporter exporter = new JRXlsxExporter();
+                    exporter.setExporterInput(new SimpleExporterInput(print));
+                    exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+                    exporter.exportReport();
+                    break;
+                }
+                default:
+                    throw new OurException("Unsupported report format: " + format);
+            }
+            out.flush();
+        } catch (JRException | IOException ex) {
+            throw new OurException("Error exporting report: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Drops every filled report so the next request fills it again.
+     */
+    public void invalidate() {
+        synchronized (filled) {
+            filled.clear();
+        }
+    }
+
+    /**
+     * Stops the background thread, waiting briefly for a report being written.
+     */
+    public void shutdown() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of times the report was filled.
+     *
+     * @return The fill count
+     */
+    public long getFillCount() {
+        return fills.get();
+    }
+
+    /**
+     * Gets the number of requests served with an already filled report.
+     *
+     * @return The reuse count
+     */
+    public long getReuseCount() {
+        return reuses.get();
+    }
+
+    /**
+     * Gets the report filled for an author if it is still up to date.
+     *
+     * @param author The name printed as the author of the report
+     * @param version The current catalog version
+     * @param statsStamp The stamp of the current review statistics
+     * @return The filled report, or null if it has to be filled
+     */
+    private JasperPrint cached(String author, long version, long statsStamp) {
+        synchronized (filled) {
+            Filled cached = filled.get(author);
+            if (cached != null && cached.version == version && cached.statsStamp == statsStamp) {
+                reuses.incrementAndGet();
+                return cached.print;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Fills the report, unless an earlier request filled it meanwhile.
+     * Runs on the background thread.
+     *
+     * @param author The name printed as the author of the report
+     * @param version The catalog version the games belong to
+     * @param games The games of the catalog
+     * @param statsStamp The stamp of the review statistics
+     * @param stats The review statistics of the reviewed games
+     * @return The filled report
+     * @throws OurException If the report cannot be filled
+     */
+    private JasperPrint fillNow(String author, long version, List<VideoGame> games, long statsStamp, List<GameScoreStats> stats) throws OurException {
+        JasperPrint cached = cached(author, version, statsStamp);
+        if (cached != null) {
+            return cached;
+        }
+
+        HashMap<String, Object> params = new HashMap<>();
+        params.put("GENERATED_BY", author);
+        params.put("GENERATION_DATE", new Date());
+
+        JasperPrint print;
+        try {
+            print = JasperFillManager.fillReport(compiledReport(), params, new JRMapCollectionDataSource(rows(games, stats)));
+        } catch (JRException ex) {
+            throw new OurException("Error generating report: " + ex.getMessage());
+        }
+        fills.incrementAndGet();
+
+        synchronized (filled) {
+            filled.put(author, new Filled(print, version, statsStamp));
+        }
+        return print;
+    }
+
+    /**
+     * Loads the compiled report the first time it is needed.
+     *
+     * @return The compiled report
+     * @throws OurException If the report is missing or cannot be read
+     */
+    private JasperReport compiledReport() throws OurException {
+        if (report == null) {
+            try (InputStream in = getClass().getResourceAsStream(REPORT_PATH)) {
+                if (in == null) {
+                    throw new OurException("Report not found: " + REPORT_PATH);
+                }
+                report = (JasperReport) JRLoader.loadObject(in);
+            } catch (JRException | IOException ex) {
+                throw new OurException("Error loading report: " + ex.getMessage());
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Sums a hash of the statistics of every game, so the stamp changes whenever
+     * a review is saved or deleted, whatever order the statistics come in.
+     *
+     * @param stats The review statistics
+     * @return The stamp of the statistics
+     */
+    private static long stamp(List<GameScoreStats> stats) {
+        long stamp = 0;
+        for (GameScoreStats gameStats : stats) {
+            stamp += Objects.hash(gameStats.getGameId(), gameStats.getReviewCount(), gameStats.getScoreSum(),
+                    Arrays.hashCode(gameStats.getHistogram()));
+        }
+        return stamp;
+    }
+
+    /**
+     * Turns the catalog into the rows the report query used to return:
+     * every game, ordered by name, with the review statistics of the game.
+     *
+     * @param games The games of the catalog
+     * @param stats The review statistics of the reviewed games
+     * @return One map per game with the report fields as keys
+     */
+    private static Collection<Map<String, ?>> rows(List<VideoGame> games, List<GameScoreStats> stats) {
+        Map<Integer, GameScoreStats> statsById = new HashMap<>();
+        for (GameScoreStats gameStats : stats) {
+            statsById.put(gameStats.getGameId(), gameStats);
+        }
+        List<VideoGame> sorted = new ArrayList<>(games);
+        sorted.sort((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.getV_name(), b.getV_name()));
+
+        List<Map<String, ?>> rows = new ArrayList<>(sorted.size());
+        for (VideoGame game : sorted) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("v_id", game.getV_id());
+            row.put("v_name", game.getV_name());
+            row.put("v_release", game.getV_release() == null ? null : java.sql.Date.valueOf(game.getV_release()));
+            row.put("v_platform", game.getV_platform() == null ? null : game.getV_platform().name());
+            row.put("v_pegi", game.getV_pegi() == null ? null : game.getV_pegi().name());
+            GameScoreStats gameStats = statsById.get(game.getV_id());
+            boolean reviewed = gameStats != null && gameStats.getReviewCount() > 0;
+            row.put("rating", reviewed ? gameStats.getAverage() : null);
+            row.put("review_count", reviewed ? gameStats.getReviewCount() : 0);
+            row.put("scores", reviewed ? gameStats.getHistogramText() : "");
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,306 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+/**
+ * Applies the schema changes that hbm2ddl update cannot make by itself,
+ * such as widening existing columns or moving rows to new tables. Every step
+ * checks the current schema first, so running the migration on an up-to-date
+ * database does nothing.
+ *
+ * @author ema
+ */
+public final class SchemaMigration {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigration.class.getName());
+
+    /**
+     * Length of the password_ column needed to store PBKDF2 hashes.
+     */
+    private static final int PASSWORD_LENGTH = 128;
+
+    /**
+     * Secondary indexes of the access paths of the DAO, as table, index name and columns.
+     * They match the @Index declarations of the entities, which hbm2ddl update creates
+     * by itself; this step also creates them when the schema is not managed by Hibernate.
+     */
+    private static final String[][] INDEXES = {
+        {"list_entry", "idx_list_entry_game", "videogame_id, list_id"},
+        {"review", "idx_review_game_date", "v_id, review_date"},
+        {"review", "idx_review_date", "review_date, r_id"},
+        {"videogame", "idx_videogame_name", "v_name"}
+    };
+
+    /**
+     * Name of the placeholder game that empty lists used to point at.
+     */
+    private static final String PLACEHOLDER_GAME = "DEFAULT_GAME";
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private SchemaMigration() {}
+
+    /**
+     * Runs every migration step on the database of the given SessionFactory.
+     * A failing step is logged and does not stop the application.
+     *
+     * @param sessionFactory The SessionFactory whose schema is migrated
+     */
+    public static void migrate(SessionFactory sessionFactory) {
+        try (Session session = sessionFactory.openSession()) {
+            session.doWork(connection -> {
+                widenPasswordColumn(connection);
+                addLibraryVersion(connection);
+                migrateLists(connection);
+                removePlaceholderGame(connection);
+                createIndexes(connection);
+                fillScoreStats(connection);
+            });
+        } catch (Exception ex) {
+            LOGGER.log(Level.SEVERE, "Schema migration failed", ex);
+        }
+    }
+
+    /**
+     * Widens profile_.password_ so it can hold PBKDF2 hashes.
+     *
+     * @param connection The connection to migrate
+     * @throws SQLException If the column cannot be read or altered
+     */
+    private static void widenPasswordColumn(Connection connection) throws SQLException {
+        int length = columnLength(connection, "profile_", "password_");
+        if (length > 0 && length < PASSWORD_LENGTH) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("ALTER TABLE profile_ MODIFY password_ VARCHAR(" + PASSWORD_LENGTH + ")");
+            }
+            LOGGER.info("Widened profile_.password_ from " + length + " to " + PASSWORD_LENGTH);
+        }
+    }
+
+    /**
+     * Adds the profile_.library_version change counter to databases created before it.
+     *
+     * @param connection The connection to migrate
+     * @throws SQLException If the column cannot be read or added
+     */
+    private static void addLibraryVersion(Connection connection) throws SQLException {
+        if (tableExists(connection, "profile_") && !columnExists(connection, "profile_", "library_version")) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("ALTER TABLE profile_ ADD COLUMN library_version BIGINT NOT NULL DEFAULT 0");
+            }
+            LOGGER.info("Added profile_.library_version");
+        }
+    }
+
+    /**
+     * Moves the lists of the old listed table, which stored the list name in
+     * every row, to the user_list and list_entry tables, and drops it.
+     * Rows pointing at the placeholder game only kept empty lists alive, so
+     * they become lists without entries. The rows are copied in one transaction
+     * with INSERT IGNORE, so an interrupted migration is simply run again.
+     *
+     * @param connection The connection to migrate
+     * @throws SQLException If the rows cannot be copied or the table dropped
+     */
+    private static void migrateLists(Connection connection) throws SQLException {
+        if (!tableExists(connection, "listed") || !tableExists(connection, "user_list") || !tableExists(connection, "list_entry")) {
+            return;
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        int lists;
+        int entries;
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            lists = stmt.executeUpdate("INSERT IGNORE INTO user_list (username, list_name) "
+                    + "SELECT DISTINCT username, list_name FROM listed");
+            try (PreparedStatement copy = connection.prepareStatement("INSERT IGNORE INTO list_entry (list_id, videogame_id) "
+                    + "SELECT u.list_id, l.videogame_id FROM listed l "
+                    + "JOIN user_list u ON u.username = l.username AND u.list_name = l.list_name "
+                    + "JOIN videogame v ON v.v_id = l.videogame_id WHERE v.v_name <> ?")) {
+                copy.setString(1, PLACEHOLDER_GAME);
+                entries = copy.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP TABLE listed");
+        }
+        LOGGER.info("Moved " + lists + " lists and " + entries + " list entries from listed to user_list and list_entry");
+    }
+
+    /**
+     * Deletes the placeholder game once nothing references it, so the catalog
+     * no longer has to filter it out.
+     *
+     * @param connection The connection to migrate
+     * @throws SQLException If the game cannot be deleted
+     */
+    private static void removePlaceholderGame(Connection connection) throws SQLException {
+        if (!tableExists(connection, "videogame") || tableExists(connection, "listed")) {
+            return;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM videogame WHERE v_name = ? "
+                + "AND NOT EXISTS (SELECT 1 FROM review r WHERE r.v_id = videogame.v_id) "
+                + "AND NOT EXISTS (SELECT 1 FROM list_entry e WHERE e.videogame_id = videogame.v_id)")) {
+            stmt.setString(1, PLACEHOLDER_GAME);
+            if (stmt.executeUpdate() > 0) {
+                LOGGER.info("Removed the " + PLACEHOLDER_GAME + " placeholder game");
+            }
+        }
+    }
+
+    /**
+     * Creates the secondary indexes that are missing on existing tables.
+     * Public so the index benchmark can apply the same indexes to its own tables.
+     *
+     * @param connection The connection to migrate
+     * @throws SQLException If the indexes cannot be read or created
+     */
+    public static void createIndexes(Connection connection) throws SQLException {
+        for (String[] index : INDEXES) {
+            if (tableExists(connection, index[0]) && !indexExists(connection, index[0], index[1])) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.executeUpdate("CREATE INDEX " + index[1] + " ON " + index[0] + " (" + index[2] + ")");
+                }
+                LOGGER.info("Created index " + index[1] + " on " + index[0] + " (" + index[2] + ")");
+            }
+        }
+    }
+
+    /**
+     * Checks if a table exists in the current database.
+     *
+     * @param connection The connection to query
+     * @param table The table name
+     * @return true if the table exists
+     * @throws SQLException If the schema cannot be read
+     */
+    static boolean tableExists(Connection connection, String table) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Checks if a table of the current database has an index with the given name.
+     *
+     * @param connection The connection to query
+     * @param table The table name
+     * @param index The index name
+     * @return true if the index exists
+     * @throws SQLException If the schema cannot be read
+     */
+    static boolean indexExists(Connection connection, String table, String index) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.STATISTICS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setString(2, index);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Fills the review statistics of databases whose reviews were written before
+     * game_score_stats existed. Runs only while the table is empty.
+     *
+     * @param connection The connection to migrate
+     * @throws SQLException If the statistics cannot be read or written
+     */
+    private static void fillScoreStats(Connection connection) throws SQLException {
+        if (!tableExists(connection, "game_score_stats") || !tableExists(connection, "review")) {
+            return;
+        }
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM game_score_stats), EXISTS (SELECT 1 FROM review)")) {
+            if (!rs.next() || rs.getBoolean(1) || !rs.getBoolean(2)) {
+                return;
+            }
+        }
+        rebuildScoreStats(connection);
+        LOGGER.info("Filled game_score_stats from the existing reviews");
+    }
+
+    /**
+     * Computes game_score_stats and game_score_histogram again from the review
+     * table, for data written with plain SQL instead of the DAO. This is the only
+     * place the reviews are grouped; the DAO keeps both tables current afterwards.
+     *
+     * @param connection The connection to use, whose transaction the statements join
+     * @throws SQLException If the statistics cannot be written
+     */
+    public static void rebuildScoreStats(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM game_score_histogram");
+            stmt.executeUpdate("DELETE FROM game_score_stats");
+            stmt.executeUpdate("INSERT INTO game_score_stats (v_id, review_count, score_sum) "
+                    + "SELECT v_id, COUNT(*), SUM(score) FROM review GROUP BY v_id");
+            stmt.executeUpdate("INSERT INTO game_score_histogram (v_id, score, review_count) "
+                    + "SELECT v_id, score, COUNT(*) FROM review GROUP BY v_id, score");
+        }
+    }
+
+    /**
+     * Checks if a table of the current database has a column with the given name.
+     *
+     * @param connection The connection to query
+     * @param table The table name
+     * @param column The column name
+     * @return true if the column exists
+     * @throws SQLException If the schema cannot be read
+     */
+    static boolean columnExists(Connection connection, String table, String column) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Reads the maximum length of a character column of the current database.
+     *
+     * @param connection The connection to query
+     * @param table The table name
+     * @param column The column name
+     * @return The declared length, or -1 if the column does not exist
+     * @throws SQLException If the schema cannot be read
+     */
+    static int columnLength(Connection connection, String table, String column) throws SQLException {
+        String sql = "SELECT CHARACTER_MAXIMUM_LENGTH FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+}
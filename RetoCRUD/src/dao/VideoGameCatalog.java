@@ -0,0 +1,262 @@
+package dao;
+
+import exception.OurException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import model.VideoGame;
+
+/**
+ * Read-through, in-process cache of the video game catalog.
+ * The whole catalog is loaded once and kept as an immutable snapshot with
+ * indexes by id and by name, so repeated reads never reach the database.
+ * The snapshot is dropped by {@link #invalidate()} whenever the catalog is
+ * written, and optionally expires after the CATALOGTTL seconds set in the
+ * config file (0 keeps it until it is invalidated).
+ *
+ * @author ema
+ */
+public class VideoGameCatalog {
+
+    /**
+     * Loads the full catalog from the database when the cache is empty.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * Reads every video game from the database.
+         *
+         * @return The list of all video games
+         * @throws OurException If the games cannot be read
+         */
+        List<VideoGame> load() throws OurException;
+    }
+
+    /**
+     * Immutable view of the catalog at the time it was loaded.
+     */
+    private static final class Snapshot {
+
+        private final List<VideoGame> games;
+        private final Map<Integer, VideoGame> byId;
+        private final Map<String, VideoGame> byName;
+        private final long loadedAt;
+        private final long version;
+
+        private Snapshot(List<VideoGame> games, long version) {
+            Map<Integer, VideoGame> ids = new HashMap<>();
+            Map<String, VideoGame> names = new HashMap<>();
+            for (VideoGame game : games) {
+                ids.put(game.getV_id(), game);
+                names.putIfAbsent(nameKey(game.getV_name()), game);
+            }
+            this.games = Collections.unmodifiableList(new ArrayList<>(games));
+            this.byId = ids;
+            this.byName = names;
+            this.loadedAt = System.nanoTime();
+            this.version = version;
+        }
+    }
+
+    private final Object loadLock = new Object();
+    private final long ttlNanos;
+    private volatile Snapshot snapshot;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Constructs a new VideoGameCatalog.
+     * Reads the time to live from the config file, defaulting to no expiry.
+     */
+    public VideoGameCatalog() {
+        long ttl;
+        try {
+            ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+            ttl = Long.parseLong(configFile.getString("CATALOGTTL"));
+        } catch (Exception e) {
+            ttl = 0;
+        }
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, ttl));
+    }
+
+    /**
+     * Gets every video game of the catalog, loading it on a miss.
+     *
+     * @param loader Reads the catalog from the database on a miss
+     * @return A new ArrayList with all the video games
+     * @throws OurException If the catalog has to be loaded and the loader fails
+     */
+    public ArrayList<VideoGame> getAll(Loader loader) throws OurException {
+        return new ArrayList<>(current(loader).games);
+    }
+
+    /**
+     * Finds a video game by its id, loading the catalog on a miss.
+     *
+     * @param loader Reads the catalog from the database on a miss
+     * @param id The id of the video game
+     * @return The VideoGame, or null if it is not in the catalog
+     * @throws OurException If the catalog has to be loaded and the loader fails
+     */
+    public VideoGame findById(Loader loader, int id) throws OurException {
+        return current(loader).byId.get(id);
+    }
+
+    /**
+     * Finds a video game by its name, ignoring case, loading the catalog on a miss.
+     *
+     * @param loader Reads the catalog from the database on a miss
+     * @param name The name of the video game
+     * @return The VideoGame, or null if it is not in the catalog
+     * @throws OurException If the catalog has to be loaded and the loader fails
+     */
+    public VideoGame findByName(Loader loader, String name) throws OurException {
+        if (name == null) {
+            return null;
+        }
+        return current(loader).byName.get(nameKey(name));
+    }
+
+    /**
+     * Gets the version of the catalog, loading it on a miss.
+     * The version changes every time the catalog is loaded again, so results
+     * computed from the catalog can be reused while it stays the same.
+     * Read it before the games: if the catalog is reloaded in between, the
+     * result is stored under an older version and is simply computed again.
+     *
+     * @param loader Reads the catalog from the database on a miss
+     * @return The version of the current snapshot
+     * @throws OurException If the catalog has to be loaded and the loader fails
+     */
+    public long getVersion(Loader loader) throws OurException {
+        return current(loader).version;
+    }
+
+    /**
+     * Drops the cached catalog so the next read loads it again.
+     * Must be called after any write to the videogame table.
+     */
+    public void invalidate() {
+        synchronized (loadLock) {
+            snapshot = null;
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Returns the cached snapshot, or loads a new one if it is missing or expired.
+     * Concurrent misses wait for a single load instead of querying the database each.
+     *
+     * @param loader Reads the catalog from the database on a miss
+     * @return The current snapshot
+     * @throws OurException If the loader fails
+     */
+    private Snapshot current(Loader loader) throws OurException {
+        Snapshot cached = snapshot;
+        if (isFresh(cached)) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        synchronized (loadLock) {
+            cached = snapshot;
+            if (isFresh(cached)) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            misses.incrementAndGet();
+            List<VideoGame> games = loader.load();
+            Snapshot loaded = new Snapshot(games, loads.incrementAndGet());
+            snapshot = loaded;
+            return loaded;
+        }
+    }
+
+    /**
+     * Checks if a snapshot exists and has not expired.
+     *
+     * @param cached The snapshot to check
+     * @return true if the snapshot can be served
+     */
+    private boolean isFresh(Snapshot cached) {
+        return cached != null && (ttlNanos == 0 || System.nanoTime() - cached.loadedAt < ttlNanos);
+    }
+
+    /**
+     * Builds the key used by the name index.
+     *
+     * @param name The name of the video game
+     * @return The normalized name
+     */
+    private static String nameKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the number of reads served from the cache.
+     *
+     * @return The hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of reads that had to load the catalog.
+     *
+     * @return The miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of times the catalog was loaded from the database.
+     *
+     * @return The load count
+     */
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    /**
+     * Gets the number of times the catalog was invalidated.
+     *
+     * @return The invalidation count
+     */
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    /**
+     * Gets the fraction of reads served from the cache.
+     *
+     * @return The hit ratio between 0 and 1, or 0 if nothing was read yet
+     */
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    /**
+     * Describes the cache statistics in a single line, for the logs.
+     *
+     * @return The statistics of the cache
+     */
+    public String getStatistics() {
+        Snapshot cached = snapshot;
+        return String.format(Locale.ROOT, "VideoGame catalog: %d games cached, %d hits, %d misses (%.1f%% hit ratio), %d loads, %d invalidations",
+                cached == null ? 0 : cached.games.size(), getHitCount(), getMissCount(), getHitRatio() * 100,
+                getLoadCount(), getInvalidationCount());
+    }
+}
@@ -34,6 +34,12 @@ public class ErrorMessages
      */
     public static final String LOGIN = "Login failed. Please check your credentials.";
 
+    /**
+     * Error message displayed when a username is locked out after too many failed login attempts.
+     * This typically occurs when the wrong password is tried repeatedly within a short time.
+     */
+    public static final String TOO_MANY_LOGIN_ATTEMPTS = "Too many failed login attempts. Please try again in a minute.";
+
     /**
      * Error message displayed when credential verification fails. This typically occurs during registration when checking for duplicate emails or usernames, and the verification process encounters errors.
      */
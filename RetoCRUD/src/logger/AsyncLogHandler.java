@@ -0,0 +1,472 @@
+package logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * Logging handler that writes records to a file from a background thread.
+ * Callers only place the record in a lock-free ring buffer and return; a single
+ * writer thread formats the records, writes them in batches and flushes the file
+ * when the buffer is drained or every LOGFLUSHMILLIS milliseconds.
+ * The file is rotated when it reaches LOGMAXBYTES bytes or is older than
+ * LOGROTATEHOURS hours, keeping LOGFILES old files as name.1, name.2...
+ * When the buffer is full the record is dropped (LOGPOLICY=DROP) or the caller
+ * waits for free space (LOGPOLICY=BLOCK).
+ *
+ * @author ema
+ */
+public class AsyncLogHandler extends Handler
+{
+    /**
+     * What to do with a record when the ring buffer is full.
+     */
+    public enum OverflowPolicy
+    {
+        /**
+         * Discard the record and count it.
+         */
+        DROP,
+
+        /**
+         * Wait until the writer frees a slot.
+         */
+        BLOCK
+    }
+
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final long DEFAULT_MAX_BYTES = 10L * 1024 * 1024;
+    private static final int DEFAULT_FILES = 5;
+    private static final long DEFAULT_ROTATE_HOURS = 24;
+    private static final long DEFAULT_FLUSH_MILLIS = 1000;
+
+    /**
+     * Maximum number of records written between two checks of the flush and rotation limits.
+     */
+    private static final int BATCH = 256;
+
+    private final File file;
+    private final int mask;
+    private final AtomicReferenceArray<LogRecord> slots;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final OverflowPolicy policy;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final long rotateNanos;
+    private final long flushNanos;
+    private final Thread writerThread;
+
+    private volatile boolean closed;
+    private volatile boolean writerWaiting;
+
+    private Writer out;
+    private long fileBytes;
+    private long openedAt;
+
+    /**
+     * Constructs a new AsyncLogHandler with the settings of the config file.
+     *
+     * @param file The log file
+     * @throws IOException If the log file cannot be opened
+     */
+    public AsyncLogHandler(File file) throws IOException
+    {
+        this(file, readInt("LOGBUFFER", DEFAULT_CAPACITY), readPolicy(), readLong("LOGMAXBYTES", DEFAULT_MAX_BYTES),
+                readInt("LOGFILES", DEFAULT_FILES), readLong("LOGROTATEHOURS", DEFAULT_ROTATE_HOURS),
+                readLong("LOGFLUSHMILLIS", DEFAULT_FLUSH_MILLIS));
+    }
+
+    /**
+     * Constructs a new AsyncLogHandler.
+     *
+     * @param file The log file
+     * @param capacity The number of records the buffer holds, rounded up to a power of two
+     * @param policy What to do when the buffer is full
+     * @param maxBytes The size that rotates the file, or 0 to never rotate by size
+     * @param maxFiles The number of rotated files kept
+     * @param rotateHours The age in hours that rotates the file, or 0 to never rotate by time
+     * @param flushMillis The longest time a written record waits to be flushed
+     * @throws IOException If the log file cannot be opened
+     */
+    public AsyncLogHandler(File file, int capacity, OverflowPolicy policy, long maxBytes, int maxFiles,
+            long rotateHours, long flushMillis) throws IOException
+    {
+        int size = Integer.highestOneBit(Math.max(2, Math.min(capacity, 1 << 20)) - 1) << 1;
+        this.file = file;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.policy = policy;
+        this.maxBytes = Math.max(0, maxBytes);
+        this.maxFiles = Math.max(0, maxFiles);
+        this.rotateNanos = TimeUnit.HOURS.toNanos(Math.max(0, rotateHours));
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushMillis));
+
+        setFormatter(new SimpleFormatter());
+        open();
+
+        writerThread = new Thread(this::writeLoop, "log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Places a record in the ring buffer for the writer thread.
+     * The caller class and method are resolved here, on the caller thread,
+     * because the writer thread cannot infer them any more.
+     *
+     * @param record The record to log
+     */
+    @Override
+    public void publish(LogRecord record)
+    {
+        if (closed || record == null || !isLoggable(record))
+        {
+            return;
+        }
+        record.getSourceClassName();
+
+        while (true)
+        {
+            long slot = tail.get();
+            if (slot - head.get() >= slots.length())
+            {
+                if (policy == OverflowPolicy.DROP || closed)
+                {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                wakeWriter();
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                continue;
+            }
+            if (tail.compareAndSet(slot, slot + 1))
+            {
+                slots.set((int) (slot & mask), record);
+                if (writerWaiting)
+                {
+                    wakeWriter();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Asks the writer thread to write and flush everything buffered so far.
+     */
+    @Override
+    public void flush()
+    {
+        wakeWriter();
+    }
+
+    /**
+     * Stops accepting records, writes every buffered record and closes the file.
+     */
+    @Override
+    public void close()
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        wakeWriter();
+        try
+        {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of records discarded because the buffer was full.
+     *
+     * @return The dropped record count
+     */
+    public long getDroppedCount()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the number of records written to the file.
+     *
+     * @return The written record count
+     */
+    public long getWrittenCount()
+    {
+        return written.get();
+    }
+
+    /**
+     * Gets the number of records waiting in the buffer.
+     *
+     * @return The buffered record count
+     */
+    public long getPendingCount()
+    {
+        return Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * Body of the writer thread: drains the buffer in batches, flushes and rotates the file.
+     */
+    private void writeLoop()
+    {
+        long lastFlush = System.nanoTime();
+        boolean dirty = false;
+        while (true)
+        {
+            int count = drain(BATCH);
+            dirty |= count > 0;
+
+            long now = System.nanoTime();
+            if (dirty && (count < BATCH || now - lastFlush >= flushNanos))
+            {
+                flushFile();
+                dirty = false;
+                lastFlush = now;
+            }
+            if (rotateNanos > 0 && now - openedAt >= rotateNanos && fileBytes > 0)
+            {
+                rotate();
+            }
+
+            if (count == 0)
+            {
+                if (closed && tail.get() == head.get())
+                {
+                    break;
+                }
+                writerWaiting = true;
+                if (tail.get() == head.get() && !closed)
+                {
+                    LockSupport.parkNanos(this, flushNanos);
+                }
+                writerWaiting = false;
+            }
+        }
+        flushFile();
+        try
+        {
+            out.close();
+        }
+        catch (IOException ex)
+        {
+            reportError(null, ex, ErrorManager.CLOSE_FAILURE);
+        }
+    }
+
+    /**
+     * Writes up to a number of buffered records.
+     * Stops early at a slot that a producer has claimed but not filled yet.
+     *
+     * @param max The maximum number of records to write
+     * @return The number of records written
+     */
+    private int drain(int max)
+    {
+        int count = 0;
+        while (count < max)
+        {
+            long slot = head.get();
+            if (slot == tail.get())
+            {
+                break;
+            }
+            int index = (int) (slot & mask);
+            LogRecord record = slots.get(index);
+            if (record == null)
+            {
+                break;
+            }
+            slots.set(index, null);
+            head.set(slot + 1);
+            write(record);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Formats and writes one record, rotating the file first if it is full.
+     *
+     * @param record The record to write
+     */
+    private void write(LogRecord record)
+    {
+        String text;
+        try
+        {
+            text = getFormatter().format(record);
+        }
+        catch (RuntimeException ex)
+        {
+            reportError(null, ex, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (maxBytes > 0 && fileBytes > 0 && fileBytes + bytes.length > maxBytes)
+        {
+            rotate();
+        }
+        try
+        {
+            out.write(text);
+            fileBytes += bytes.length;
+            written.incrementAndGet();
+        }
+        catch (IOException ex)
+        {
+            reportError(null, ex, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    /**
+     * Flushes the file.
+     */
+    private void flushFile()
+    {
+        try
+        {
+            out.flush();
+        }
+        catch (IOException ex)
+        {
+            reportError(null, ex, ErrorManager.FLUSH_FAILURE);
+        }
+    }
+
+    /**
+     * Closes the current file, shifts the old ones (name.1 becomes name.2...)
+     * and starts a new file.
+     */
+    private void rotate()
+    {
+        try
+        {
+            out.close();
+            if (maxFiles == 0)
+            {
+                Files.deleteIfExists(file.toPath());
+            }
+            for (int i = maxFiles - 1; i >= 1; i--)
+            {
+                File older = new File(file.getPath() + "." + i);
+                if (older.exists())
+                {
+                    Files.move(older.toPath(), new File(file.getPath() + "." + (i + 1)).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (maxFiles > 0 && file.exists())
+            {
+                Files.move(file.toPath(), new File(file.getPath() + ".1").toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            open();
+        }
+        catch (IOException ex)
+        {
+            reportError("Log rotation failed", ex, ErrorManager.GENERIC_FAILURE);
+            try
+            {
+                open();
+            }
+            catch (IOException reopen)
+            {
+                reportError(null, reopen, ErrorManager.OPEN_FAILURE);
+            }
+        }
+    }
+
+    /**
+     * Opens the log file in append mode.
+     *
+     * @throws IOException If the file cannot be opened
+     */
+    private void open() throws IOException
+    {
+        out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8), 64 * 1024);
+        fileBytes = file.length();
+        openedAt = System.nanoTime();
+    }
+
+    /**
+     * Wakes the writer thread if it is waiting for records.
+     */
+    private void wakeWriter()
+    {
+        LockSupport.unpark(writerThread);
+    }
+
+    /**
+     * Reads the overflow policy from the config file, defaulting to DROP.
+     *
+     * @return The configured policy
+     */
+    private static OverflowPolicy readPolicy()
+    {
+        try
+        {
+            ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+            return OverflowPolicy.valueOf(configFile.getString("LOGPOLICY").trim().toUpperCase());
+        }
+        catch (Exception e)
+        {
+            return OverflowPolicy.DROP;
+        }
+    }
+
+    /**
+     * Reads an int setting from the config file.
+     *
+     * @param key The key of the setting
+     * @param defaultValue The value used if the key cannot be read
+     * @return The configured value
+     */
+    private static int readInt(String key, int defaultValue)
+    {
+        return (int) readLong(key, defaultValue);
+    }
+
+    /**
+     * Reads a long setting from the config file.
+     *
+     * @param key The key of the setting
+     * @param defaultValue The value used if the key cannot be read
+     * @return The configured value
+     */
+    private static long readLong(String key, long defaultValue)
+    {
+        try
+        {
+            ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+            return Long.parseLong(configFile.getString(key).trim());
+        }
+        catch (Exception e)
+        {
+            return defaultValue;
+        }
+    }
+}
@@ -2,24 +2,22 @@ package logger;
 
 import java.io.IOException;
 import java.io.File;
-import java.util.logging.FileHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
 
 /**
  * Logger utility class for generating and managing application logs.
  * This class follows the Singleton pattern to ensure only one logger instance
  * is created throughout the application. Logs are written to a file in the
- * "./logs" directory.
+ * "./logs" directory by an AsyncLogHandler, so logging never waits for the disk.
  *
  * @author ema
  */
 public class GeneraLog
 {
   // [ VARIABLES ]
-  private static Logger logger = null;
-  private static FileHandler fileHandler = null;
+  private static volatile Logger logger = null;
+  private static AsyncLogHandler fileHandler = null;
 
   // [ CONSTRUCTORES ]
   /**
@@ -43,19 +41,19 @@ public class GeneraLog
 			try
 			{
 				// Configura el logger
-				logger = Logger.getLogger(GeneraLog.class.getName());
+				Logger created = Logger.getLogger(GeneraLog.class.getName());
 				// A false evita la salida en consola
-				logger.setUseParentHandlers(false);
-				fileHandler = new FileHandler(carpeta.getPath() + "/ProjectLogs.log", true); // Ruta de la carpeta + nombre archivo .log [true = append mode]
+				created.setUseParentHandlers(false);
+				fileHandler = new AsyncLogHandler(new File(carpeta, "ProjectLogs.log")); // Escribe en segundo plano, en modo append y con rotacion
 
-				SimpleFormatter formatter = new SimpleFormatter();
-				fileHandler.setFormatter(formatter);
-				logger.addHandler(fileHandler);
-				logger.setLevel(Level.ALL); // Establece el nivel de log (puedes ajustarlo según tu necesidad)
+				created.addHandler(fileHandler);
+				created.setLevel(Level.ALL); // Establece el nivel de log (puedes ajustarlo según tu necesidad)
+				logger = created;
 			}
 			catch (IOException e)
 			{
 				System.err.println("[ERROR IN LOGGER CONFIGURATION]: " + e.getMessage());
+				logger = Logger.getLogger(GeneraLog.class.getName());
 			}
 		}
 	}
@@ -64,24 +62,34 @@ public class GeneraLog
 	/**
 	 * Returns the singleton logger instance.
 	 * If the logger hasn't been initialized yet, it creates a new instance.
+	 * Safe to call from any thread; only the first call initializes the logger.
 	 *
 	 * @return The Logger instance for the application
 	 */
 	public static Logger getLogger()
 	{
-		if (logger == null)
+		Logger current = logger;
+		if (current == null)
 		{
-			new GeneraLog(); // Si aún no se ha creado, inicialízalo
+			synchronized (GeneraLog.class)
+			{
+				if (logger == null)
+				{
+					new GeneraLog(); // Si aún no se ha creado, inicialízalo
+				}
+				current = logger;
+			}
 		}
-		return logger;
+		return current;
 	}
 
 	/**
 	 * Closes the file handler to release system resources.
 	 * This method should be called when the application is shutting down
 	 * to ensure all log data is properly written and resources are freed.
+	 * Waits until the buffered records are written to the file.
 	 */
-	public static void closeLogger()
+	public static synchronized void closeLogger()
 	{
 		if (fileHandler != null)
 		{
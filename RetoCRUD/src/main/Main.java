@@ -2,7 +2,10 @@ package main;
 
 import controller.Controller;
 import controller.LogInWindowController;
+import dao.AsyncDAOAdapter;
 import dao.HibernateImplementation;
+import dao.InstrumentedClassDAO;
+import exception.OurException;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -11,6 +14,7 @@ import javafx.stage.Stage;
 import dao.HibernateUtil;
 import javafx.scene.image.Image;
 import logger.GeneraLog;
+import metrics.DAOMetrics;
 
 /**
  * Main class that serves as the entry point for the JavaFX application.
@@ -21,11 +25,13 @@ import logger.GeneraLog;
 public class Main extends Application
 {
     private HibernateImplementation dao;
+    private DAOMetrics metrics;
 
     /**
      * Starts the JavaFX application by loading the login window.
-     * Initializes the database, sets up global exception handling,
-     * creates the controller, and displays the login interface.
+     * Starts Hibernate on a background thread, sets up global exception handling,
+     * creates the controller, and displays the login interface while Hibernate starts.
+     * Once it is ready the default data is initialized and the catalog is cached.
      *
      * @param stage the primary stage for this application
      * @throws Exception if the FXML file cannot be loaded
@@ -42,9 +48,28 @@ public class Main extends Application
         {
             dao = new HibernateImplementation();
 
-            dao.initializeDefault();
+            HibernateUtil.warmUp().thenRun(() ->
+            {
+                try
+                {
+                    dao.initializeDefault();
+                    dao.getAllVideoGames();
+                }
+                catch (OurException ex)
+                {
+                    GeneraLog.getLogger().severe("Error initializing the database: " + ex.getMessage());
+                }
+            }).exceptionally(ex ->
+            {
+                GeneraLog.getLogger().severe("Error starting Hibernate: " + ex.getMessage());
+                return null;
+            });
 
-            Controller controller = new Controller(dao);
+            metrics = new DAOMetrics(dao.getExecutor(), HibernateUtil::getPoolMXBean);
+            metrics.start();
+            InstrumentedClassDAO instrumented = new InstrumentedClassDAO(dao, metrics);
+
+            Controller controller = new Controller(instrumented, new AsyncDAOAdapter(instrumented, dao.getExecutor()));
 
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/LogInWindow.fxml"));
             Parent root = fxmlLoader.load();
@@ -81,7 +106,12 @@ public class Main extends Application
     @Override
     public void stop()
     {
+        if (metrics != null)
+        {
+            metrics.stop();
+        }
         dao.cleanupThreads();
         HibernateUtil.close();
+        GeneraLog.closeLogger();
     }
 }
\ No newline at end of file
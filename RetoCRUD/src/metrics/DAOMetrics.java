@@ -0,0 +1,346 @@
+package metrics;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import exception.ErrorMessages;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import threads.SessionExecutor;
+
+/**
+ * Latency histograms and error counters of the DAO calls, together with the
+ * gauges of the session workers and the Hikari connection pool.
+ * Errors are counted by the name of the ErrorMessages constant they carry.
+ * The metrics are exposed through JMX and, every METRICSINTERVAL seconds of the
+ * config file (0 disables it), appended as a snapshot to logs/DAOMetrics.log.
+ *
+ * @author ema
+ */
+public class DAOMetrics implements DAOMetricsMBean {
+
+    private static final String OBJECT_NAME = "retocrud:type=DAOMetrics";
+    private static final long DEFAULT_INTERVAL = 60;
+
+    /**
+     * Error key of the failures whose message is not an ErrorMessages constant.
+     */
+    private static final String OTHER_ERROR = "OTHER";
+
+    /**
+     * Name of every ErrorMessages constant by its message.
+     */
+    private static final Map<String, String> ERROR_NAMES = errorNames();
+
+    private final SessionExecutor executor;
+    private final Supplier<HikariPoolMXBean> pool;
+    private final File file;
+    private final long intervalSeconds;
+
+    private final Map<String, LatencyHistogram> methods = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    private final AtomicLong errorTotal = new AtomicLong();
+
+    private ScheduledExecutorService dumper;
+    private ObjectName registeredName;
+
+    /**
+     * Constructs a new DAOMetrics that dumps to logs/DAOMetrics.log at the configured interval.
+     *
+     * @param executor The executor whose queue and connection waits are reported, or null
+     * @param pool Gets the Hikari pool bean, or null while the pool is not started
+     */
+    public DAOMetrics(SessionExecutor executor, Supplier<HikariPoolMXBean> pool) {
+        this(executor, pool, new File("logs", "DAOMetrics.log"), readInterval());
+    }
+
+    /**
+     * Constructs a new DAOMetrics.
+     *
+     * @param executor The executor whose queue and connection waits are reported, or null
+     * @param pool Gets the Hikari pool bean, or null while the pool is not started
+     * @param file The file the snapshots are appended to
+     * @param intervalSeconds Seconds between two snapshots, or 0 to only dump on demand
+     */
+    public DAOMetrics(SessionExecutor executor, Supplier<HikariPoolMXBean> pool, File file, long intervalSeconds) {
+        this.executor = executor;
+        this.pool = pool;
+        this.file = file;
+        this.intervalSeconds = Math.max(0, intervalSeconds);
+    }
+
+    /**
+     * Registers the JMX bean and starts the periodic snapshots.
+     */
+    public synchronized void start() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                registeredName = name;
+            }
+        } catch (JMException ex) {
+            Logger.getLogger(DAOMetrics.class.getName()).log(Level.WARNING, "DAO metrics not registered in JMX", ex);
+        }
+
+        if (intervalSeconds > 0 && dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "metrics-dumper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(this::dumpSnapshot, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the periodic snapshots, writes a last one and unregisters the JMX bean.
+     */
+    public synchronized void stop() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+        dumpSnapshot();
+        if (registeredName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            } catch (JMException ex) {
+                Logger.getLogger(DAOMetrics.class.getName()).log(Level.FINE, null, ex);
+            }
+            registeredName = null;
+        }
+    }
+
+    /**
+     * Records a finished DAO call.
+     *
+     * @param method The name of the DAO method
+     * @param nanos How long the call took
+     */
+    public void recordCall(String method, long nanos) {
+        methods.computeIfAbsent(method, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Counts a failed DAO call under the ErrorMessages constant of its message.
+     *
+     * @param message The message of the exception the call threw
+     */
+    public void recordError(String message) {
+        String key = message == null ? OTHER_ERROR : ERROR_NAMES.getOrDefault(message, OTHER_ERROR);
+        errors.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        errorTotal.incrementAndGet();
+    }
+
+    /**
+     * Gets the latency histogram of a DAO method.
+     *
+     * @param method The name of the DAO method
+     * @return The histogram, or null if the method was never called
+     */
+    public LatencyHistogram getMethod(String method) {
+        return methods.get(method);
+    }
+
+    /**
+     * Gets the number of failures counted under an ErrorMessages constant.
+     *
+     * @param constant The name of the constant, such as CONNECTION_POOL_FULL
+     * @return The error count
+     */
+    public long getErrorCount(String constant) {
+        AtomicLong counter = errors.get(constant);
+        return counter == null ? 0 : counter.get();
+    }
+
+    @Override
+    public long getCalls() {
+        long total = 0;
+        for (LatencyHistogram histogram : methods.values()) {
+            total += histogram.getCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getErrors() {
+        return errorTotal.get();
+    }
+
+    @Override
+    public long getConnectionPoolFull() {
+        return getErrorCount("CONNECTION_POOL_FULL");
+    }
+
+    @Override
+    public int getActiveConnections() {
+        HikariPoolMXBean bean = poolBean();
+        return bean == null ? -1 : bean.getActiveConnections();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        HikariPoolMXBean bean = poolBean();
+        return bean == null ? -1 : bean.getIdleConnections();
+    }
+
+    @Override
+    public int getPendingConnections() {
+        HikariPoolMXBean bean = poolBean();
+        return bean == null ? -1 : bean.getThreadsAwaitingConnection();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return executor == null ? 0 : executor.getQueueDepth();
+    }
+
+    @Override
+    public double getQueueWaitP99Millis() {
+        return executor == null ? 0 : executor.getQueueWait().getPercentileMillis(0.99);
+    }
+
+    @Override
+    public double getConnectionWaitP99Millis() {
+        return executor == null ? 0 : executor.getConnectionWait().getPercentileMillis(0.99);
+    }
+
+    @Override
+    public String[] getMethodLatencies() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(methods).entrySet()) {
+            lines.add(describe(entry.getKey(), entry.getValue()));
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getErrorCounts() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<>(errors).entrySet()) {
+            lines.add(entry.getKey() + "=" + entry.getValue().get());
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    @Override
+    public String getSnapshot() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("== DAO metrics ").append(LocalDateTime.now().withNano(0)).append(" ==\n");
+        sb.append(String.format(Locale.ROOT, "calls=%d errors=%d pool: active=%d idle=%d pending=%d%n",
+                getCalls(), getErrors(), getActiveConnections(), getIdleConnections(), getPendingConnections()));
+        if (executor != null) {
+            sb.append(String.format(Locale.ROOT, "workers: inFlight=%d queued=%d oldestUnit=%dms rejected=%d poolTimeouts=%d%n",
+                    executor.getInFlight(), executor.getQueueDepth(), executor.getUnits().getOldestAgeMillis(),
+                    executor.getRejected(), executor.getPoolTimeouts()));
+            sb.append(describe("queueWait", executor.getQueueWait())).append('\n');
+            sb.append(describe("connectionWait", executor.getConnectionWait())).append('\n');
+        }
+        for (String line : getMethodLatencies()) {
+            sb.append(line).append('\n');
+        }
+        for (String line : getErrorCounts()) {
+            sb.append("error ").append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void dumpSnapshot() {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(getSnapshot());
+        } catch (IOException ex) {
+            Logger.getLogger(DAOMetrics.class.getName()).log(Level.WARNING, "Could not write the DAO metrics", ex);
+        }
+    }
+
+    /**
+     * Gets the Hikari pool bean, ignoring failures of the supplier.
+     *
+     * @return The pool bean, or null if it is not available
+     */
+    private HikariPoolMXBean poolBean() {
+        try {
+            return pool == null ? null : pool.get();
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Describes a histogram in one line.
+     *
+     * @param name The name of the measured operation
+     * @param histogram The histogram
+     * @return The count, mean, percentiles and maximum in milliseconds
+     */
+    private static String describe(String name, LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "%-24s count=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f max=%.3f ms",
+                name, histogram.getCount(), histogram.getMeanMillis(), histogram.getPercentileMillis(0.50),
+                histogram.getPercentileMillis(0.90), histogram.getPercentileMillis(0.99), histogram.getMaxMillis());
+    }
+
+    /**
+     * Maps the message of every ErrorMessages constant to the name of the constant.
+     *
+     * @return The constant names by message
+     */
+    private static Map<String, String> errorNames() {
+        Map<String, String> names = new HashMap<>();
+        for (Field field : ErrorMessages.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                try {
+                    names.putIfAbsent((String) field.get(null), field.getName());
+                } catch (IllegalAccessException ex) {
+                    Logger.getLogger(DAOMetrics.class.getName()).log(Level.FINE, null, ex);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(names);
+    }
+
+    /**
+     * Reads the snapshot interval from the config file, defaulting to 60 seconds.
+     *
+     * @return The interval in seconds
+     */
+    private static long readInterval() {
+        try {
+            ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+            return Long.parseLong(configFile.getString("METRICSINTERVAL").trim());
+        } catch (Exception e) {
+            return DEFAULT_INTERVAL;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package metrics;
+
+/**
+ * JMX view of the DAO metrics, registered as retocrud:type=DAOMetrics.
+ *
+ * @author ema
+ */
+public interface DAOMetricsMBean {
+
+    /**
+     * Gets the number of DAO calls made.
+     *
+     * @return The call count
+     */
+    long getCalls();
+
+    /**
+     * Gets the number of DAO calls that failed.
+     *
+     * @return The error count
+     */
+    long getErrors();
+
+    /**
+     * Gets the number of calls refused because no connection or worker was free.
+     *
+     * @return The CONNECTION_POOL_FULL count
+     */
+    long getConnectionPoolFull();
+
+    /**
+     * Gets the number of connections in use.
+     *
+     * @return The active connections, or -1 if the pool is not started
+     */
+    int getActiveConnections();
+
+    /**
+     * Gets the number of open connections that are not in use.
+     *
+     * @return The idle connections, or -1 if the pool is not started
+     */
+    int getIdleConnections();
+
+    /**
+     * Gets the number of threads waiting for a connection.
+     *
+     * @return The pending threads, or -1 if the pool is not started
+     */
+    int getPendingConnections();
+
+    /**
+     * Gets the number of work units waiting for a free worker.
+     *
+     * @return The queue depth
+     */
+    int getQueueDepth();
+
+    /**
+     * Gets the 99th percentile of the time work units waited for a worker.
+     *
+     * @return The latency in milliseconds
+     */
+    double getQueueWaitP99Millis();
+
+    /**
+     * Gets the 99th percentile of the time work units waited for a connection.
+     *
+     * @return The latency in milliseconds
+     */
+    double getConnectionWaitP99Millis();
+
+    /**
+     * Gets one line per DAO method with its call count and latency percentiles.
+     *
+     * @return The method summaries
+     */
+    String[] getMethodLatencies();
+
+    /**
+     * Gets one line per error message constant with its count.
+     *
+     * @return The error summaries
+     */
+    String[] getErrorCounts();
+
+    /**
+     * Describes every metric as text.
+     *
+     * @return The snapshot
+     */
+    String getSnapshot();
+
+    /**
+     * Appends the snapshot to the metrics file now.
+     */
+    void dumpSnapshot();
+}
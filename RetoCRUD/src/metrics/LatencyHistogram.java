@@ -0,0 +1,135 @@
+package metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with a fixed relative precision.
+ * Latencies are recorded in microseconds into log-linear buckets, in the style
+ * of HdrHistogram: values below 32 have a bucket each, and every power of two
+ * above is split into 16 buckets, so a percentile is never off by more than
+ * about 6%. Recording is a couple of atomic increments and never allocates,
+ * so it can be used on every DAO call.
+ *
+ * @author ema
+ */
+public class LatencyHistogram {
+
+    /**
+     * Bits of precision kept for each power of two.
+     */
+    private static final int SUB_BITS = 5;
+
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_COUNT = SUB_COUNT / 2;
+
+    /**
+     * Largest value recorded exactly, about 19 hours; longer latencies are clamped.
+     */
+    private static final long MAX_MICROS = (1L << 36) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(MAX_MICROS) + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos The latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.min(MAX_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        counts.incrementAndGet(index(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return The count
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Gets the mean of the recorded latencies.
+     *
+     * @return The mean in milliseconds, or 0 if nothing was recorded
+     */
+    public double getMeanMillis() {
+        long n = count.get();
+        return n == 0 ? 0 : totalMicros.get() / 1000.0 / n;
+    }
+
+    /**
+     * Gets the largest recorded latency.
+     *
+     * @return The maximum in milliseconds
+     */
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Gets a percentile of the recorded latencies.
+     * The value returned is the upper bound of the bucket the percentile falls in,
+     * never more than the maximum recorded.
+     *
+     * @param fraction The percentile between 0 and 1
+     * @return The latency in milliseconds, or 0 if nothing was recorded
+     */
+    public double getPercentileMillis(double fraction) {
+        long total = 0;
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, fraction)) * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Finds the bucket of a value.
+     *
+     * @param micros The value in microseconds
+     * @return The bucket index
+     */
+    private static int index(long micros) {
+        if (micros < SUB_COUNT) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - (SUB_BITS - 1);
+        return SUB_COUNT + (shift - 1) * HALF_COUNT + (int) (micros >>> shift) - HALF_COUNT;
+    }
+
+    /**
+     * Gets the largest value that falls in a bucket.
+     *
+     * @param index The bucket index
+     * @return The value in microseconds
+     */
+    private static long highestEquivalent(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_COUNT) / HALF_COUNT + 1;
+        long sub = (index - SUB_COUNT) % HALF_COUNT + HALF_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+}
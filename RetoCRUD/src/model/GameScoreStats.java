@@ -0,0 +1,155 @@
+package model;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import javax.persistence.*;
+
+/**
+ * Entity class holding the review statistics of a video game: the number of
+ * reviews, the sum of their scores and how many reviews gave each score.
+ * The DAO updates the row in the same transaction that saves or deletes a
+ * review, so the statistics are read without grouping the review table.
+ *
+ * @author ema
+ */
+@Entity
+@Table(name = "game_score_stats")
+public class GameScoreStats implements Serializable {
+
+    /**
+     * Highest score a review can give; the lowest is 0.
+     */
+    public static final int MAX_SCORE = 10;
+
+    /**
+     * ID of the video game the statistics belong to.
+     */
+    @Id
+    @Column(name = "v_id", nullable = false)
+    private int gameId;
+
+    /**
+     * Number of reviews of the game.
+     */
+    @Column(name = "review_count", nullable = false)
+    private int reviewCount;
+
+    /**
+     * Sum of the scores of the reviews of the game.
+     */
+    @Column(name = "score_sum", nullable = false)
+    private long scoreSum;
+
+    /**
+     * Number of reviews of the game by score.
+     * Stored in its own table, one row per game and score given.
+     */
+    @ElementCollection
+    @CollectionTable(name = "game_score_histogram", joinColumns = @JoinColumn(name = "v_id"))
+    @MapKeyColumn(name = "score")
+    @Column(name = "review_count", nullable = false)
+    private Map<Integer, Integer> histogram = new HashMap<>();
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public GameScoreStats() {}
+
+    /**
+     * Constructs the statistics of a game without reviews.
+     *
+     * @param gameId The ID of the video game
+     */
+    public GameScoreStats(int gameId) {
+        this.gameId = gameId;
+    }
+
+    /**
+     * Gets the ID of the video game.
+     *
+     * @return The video game ID
+     */
+    public int getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Gets the number of reviews of the game.
+     *
+     * @return The review count
+     */
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    /**
+     * Gets the sum of the scores of the reviews of the game.
+     *
+     * @return The score sum
+     */
+    public long getScoreSum() {
+        return scoreSum;
+    }
+
+    /**
+     * Gets the average score of the game.
+     *
+     * @return The average score, or 0 if the game has no reviews
+     */
+    public double getAverage() {
+        return reviewCount == 0 ? 0 : (double) scoreSum / reviewCount;
+    }
+
+    /**
+     * Gets the number of reviews that gave a score.
+     *
+     * @param score The score, from 0 to MAX_SCORE
+     * @return The number of reviews with that score
+     */
+    public int getCount(int score) {
+        Integer count = histogram.get(score);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Gets the number of reviews of every score.
+     *
+     * @return An array indexed by score, from 0 to MAX_SCORE
+     */
+    public int[] getHistogram() {
+        int[] counts = new int[MAX_SCORE + 1];
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            counts[score] = getCount(score);
+        }
+        return counts;
+    }
+
+    /**
+     * Describes the scores given, highest first, as "score: count" pairs.
+     *
+     * @return The scores with at least one review, or an empty string if there are none
+     */
+    public String getHistogramText() {
+        StringBuilder text = new StringBuilder();
+        for (int score = MAX_SCORE; score >= 0; score--) {
+            int count = getCount(score);
+            if (count > 0) {
+                text.append(text.length() == 0 ? "" : ", ").append(score).append(": ").append(count);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Adds reviews with a score to the statistics, or removes them with a negative count.
+     *
+     * @param score The score of the reviews
+     * @param count The number of reviews added, negative to remove them
+     */
+    public void add(int score, int count) {
+        reviewCount += count;
+        scoreSum += (long) score * count;
+        histogram.merge(score, count, Integer::sum);
+    }
+}
@@ -1,28 +1,32 @@
 package model;
 
 import java.io.Serializable;
+import java.util.Objects;
 import javax.persistence.*;
 
 /**
- * Entity class representing the relationship between a Profile, a VideoGame, and a list.
- * This class implements a many-to-many relationship with an additional attribute (listName).
+ * Entity class representing a video game in a UserList.
+ * Each row links one list to one game; the owner and the name of the list
+ * live in the UserList, so renaming a list does not touch these rows.
  * It uses a composite primary key defined by the ListedId class.
  *
  * @author ema
  */
 @Entity
-@Table(name = "listed")
+@Table(name = "list_entry", indexes = {
+    @Index(name = "idx_list_entry_game", columnList = "videogame_id, list_id")
+})
 @IdClass(ListedId.class)
 public class Listed implements Serializable {
 
     /**
-     * Composite key part: The profile associated with this listing.
-     * Maps to the 'username' column in the database.
+     * Composite key part: The list the video game is in.
+     * Maps to the 'list_id' column in the database.
      */
     @Id
     @ManyToOne
-    @JoinColumn(name = "username")
-    private Profile profile;
+    @JoinColumn(name = "list_id")
+    private UserList userList;
 
     /**
      * Composite key part: The video game associated with this listing.
@@ -33,14 +37,6 @@ public class Listed implements Serializable {
     @JoinColumn(name = "videogame_id")
     private VideoGame videogame;
 
-    /**
-     * Composite key part: The name of the list where the video game is added.
-     * Maps to the 'list_name' column in the database.
-     */
-    @Id
-    @Column(name = "list_name")
-    private String listName;
-
     /**
      * Default constructor required by JPA.
      * Creates an empty Listed instance.
@@ -51,32 +47,51 @@ public class Listed implements Serializable {
     /**
      * Constructs a new Listed with the specified parameters.
      *
+     * @param userList The list the video game is in
+     * @param videogame The video game in the list
+     */
+    public Listed(UserList userList, VideoGame videogame) {
+        this.userList = userList;
+        this.videogame = videogame;
+    }
+
+    /**
+     * Constructs a new Listed in a new, unsaved list of the given profile.
+     * Used by the in-memory lists of Profile.
+     *
      * @param profile The profile associated with this listing
      * @param videogame The video game associated with this listing
      * @param listName The name of the list where the video game is added
      */
     public Listed(Profile profile, VideoGame videogame, String listName) {
-        this.profile = profile;
-        this.videogame = videogame;
-        this.listName = listName;
+        this(new UserList(profile, listName), videogame);
     }
 
     /**
-     * Gets the profile associated with this listing.
+     * Gets the list the video game is in.
      *
-     * @return The Profile object
+     * @return The UserList object
      */
-    public Profile getProfile() {
-        return profile;
+    public UserList getUserList() {
+        return userList;
     }
 
     /**
-     * Sets the profile associated with this listing.
+     * Sets the list the video game is in.
      *
-     * @param profile The new Profile object
+     * @param userList The new UserList object
      */
-    public void setProfile(Profile profile) {
-        this.profile = profile;
+    public void setUserList(UserList userList) {
+        this.userList = userList;
+    }
+
+    /**
+     * Gets the profile that owns the list.
+     *
+     * @return The Profile object, or null if there is no list
+     */
+    public Profile getProfile() {
+        return userList == null ? null : userList.getProfile();
     }
 
     /**
@@ -100,10 +115,10 @@ public class Listed implements Serializable {
     /**
      * Gets the name of the list where the video game is added.
      *
-     * @return The list name as a String
+     * @return The list name as a String, or null if there is no list
      */
     public String getListName() {
-        return listName;
+        return userList == null ? null : userList.getListName();
     }
 
     /**
@@ -112,6 +127,55 @@ public class Listed implements Serializable {
      * @param listName The new list name
      */
     public void setListName(String listName) {
-        this.listName = listName;
+        userList.setListName(listName);
+    }
+
+    /**
+     * Compares this Listed with another object for equality.
+     * Two Listed objects are equal if they have the same profile username,
+     * videogame ID and list name, so lists that are not saved yet compare
+     * the same way as saved ones.
+     *
+     * @param o The object to compare with
+     * @return true if the objects are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Listed)) return false;
+        Listed that = (Listed) o;
+        return gameId() == that.gameId()
+                && Objects.equals(username(), that.username())
+                && Objects.equals(getListName(), that.getListName());
+    }
+
+    /**
+     * Returns a hash code value for this Listed object.
+     * The hash code is computed based on the profile username, videogame ID, and list name.
+     *
+     * @return A hash code value for this object
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(username(), gameId(), getListName());
+    }
+
+    /**
+     * Gets the username of the profile, or null if there is no profile.
+     *
+     * @return The username
+     */
+    private String username() {
+        Profile profile = getProfile();
+        return profile == null ? null : profile.getUsername();
+    }
+
+    /**
+     * Gets the ID of the video game, or 0 if there is no video game.
+     *
+     * @return The videogame ID
+     */
+    private int gameId() {
+        return videogame == null ? 0 : videogame.getV_id();
     }
 }
\ No newline at end of file
@@ -5,7 +5,7 @@ import java.util.Objects;
 
 /**
  * Composite primary key class for the Listed entity.
- * This class represents the composite key consisting of videogame ID, profile username, and list name.
+ * This class represents the composite key consisting of list ID and videogame ID.
  * It implements Serializable for JPA compatibility and overrides equals() and hashCode() methods
  * for proper comparison and hashing in collections.
  *
@@ -14,22 +14,16 @@ import java.util.Objects;
 public class ListedId implements Serializable
 {
     /**
-     * The ID of the video game in the listing.
-     * Corresponds to the videogame_id field in the Listed entity.
+     * The ID of the list in the listing.
+     * Corresponds to the list_id field in the Listed entity.
      */
-    private int videogame;
+    private int userList;
     
     /**
-     * The username of the profile in the listing.
-     * Corresponds to the username field in the Listed entity.
-     */
-    private String profile;
-    
-    /**
-     * The name of the list in the listing.
-     * Corresponds to the list_name field in the Listed entity.
+     * The ID of the video game in the listing.
+     * Corresponds to the videogame_id field in the Listed entity.
      */
-    private String listName;
+    private int videogame;
 
     /**
      * Default constructor required by JPA.
@@ -40,21 +34,18 @@ public class ListedId implements Serializable
     /**
      * Constructs a new ListedId with the specified composite key values.
      *
+     * @param userList The ID of the list
      * @param videogame The ID of the video game
-     * @param profile The username of the profile
-     * @param listName The name of the list
      */
-    public ListedId(int videogame, String profile, String listName)
+    public ListedId(int userList, int videogame)
     {
+        this.userList = userList;
         this.videogame = videogame;
-        this.profile = profile;
-        this.listName = listName;
     }
 
     /**
      * Compares this ListedId with another object for equality.
-     * Two ListedId objects are equal if they have the same videogame ID,
-     * profile username, and list name.
+     * Two ListedId objects are equal if they have the same list ID and videogame ID.
      *
      * @param o The object to compare with
      * @return true if the objects are equal, false otherwise
@@ -65,20 +56,19 @@ public class ListedId implements Serializable
         if (this == o) return true;
         if (!(o instanceof ListedId)) return false;
         ListedId that = (ListedId) o;
-        return videogame == that.videogame &&
-               profile.equals(that.profile) &&
-               listName.equals(that.listName);
+        return userList == that.userList &&
+               videogame == that.videogame;
     }
 
     /**
      * Returns a hash code value for this ListedId object.
-     * The hash code is computed based on the profile username, videogame ID, and list name.
+     * The hash code is computed based on the list ID and videogame ID.
      *
      * @return A hash code value for this object
      */
     @Override
     public int hashCode()
     {
-        return Objects.hash(profile, videogame, listName);
+        return Objects.hash(userList, videogame);
     }
 }
\ No newline at end of file
@@ -28,8 +28,9 @@ public abstract class Profile implements Serializable {
 
     /**
      * User's password for authentication.
+     * Stored as a salted PBKDF2 hash, see dao.PasswordHasher.
      */
-    @Column(name = "password_", length = 40)
+    @Column(name = "password_", length = 128)
     private String password;
 
     /**
@@ -59,11 +60,35 @@ public abstract class Profile implements Serializable {
     private String surname;
 
     /**
-     * Set of listed games associated with this profile.
-     * Uses eager fetching to load the collection with the profile.
+     * Change counter of the lists of this profile.
+     * Raised by the DAO on every list change, so a client can tell whether its
+     * copy of the lists is still current with a single-column read. Never written
+     * from the entity.
      */
-    @OneToMany(mappedBy = "profile", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
-    private Set<Listed> listedGames = new HashSet<>();
+    @Column(name = "library_version", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT DEFAULT 0")
+    private long libraryVersion;
+
+    /**
+     * Lists owned by this profile.
+     * Only mapped so the lists and their games are removed with the profile.
+     */
+    @OneToMany(mappedBy = "profile", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    private Set<UserList> userLists = new HashSet<>();
+
+    /**
+     * Membership of every list of this profile, by list name.
+     * Each BitSet has the bit of a videogame ID set when the game is in the list.
+     * Kept in memory by the windows; the DAO reads and writes lists by name.
+     */
+    @Transient
+    private Map<String, BitSet> listMembership = new HashMap<>();
+
+    /**
+     * The games of the lists of this profile, by videogame ID.
+     */
+    @Transient
+    private Map<Integer, VideoGame> gamesById = new HashMap<>();
 
     /**
      * Default constructor required by JPA.
@@ -209,21 +234,55 @@ public abstract class Profile implements Serializable {
     }
 
     /**
-     * Gets the set of listed games associated with this profile.
+     * Gets the change counter of the lists of this profile, as it was when the profile was loaded.
+     *
+     * @return The library version
+     */
+    public long getLibraryVersion() {
+        return libraryVersion;
+    }
+
+    /**
+     * Gets the games of every list of this profile as Listed objects.
+     * The set is built from the membership index on every call and is read-only;
+     * lists are changed through addGame, removeGame, setListGames, renameList and removeList.
      *
      * @return Set of Listed objects
      */
     public Set<Listed> getListedGames() {
-        return listedGames;
+        Set<Listed> listed = new HashSet<>();
+        for (Map.Entry<String, BitSet> list : listMembership.entrySet()) {
+            BitSet ids = list.getValue();
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                listed.add(new Listed(this, gamesById.get(id), list.getKey()));
+            }
+        }
+        return Collections.unmodifiableSet(listed);
     }
 
     /**
-     * Sets the set of listed games associated with this profile.
+     * Replaces every list of this profile with the given listed games.
      *
      * @param listedGames The new set of Listed objects
      */
     public void setListedGames(Set<Listed> listedGames) {
-        this.listedGames = listedGames;
+        listMembership.clear();
+        gamesById.clear();
+        for (Listed listed : listedGames) {
+            addGame(listed.getListName(), listed.getVideogame());
+        }
+    }
+
+    /**
+     * Checks if a game is in a specific list of this profile.
+     *
+     * @param listName The name of the list
+     * @param gameId The ID of the video game
+     * @return true if the game is in the list
+     */
+    public boolean hasGame(String listName, int gameId) {
+        BitSet games = listMembership.get(listName);
+        return games != null && gameId >= 0 && games.get(gameId);
     }
 
     /**
@@ -234,21 +293,37 @@ public abstract class Profile implements Serializable {
      * @return true if the rename operation was successful, false otherwise
      */
     public boolean renameList(String oldName, String newName) {
-        HashMap<String, ArrayList<VideoGame>> memLists = null;
-        if (!memLists.containsKey(oldName) || memLists.containsKey(newName)) {
+        if (!listMembership.containsKey(oldName) || listMembership.containsKey(newName)) {
             return false;
         }
+        listMembership.put(newName, listMembership.remove(oldName));
+        return true;
+    }
 
-        ArrayList<VideoGame> games = memLists.remove(oldName);
-        memLists.put(newName, games);
+    /**
+     * Removes a whole list from this profile.
+     *
+     * @param listName The name of the list to remove
+     * @return true if the list existed, false otherwise
+     */
+    public boolean removeList(String listName) {
+        return listMembership.remove(listName) != null;
+    }
 
-        for (Listed listed : listedGames) {
-            if (listed.getListName().equals(oldName)) {
-                listed.setListName(newName);
-            }
+    /**
+     * Replaces the games of a specific list for this profile, for example
+     * with the games just read from the database.
+     *
+     * @param listName The name of the list
+     * @param games The games that are in the list
+     */
+    public void setListGames(String listName, Collection<VideoGame> games) {
+        BitSet ids = new BitSet();
+        for (VideoGame game : games) {
+            ids.set(game.getV_id());
+            gamesById.put(game.getV_id(), game);
         }
-
-        return true;
+        listMembership.put(listName, ids);
     }
 
     /**
@@ -259,27 +334,43 @@ public abstract class Profile implements Serializable {
      * @return true if the game was added successfully, false if it already exists in the list
      */
     public boolean addGame(String listName, VideoGame game) {
-        for (Listed l : listedGames) {
-            if (l.getListName().equals(listName) && l.getVideogame().getV_id() == game.getV_id()) {
-                return false;
-            }
+        BitSet ids = listMembership.computeIfAbsent(listName, k -> new BitSet());
+        if (ids.get(game.getV_id())) {
+            return false;
         }
-        listedGames.add(new Listed(this, game, listName));
-
+        ids.set(game.getV_id());
+        gamesById.put(game.getV_id(), game);
         return true;
     }
 
     /**
      * Removes a game from a specific list for this profile.
+     * The game stays in the games by ID, as other lists may still hold it.
      *
      * @param listName The name of the list to remove the game from
      * @param game The VideoGame to remove
      * @return true if the game was removed successfully, false otherwise
      */
     public boolean removeGame(String listName, VideoGame game) {
-        boolean removed = listedGames.removeIf(l -> l.getListName().equals(listName) && l.getVideogame().getV_id() == game.getV_id());
+        if (!hasGame(listName, game.getV_id())) {
+            return false;
+        }
+        listMembership.get(listName).clear(game.getV_id());
+        return true;
+    }
 
-        return removed;
+    /**
+     * Builds the membership BitSet of a collection of games.
+     *
+     * @param games The games
+     * @return A BitSet with the bit of every videogame ID set
+     */
+    public static BitSet gameIds(Collection<VideoGame> games) {
+        BitSet ids = new BitSet();
+        for (VideoGame game : games) {
+            ids.set(game.getV_id());
+        }
+        return ids;
     }
 
     /**
@@ -12,7 +12,10 @@ import javax.persistence.*;
  * @author ema
  */
 @Entity
-@Table(name = "review")
+@Table(name = "review", indexes = {
+    @Index(name = "idx_review_game_date", columnList = "v_id, review_date"),
+    @Index(name = "idx_review_date", columnList = "review_date, r_id")
+})
 @IdClass(ReviewId.class)
 public class Review implements Serializable {
     
@@ -26,6 +26,11 @@ public class SelectableVideoGame
      */
     private final BooleanProperty selected;
 
+    /**
+     * Review statistics of the game, or null if it has no reviews.
+     */
+    private GameScoreStats scoreStats;
+
     /**
      * Constructs a new SelectableVideoGame with the specified video game
      * and initial selection state.
@@ -134,4 +139,44 @@ public class SelectableVideoGame
     {
         return videoGame.getV_pegi();
     }
+
+    /**
+     * Gets the review statistics of the video game.
+     *
+     * @return The statistics, or null if the game has no reviews
+     */
+    public GameScoreStats getScoreStats()
+    {
+        return scoreStats;
+    }
+
+    /**
+     * Sets the review statistics of the video game.
+     *
+     * @param scoreStats The statistics, or null if the game has no reviews
+     */
+    public void setScoreStats(GameScoreStats scoreStats)
+    {
+        this.scoreStats = scoreStats;
+    }
+
+    /**
+     * Gets the average review score of the video game.
+     *
+     * @return The average score, or null if the game has no reviews
+     */
+    public Double getRating()
+    {
+        return scoreStats == null || scoreStats.getReviewCount() == 0 ? null : scoreStats.getAverage();
+    }
+
+    /**
+     * Gets the number of reviews of the video game.
+     *
+     * @return The review count
+     */
+    public int getReviewCount()
+    {
+        return scoreStats == null ? 0 : scoreStats.getReviewCount();
+    }
 }
\ No newline at end of file
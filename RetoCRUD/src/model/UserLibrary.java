@@ -0,0 +1,239 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Snapshot of the lists of a user and the games in each of them, together with
+ * the change counter of the profile it was read at. The windows read the lists
+ * from the snapshot instead of the database, and the controller applies the
+ * changes it makes itself, so the snapshot only has to be read again when the
+ * stored counter moves past it. Each change applied carries the counter the
+ * database returned for it, and the snapshot only takes it when it is the next
+ * one, so a change the database did not count, or one made elsewhere in between,
+ * leaves the snapshot behind the stored counter and due for a check. List names are compared ignoring case, as the
+ * database does. All methods are synchronized, since the snapshot is read from
+ * the JavaFX thread and the DAO workers.
+ *
+ * @author ema
+ */
+public class UserLibrary {
+
+    private final String username;
+    private final Map<String, Map<Integer, VideoGame>> lists = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private long version;
+    private long checkedAt;
+
+    /**
+     * Constructs a new, empty UserLibrary.
+     *
+     * @param username The username of the owner
+     * @param version The change counter of the owner when the lists were read
+     */
+    public UserLibrary(String username, long version) {
+        this.username = username;
+        this.version = version;
+        this.checkedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the username of the owner.
+     *
+     * @return The username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the change counter the snapshot is up to date with.
+     *
+     * @return The library version
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Records that the snapshot was found current at the given time.
+     *
+     * @param now The time of the check, in milliseconds
+     */
+    public synchronized void checked(long now) {
+        checkedAt = now;
+    }
+
+    /**
+     * Checks whether the snapshot should be compared with the stored counter again.
+     *
+     * @param now The current time, in milliseconds
+     * @param ttlMillis The time a check stays valid, in milliseconds
+     * @return true if the last check is older than the time to live
+     */
+    public synchronized boolean isCheckDue(long now, long ttlMillis) {
+        return now - checkedAt >= ttlMillis;
+    }
+
+    /**
+     * Gets the names of the lists, ordered by name.
+     *
+     * @return A copy of the list names
+     */
+    public synchronized ArrayList<String> getListNames() {
+        return new ArrayList<>(lists.keySet());
+    }
+
+    /**
+     * Checks whether the user has a list with the given name.
+     *
+     * @param listName The name of the list
+     * @return true if the list exists
+     */
+    public synchronized boolean hasList(String listName) {
+        return lists.containsKey(listName);
+    }
+
+    /**
+     * Gets the games of a list.
+     *
+     * @param listName The name of the list
+     * @return A copy of the games of the list, empty if the list does not exist
+     */
+    public synchronized ArrayList<VideoGame> getGames(String listName) {
+        Map<Integer, VideoGame> games = lists.get(listName);
+        return games == null ? new ArrayList<>() : new ArrayList<>(games.values());
+    }
+
+    /**
+     * Checks whether a game is in a list.
+     *
+     * @param listName The name of the list
+     * @param gameId The ID of the game
+     * @return true if the game is in the list
+     */
+    public synchronized boolean hasGame(String listName, int gameId) {
+        Map<Integer, VideoGame> games = lists.get(listName);
+        return games != null && games.containsKey(gameId);
+    }
+
+    /**
+     * Adds a list, if it does not exist yet. Used while the snapshot is read.
+     *
+     * @param listName The name of the list
+     */
+    public synchronized void putList(String listName) {
+        lists.computeIfAbsent(listName, name -> new LinkedHashMap<>());
+    }
+
+    /**
+     * Adds a game to a list, creating the list if needed. Used while the snapshot is read.
+     *
+     * @param listName The name of the list
+     * @param game The game
+     */
+    public synchronized void putGame(String listName, VideoGame game) {
+        lists.computeIfAbsent(listName, name -> new LinkedHashMap<>()).put(game.getV_id(), game);
+    }
+
+    /**
+     * Applies a list created by the owner.
+     *
+     * @param listName The name of the new list
+     * @param version The library version the DAO returned for the change
+     */
+    public synchronized void listCreated(String listName, long version) {
+        putList(listName);
+        advance(version);
+    }
+
+    /**
+     * Applies a list deleted by the owner.
+     *
+     * @param listName The name of the deleted list
+     * @param version The library version the DAO returned for the change
+     */
+    public synchronized void listDeleted(String listName, long version) {
+        lists.remove(listName);
+        advance(version);
+    }
+
+    /**
+     * Applies a list renamed by the owner.
+     *
+     * @param listName The old name of the list
+     * @param listNewName The new name of the list
+     * @param version The library version the DAO returned for the change
+     */
+    public synchronized void listRenamed(String listName, String listNewName, long version) {
+        Map<Integer, VideoGame> games = lists.remove(listName);
+        if (games != null) {
+            lists.put(listNewName, games);
+        }
+        advance(version);
+    }
+
+    /**
+     * Applies games added to and removed from a list by the owner.
+     * Games removed from "My Games" are removed from every list, as the DAO does.
+     *
+     * @param listName The name of the list
+     * @param added The games added
+     * @param removed The games removed
+     * @param version The library version the DAO returned for the change
+     */
+    public synchronized void gamesChanged(String listName, Collection<VideoGame> added, Collection<VideoGame> removed, long version) {
+        for (VideoGame game : removed) {
+            removeGame(listName, game.getV_id());
+        }
+        for (VideoGame game : added) {
+            putGame(listName, game);
+        }
+        advance(version);
+    }
+
+    /**
+     * Applies a game removed from a list by the owner.
+     * A game removed from "My Games" is removed from every list, as the DAO does.
+     *
+     * @param listName The name of the list
+     * @param gameId The ID of the game removed
+     * @param version The library version the DAO returned for the change
+     */
+    public synchronized void gameRemoved(String listName, int gameId, long version) {
+        removeGame(listName, gameId);
+        advance(version);
+    }
+
+    /**
+     * Moves the snapshot to the library version returned for a change applied to it.
+     * If the version is not the next one, the database did not count the change or
+     * counted others as well, so the snapshot keeps its version and is checked on
+     * its next read.
+     *
+     * @param stored The library version the DAO returned for the change
+     */
+    private void advance(long stored) {
+        if (stored == version + 1) {
+            version = stored;
+        } else if (stored != version) {
+            checkedAt = 0;
+        }
+    }
+
+    /**
+     * Removes a game from a list, or from every list if the list is "My Games".
+     *
+     * @param listName The name of the list
+     * @param gameId The ID of the game
+     */
+    private void removeGame(String listName, int gameId) {
+        for (Map.Entry<String, Map<Integer, VideoGame>> list : lists.entrySet()) {
+            if ("My Games".equals(listName) || list.getKey().equalsIgnoreCase(listName)) {
+                list.getValue().remove(gameId);
+            }
+        }
+    }
+}
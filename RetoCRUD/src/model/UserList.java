@@ -0,0 +1,178 @@
+package model;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import javax.persistence.*;
+
+/**
+ * Entity class representing a named game list of a Profile.
+ * A list exists on its own, so an empty list is a single row, and renaming it
+ * changes one row no matter how many games it holds. The games of the list are
+ * the Listed rows that reference it.
+ *
+ * @author ema
+ */
+@Entity
+@Table(name = "user_list", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_user_list_name", columnNames = {"username", "list_name"})
+})
+public class UserList implements Serializable {
+
+    /**
+     * Surrogate key of the list.
+     * Maps to the 'list_id' column in the database.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "list_id")
+    private int listId;
+
+    /**
+     * The profile that owns the list.
+     * Maps to the 'username' column in the database.
+     */
+    @ManyToOne
+    @JoinColumn(name = "username", nullable = false)
+    private Profile profile;
+
+    /**
+     * The name of the list, unique per profile.
+     * Maps to the 'list_name' column in the database.
+     */
+    @Column(name = "list_name", nullable = false)
+    private String listName;
+
+    /**
+     * The games of the list.
+     * Removed together with the list.
+     */
+    @OneToMany(mappedBy = "userList", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    private Set<Listed> entries = new HashSet<>();
+
+    /**
+     * Default constructor required by JPA.
+     * Creates an empty UserList instance.
+     */
+    public UserList() {
+    }
+
+    /**
+     * Constructs a new UserList with the specified parameters.
+     *
+     * @param profile The profile that owns the list
+     * @param listName The name of the list
+     */
+    public UserList(Profile profile, String listName) {
+        this.profile = profile;
+        this.listName = listName;
+    }
+
+    /**
+     * Gets the ID of the list.
+     *
+     * @return The list ID, or 0 if the list is not saved yet
+     */
+    public int getListId() {
+        return listId;
+    }
+
+    /**
+     * Sets the ID of the list.
+     *
+     * @param listId The new list ID
+     */
+    public void setListId(int listId) {
+        this.listId = listId;
+    }
+
+    /**
+     * Gets the profile that owns the list.
+     *
+     * @return The Profile object
+     */
+    public Profile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Sets the profile that owns the list.
+     *
+     * @param profile The new Profile object
+     */
+    public void setProfile(Profile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Gets the name of the list.
+     *
+     * @return The list name
+     */
+    public String getListName() {
+        return listName;
+    }
+
+    /**
+     * Sets the name of the list.
+     *
+     * @param listName The new list name
+     */
+    public void setListName(String listName) {
+        this.listName = listName;
+    }
+
+    /**
+     * Gets the games of the list.
+     *
+     * @return Set of Listed objects
+     */
+    public Set<Listed> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Sets the games of the list.
+     *
+     * @param entries The new set of Listed objects
+     */
+    public void setEntries(Set<Listed> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Compares this UserList with another object for equality.
+     * Two lists are equal if they have the same owner username and name.
+     *
+     * @param o The object to compare with
+     * @return true if the objects are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserList)) return false;
+        UserList that = (UserList) o;
+        return Objects.equals(username(), that.username()) && Objects.equals(listName, that.listName);
+    }
+
+    /**
+     * Returns a hash code value for this UserList object.
+     * The hash code is computed based on the owner username and the list name.
+     *
+     * @return A hash code value for this object
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(username(), listName);
+    }
+
+    /**
+     * Gets the username of the owner, or null if there is no owner.
+     *
+     * @return The username
+     */
+    private String username() {
+        return profile == null ? null : profile.getUsername();
+    }
+}
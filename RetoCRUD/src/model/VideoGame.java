@@ -14,7 +14,9 @@ import javax.persistence.*;
  * @author ema
  */
 @Entity
-@Table(name = "videogame")
+@Table(name = "videogame", indexes = {
+    @Index(name = "idx_videogame_name", columnList = "v_name")
+})
 public class VideoGame implements Serializable {
 
     /**
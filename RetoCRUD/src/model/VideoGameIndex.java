@@ -0,0 +1,278 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prebuilt search index over a list of video games.
+ * Games are identified by their position in the list the index was built from,
+ * and every query returns a BitSet with the positions of the matching games.
+ * Names are indexed by their lowercase trigrams, platforms and PEGI ratings
+ * have one BitSet each, and release dates are kept sorted so date ranges are
+ * found with a binary search. The index is immutable; build a new one when
+ * the list changes.
+ *
+ * @author ema
+ */
+public class VideoGameIndex {
+
+    /**
+     * Length of the name fragments stored in the postings.
+     */
+    private static final int GRAM = 3;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final int size;
+    private final String[] names;
+    private final Map<String, int[]> postings;
+    private final EnumMap<Platform, BitSet> byPlatform = new EnumMap<>(Platform.class);
+    private final EnumMap<Pegi, BitSet> byPegi = new EnumMap<>(Pegi.class);
+    private final int[] byRelease;
+    private final LocalDate[] releases;
+    private final BitSet withoutRelease = new BitSet();
+
+    /**
+     * Builds the index of a list of video games.
+     *
+     * @param games The games to index, in the order their positions refer to
+     */
+    public VideoGameIndex(List<VideoGame> games) {
+        this.size = games.size();
+        this.names = new String[size];
+
+        Map<String, List<Integer>> grams = new HashMap<>();
+        List<Integer> dated = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            VideoGame game = games.get(i);
+            names[i] = normalize(game.getV_name());
+            for (int start = 0; start + GRAM <= names[i].length(); start++) {
+                List<Integer> posting = grams.computeIfAbsent(names[i].substring(start, start + GRAM), k -> new ArrayList<>());
+                if (posting.isEmpty() || posting.get(posting.size() - 1) != i) {
+                    posting.add(i);
+                }
+            }
+            if (game.getV_platform() != null) {
+                byPlatform.computeIfAbsent(game.getV_platform(), k -> new BitSet(size)).set(i);
+            }
+            if (game.getV_pegi() != null) {
+                byPegi.computeIfAbsent(game.getV_pegi(), k -> new BitSet(size)).set(i);
+            }
+            if (game.getV_release() == null) {
+                withoutRelease.set(i);
+            } else {
+                dated.add(i);
+            }
+        }
+
+        this.postings = new HashMap<>(grams.size() * 4 / 3 + 1);
+        for (Map.Entry<String, List<Integer>> entry : grams.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        dated.sort(Comparator.comparing(i -> games.get(i).getV_release()));
+        this.byRelease = dated.stream().mapToInt(Integer::intValue).toArray();
+        this.releases = new LocalDate[byRelease.length];
+        for (int i = 0; i < byRelease.length; i++) {
+            releases[i] = games.get(byRelease[i]).getV_release();
+        }
+    }
+
+    /**
+     * Gets the number of indexed games.
+     *
+     * @return The size of the list the index was built from
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the games that match every given filter.
+     * Empty or null filters do not restrict the result.
+     *
+     * @param text Text that must appear in the name, ignoring case
+     * @param platforms Platforms accepted
+     * @param pegis PEGI ratings accepted
+     * @param from First release date accepted
+     * @param to Last release date accepted
+     * @return The positions of the matching games
+     */
+    public BitSet search(String text, Collection<Platform> platforms, Collection<Pegi> pegis, LocalDate from, LocalDate to) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        if (platforms != null && !platforms.isEmpty()) {
+            result.and(union(byPlatform, platforms));
+        }
+        if (pegis != null && !pegis.isEmpty()) {
+            result.and(union(byPegi, pegis));
+        }
+        if (from != null || to != null) {
+            result.and(releasedBetween(from, to));
+        }
+        if (text != null && !text.trim().isEmpty()) {
+            result = matchName(normalize(text), result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the games whose name contains a text, ignoring case.
+     *
+     * @param text The text to look for
+     * @return The positions of the matching games
+     */
+    public BitSet nameContains(String text) {
+        BitSet all = new BitSet(size);
+        all.set(0, size);
+        return matchName(normalize(text), all);
+    }
+
+    /**
+     * Finds the games of a set whose name contains a normalized query.
+     * Queries of at least three characters are looked up in the trigram postings,
+     * starting from the shortest one, and only the candidates that are in the set
+     * are confirmed against the name. Shorter queries are matched against the
+     * lowercase names of the set directly.
+     *
+     * @param query The trimmed, lowercase text to look for
+     * @param within The positions that can match
+     * @return The positions of the matching games
+     */
+    private BitSet matchName(String query, BitSet within) {
+        if (query.isEmpty()) {
+            return (BitSet) within.clone();
+        }
+        BitSet result = new BitSet(size);
+        if (query.length() < GRAM) {
+            for (int i = within.nextSetBit(0); i >= 0; i = within.nextSetBit(i + 1)) {
+                if (names[i].contains(query)) {
+                    result.set(i);
+                }
+            }
+            return result;
+        }
+
+        int[] candidates = null;
+        for (int start = 0; start + GRAM <= query.length(); start++) {
+            int[] posting = postings.getOrDefault(query.substring(start, start + GRAM), EMPTY);
+            if (candidates == null || posting.length < candidates.length) {
+                candidates = posting;
+            }
+        }
+        for (int i : candidates) {
+            if (within.get(i) && names[i].contains(query)) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the games released between two dates, both included.
+     * Games without a release date always match, as they did in the main menu filter.
+     *
+     * @param from First release date accepted, or null for no lower bound
+     * @param to Last release date accepted, or null for no upper bound
+     * @return The positions of the matching games
+     */
+    public BitSet releasedBetween(LocalDate from, LocalDate to) {
+        BitSet result = (BitSet) withoutRelease.clone();
+        int start = from == null ? 0 : firstNotBefore(from);
+        int end = to == null ? releases.length : firstAfter(to);
+        for (int i = start; i < end; i++) {
+            result.set(byRelease[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the positions of a BitSet as items of a list.
+     *
+     * @param <T> The type of the items
+     * @param items The list the index was built from, or one in the same order
+     * @param positions The positions to take
+     * @return The items at those positions, in list order
+     */
+    public static <T> List<T> select(List<T> items, BitSet positions) {
+        List<T> selected = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0 && i < items.size(); i = positions.nextSetBit(i + 1)) {
+            selected.add(items.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Joins the BitSets of several enum values.
+     *
+     * @param <E> The enum type
+     * @param sets The BitSet of each value
+     * @param values The values to join
+     * @return The union of their BitSets
+     */
+    private static <E extends Enum<E>> BitSet union(EnumMap<E, BitSet> sets, Collection<E> values) {
+        BitSet result = new BitSet();
+        for (E value : values) {
+            result.or(sets.getOrDefault(value, new BitSet()));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the first sorted release date that is not before a date.
+     *
+     * @param date The date
+     * @return The position in the sorted release dates
+     */
+    private int firstNotBefore(LocalDate date) {
+        int low = 0;
+        int high = releases.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (releases[mid].isBefore(date)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first sorted release date that is after a date.
+     *
+     * @param date The date
+     * @return The position in the sorted release dates
+     */
+    private int firstAfter(LocalDate date) {
+        int low = 0;
+        int high = releases.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (releases[mid].isAfter(date)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Normalizes a name or query for matching.
+     *
+     * @param text The text to normalize
+     * @return The trimmed, lowercase text
+     */
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
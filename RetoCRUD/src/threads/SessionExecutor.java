@@ -0,0 +1,485 @@
+package threads;
+
+import dao.HibernateUtil;
+import exception.ErrorMessages;
+import exception.OurException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import metrics.LatencyHistogram;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.exception.JDBCConnectionException;
+
+/**
+ * Bounded pool of worker threads that runs DAO work units.
+ * Each work unit gets its own Hibernate session and transaction, and the session
+ * (together with its pooled connection) is closed as soon as the unit finishes.
+ * The number of workers and the size of the waiting queue are read from the
+ * config file, so the pool never asks Hikari for more connections than it has.
+ * It is also an Executor, so asynchronous DAO calls can be run on the same
+ * workers; a DAO call made from a worker runs inline on that worker.
+ * The caller is handed the result through the Future of its unit, and a unit that
+ * cannot get a connection within the Hikari connection timeout fails straight
+ * away with CONNECTION_POOL_FULL. Accepted units are tracked by a
+ * {@link WorkUnitRegistry} until they finish, which gives the live counts and
+ * the units left over when the executor is shut down.
+ *
+ * @author ema
+ */
+public class SessionExecutor implements Executor
+{
+    /**
+     * Marks the threads owned by an executor, so nested work runs inline instead of
+     * waiting for a free worker that may never come.
+     */
+    private static final ThreadLocal<SessionExecutor> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The worker pool that runs the work units.
+     */
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * The work units accepted and not finished yet.
+     */
+    private final WorkUnitRegistry units;
+
+    /**
+     * Number of work units currently holding a session.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Number of work units refused because the queue was full.
+     */
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Number of work units that timed out waiting for a pooled connection.
+     */
+    private final AtomicLong poolTimeouts = new AtomicLong();
+
+    /**
+     * Time work units wait in the queue for a free worker.
+     */
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    /**
+     * Time work units wait for Hikari to hand them a connection.
+     */
+    private final LatencyHistogram connectionWait = new LatencyHistogram();
+
+    /**
+     * Constructs a new SessionExecutor.
+     * Reads the number of workers and the queue capacity from the config file,
+     * defaulting to 8 workers and 100 queued work units if they cannot be read.
+     */
+    public SessionExecutor()
+    {
+        int workers;
+        int queueCapacity;
+        try
+        {
+            ResourceBundle configFile = ResourceBundle.getBundle("config.configClass");
+            workers = Integer.parseInt(configFile.getString("WORKERS"));
+            queueCapacity = Integer.parseInt(configFile.getString("QUEUECAPACITY"));
+        }
+        catch (Exception e)
+        {
+            workers = 8;
+            queueCapacity = 100;
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory factory = (Runnable task) ->
+        {
+            Thread thread = new Thread(() ->
+            {
+                CURRENT.set(this);
+                task.run();
+            }, "session-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        units = new WorkUnitRegistry(workers + queueCapacity);
+        pool = new ThreadPoolExecutor(workers, workers, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory);
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs a work unit on a worker thread and waits for its result.
+     * If the caller is already a worker of this executor the unit runs inline.
+     *
+     * @param <T> The type of the value produced by the work unit
+     * @param work The work unit to run
+     * @param errorMessage The message of the OurException thrown when the work fails
+     * @return The result of the work unit
+     * @throws OurException If the work fails, CONNECTION_POOL_FULL if the queue is full or no
+     * connection was free in time, or SESSION_TIMEOUT if the database cannot be reached
+     */
+    public <T> T execute(SessionWork<T> work, String errorMessage) throws OurException
+    {
+        if (CURRENT.get() == this)
+        {
+            try
+            {
+                return runInSession(work);
+            }
+            catch (Exception ex)
+            {
+                throw translate(ex, errorMessage);
+            }
+        }
+
+        WorkUnitRegistry.WorkUnit unit = units.register();
+        if (unit == null)
+        {
+            rejected.incrementAndGet();
+            throw new OurException(ErrorMessages.CONNECTION_POOL_FULL);
+        }
+
+        Future<T> future;
+        try
+        {
+            long submitted = System.nanoTime();
+            future = pool.submit(() ->
+            {
+                units.start(unit);
+                try
+                {
+                    queueWait.record(System.nanoTime() - submitted);
+                    return runInSession(work);
+                }
+                finally
+                {
+                    units.complete(unit);
+                }
+            });
+        }
+        catch (RejectedExecutionException ex)
+        {
+            units.complete(unit);
+            rejected.incrementAndGet();
+            throw new OurException(ErrorMessages.CONNECTION_POOL_FULL);
+        }
+
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException ex)
+        {
+            if (future.cancel(true) && !unit.isStarted())
+            {
+                units.complete(unit);
+            }
+            Thread.currentThread().interrupt();
+            throw new OurException(errorMessage);
+        }
+        catch (CancellationException ex)
+        {
+            throw new OurException(errorMessage);
+        }
+        catch (ExecutionException ex)
+        {
+            throw translate(ex.getCause(), errorMessage);
+        }
+    }
+
+    /**
+     * Runs a task on a worker thread without waiting for it.
+     *
+     * @param task The task to run
+     * @throws RejectedExecutionException If the queue is full or the executor is shut down
+     */
+    @Override
+    public void execute(Runnable task)
+    {
+        WorkUnitRegistry.WorkUnit unit = units.register();
+        if (unit == null)
+        {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Too many work units");
+        }
+        try
+        {
+            pool.execute(() ->
+            {
+                units.start(unit);
+                try
+                {
+                    task.run();
+                }
+                finally
+                {
+                    units.complete(unit);
+                }
+            });
+        }
+        catch (RejectedExecutionException ex)
+        {
+            units.complete(unit);
+            rejected.incrementAndGet();
+            throw ex;
+        }
+    }
+
+    /**
+     * Opens a session, runs the work unit inside a transaction and closes the session.
+     * The transaction is committed if the work succeeds and rolled back otherwise.
+     *
+     * @param <T> The type of the value produced by the work unit
+     * @param work The work unit to run
+     * @return The result of the work unit
+     * @throws Exception If the work unit or the commit fails
+     */
+    private <T> T runInSession(SessionWork<T> work) throws Exception
+    {
+        inFlight.incrementAndGet();
+        Session session = null;
+        try
+        {
+            long acquiring = System.nanoTime();
+            session = HibernateUtil.getSession();
+            session.beginTransaction();
+            connectionWait.record(System.nanoTime() - acquiring);
+
+            T result = work.execute(session);
+
+            session.getTransaction().commit();
+            return result;
+        }
+        catch (Exception e)
+        {
+            if (session != null && session.getTransaction() != null && session.getTransaction().isActive())
+            {
+                try
+                {
+                    session.getTransaction().rollback();
+                }
+                catch (Exception rollbackEx) {}
+            }
+            throw e;
+        }
+        finally
+        {
+            if (session != null && session.isOpen())
+            {
+                try
+                {
+                    session.close();
+                }
+                catch (HibernateException ex)
+                {
+                    Logger.getLogger(SessionExecutor.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Finds the exception Hikari throws when no connection could be handed out in time.
+     * Hikari attaches the last failure to open a connection as its cause, so a timeout
+     * without a cause means every connection was busy rather than the database being down.
+     *
+     * @param cause The exception thrown by the work unit
+     * @return The Hikari timeout among the causes, or null if there is none
+     */
+    private static SQLTransientConnectionException poolTimeout(Throwable cause)
+    {
+        for (Throwable t = cause; t != null; t = t.getCause())
+        {
+            if (t instanceof SQLTransientConnectionException)
+            {
+                return (SQLTransientConnectionException) t;
+            }
+            if (t.getCause() == t)
+            {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converts the failure of a work unit into the OurException reported to the caller.
+     *
+     * @param cause The exception thrown by the work unit
+     * @param errorMessage The message to use for unexpected failures
+     * @return The OurException to throw
+     */
+    private OurException translate(Throwable cause, String errorMessage)
+    {
+        if (cause instanceof OurException)
+        {
+            return (OurException) cause;
+        }
+        SQLTransientConnectionException timeout = poolTimeout(cause);
+        if (timeout != null && timeout.getCause() == null)
+        {
+            poolTimeouts.incrementAndGet();
+            return new OurException(ErrorMessages.CONNECTION_POOL_FULL);
+        }
+        if (timeout != null || cause instanceof JDBCConnectionException)
+        {
+            Logger.getLogger(SessionExecutor.class.getName()).log(Level.WARNING, ErrorMessages.SESSION_TIMEOUT, cause);
+            return new OurException(ErrorMessages.SESSION_TIMEOUT);
+        }
+        Logger.getLogger(SessionExecutor.class.getName()).log(Level.SEVERE, errorMessage, cause);
+        return new OurException(errorMessage);
+    }
+
+    /**
+     * Gets the number of work units waiting for a free worker.
+     *
+     * @return The current queue depth
+     */
+    public int getQueueDepth()
+    {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * Gets the number of work units currently holding a session.
+     *
+     * @return The number of in-flight work units
+     */
+    public int getInFlight()
+    {
+        return inFlight.get();
+    }
+
+    /**
+     * Gets the number of work units that have finished, successfully or not.
+     *
+     * @return The number of completed work units
+     */
+    public long getCompleted()
+    {
+        return pool.getCompletedTaskCount();
+    }
+
+    /**
+     * Gets the number of work units refused because the queue was full.
+     *
+     * @return The number of rejected work units
+     */
+    public long getRejected()
+    {
+        return rejected.get();
+    }
+
+    /**
+     * Gets the number of work units that timed out waiting for a pooled connection.
+     *
+     * @return The number of connection acquire timeouts
+     */
+    public long getPoolTimeouts()
+    {
+        return poolTimeouts.get();
+    }
+
+    /**
+     * Gets the registry of the work units accepted and not finished yet.
+     *
+     * @return The WorkUnitRegistry of this executor
+     */
+    public WorkUnitRegistry getUnits()
+    {
+        return units;
+    }
+
+    /**
+     * Gets the histogram of the time work units waited for a free worker.
+     *
+     * @return The queue wait histogram
+     */
+    public LatencyHistogram getQueueWait()
+    {
+        return queueWait;
+    }
+
+    /**
+     * Gets the histogram of the time work units waited for a pooled connection.
+     *
+     * @return The connection wait histogram
+     */
+    public LatencyHistogram getConnectionWait()
+    {
+        return connectionWait;
+    }
+
+    /**
+     * Stops accepting work and waits for the queued work units to finish.
+     * Work units still running after the timeout are interrupted and logged, and
+     * the units that never started are dropped and cancelled, so callers waiting
+     * for them fail instead of blocking forever, and the registry is empty
+     * afterwards unless a unit ignores the interruption.
+     *
+     * @param timeoutSeconds The maximum time to wait, in seconds
+     */
+    public void shutdown(long timeoutSeconds)
+    {
+        pool.shutdown();
+        try
+        {
+            if (!pool.awaitTermination(timeoutSeconds, TimeUnit.SECONDS))
+            {
+                List<WorkUnitRegistry.WorkUnit> running = new ArrayList<>();
+                for (WorkUnitRegistry.WorkUnit unit : units.snapshot())
+                {
+                    if (unit.isStarted())
+                    {
+                        running.add(unit);
+                    }
+                }
+                Logger.getLogger(SessionExecutor.class.getName()).log(Level.WARNING,
+                        "{0} work units queued and {1} running after {2} s: {3}",
+                        new Object[] {units.getQueued(), running.size(), timeoutSeconds, running});
+                cancel(pool.shutdownNow());
+                pool.awaitTermination(1, TimeUnit.SECONDS);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            cancel(pool.shutdownNow());
+            Thread.currentThread().interrupt();
+        }
+        units.discardQueued();
+    }
+
+    /**
+     * Cancels the work units dropped from the queue on shutdown, which wakes the
+     * callers waiting for their result in execute.
+     *
+     * @param dropped The tasks returned by shutdownNow
+     */
+    private static void cancel(List<Runnable> dropped)
+    {
+        for (Runnable task : dropped)
+        {
+            if (task instanceof Future)
+            {
+                ((Future<?>) task).cancel(false);
+            }
+        }
+    }
+}
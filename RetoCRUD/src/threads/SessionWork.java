@@ -0,0 +1,25 @@
+package threads;
+
+import org.hibernate.Session;
+
+/**
+ * A unit of database work executed by the {@link SessionExecutor}.
+ * The executor opens the Hibernate session, begins the transaction before
+ * calling {@link #execute(Session)} and commits or rolls it back afterwards,
+ * so implementations only contain the queries of the operation itself.
+ *
+ * @param <T> The type of the value produced by the work unit
+ * @author ema
+ */
+@FunctionalInterface
+public interface SessionWork<T>
+{
+    /**
+     * Runs the work unit inside an open session with an active transaction.
+     *
+     * @param session The Hibernate session assigned to this work unit
+     * @return The result of the work unit
+     * @throws Exception If the work fails; the transaction is rolled back
+     */
+    T execute(Session session) throws Exception;
+}
@@ -0,0 +1,239 @@
+package threads;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the work units accepted by a {@link SessionExecutor} until they finish.
+ * A unit is registered when it is submitted, marked as started when a worker
+ * picks it up and removed as soon as it completes, fails or is cancelled, so
+ * the registry only ever holds live units and never more than its capacity.
+ * It is safe to use from any thread and gives the live counts of the executor
+ * and, on shutdown, the units that did not finish in time.
+ *
+ * @author ema
+ */
+public class WorkUnitRegistry
+{
+    /**
+     * A work unit accepted by the executor.
+     */
+    public static final class WorkUnit
+    {
+        private final long id;
+        private final String submitter;
+        private final long submittedNanos;
+        private volatile long startedNanos;
+        private volatile String worker;
+
+        private WorkUnit(long id, String submitter)
+        {
+            this.id = id;
+            this.submitter = submitter;
+            this.submittedNanos = System.nanoTime();
+        }
+
+        /**
+         * Gets the sequence number of the unit.
+         *
+         * @return The unit id, unique within its registry
+         */
+        public long getId()
+        {
+            return id;
+        }
+
+        /**
+         * Checks whether a worker has picked the unit up.
+         *
+         * @return true if the unit is running, false if it is still queued
+         */
+        public boolean isStarted()
+        {
+            return startedNanos != 0;
+        }
+
+        /**
+         * Gets the time since the unit was submitted.
+         *
+         * @return The age of the unit in milliseconds
+         */
+        public long getAgeMillis()
+        {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedNanos);
+        }
+
+        /**
+         * Describes the unit for log messages.
+         *
+         * @return The id, state, age, submitting thread and worker of the unit
+         */
+        @Override
+        public String toString()
+        {
+            return "unit " + id + (isStarted() ? " running on " + worker : " queued")
+                    + " for " + getAgeMillis() + " ms, submitted by " + submitter;
+        }
+    }
+
+    private final Map<Long, WorkUnit> units = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final int capacity;
+
+    /**
+     * Constructs a new WorkUnitRegistry.
+     *
+     * @param capacity The maximum number of live units, normally the workers plus the queue capacity
+     */
+    public WorkUnitRegistry(int capacity)
+    {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Registers a new unit, unless the registry is already full.
+     *
+     * @return The registered unit, or null if the capacity is reached
+     */
+    public WorkUnit register()
+    {
+        int current;
+        do
+        {
+            current = size.get();
+            if (current >= capacity)
+            {
+                return null;
+            }
+        }
+        while (!size.compareAndSet(current, current + 1));
+
+        WorkUnit unit = new WorkUnit(sequence.incrementAndGet(), Thread.currentThread().getName());
+        units.put(unit.id, unit);
+        return unit;
+    }
+
+    /**
+     * Marks a unit as picked up by the current thread.
+     *
+     * @param unit The unit
+     */
+    public void start(WorkUnit unit)
+    {
+        unit.worker = Thread.currentThread().getName();
+        unit.startedNanos = System.nanoTime();
+        running.incrementAndGet();
+    }
+
+    /**
+     * Removes a unit that finished, failed or was cancelled.
+     * Removing a unit twice has no effect.
+     *
+     * @param unit The unit
+     */
+    public void complete(WorkUnit unit)
+    {
+        if (units.remove(unit.id) != null)
+        {
+            size.decrementAndGet();
+            if (unit.isStarted())
+            {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes the units no worker picked up, once the executor has dropped its queue.
+     *
+     * @return The number of units removed
+     */
+    public int discardQueued()
+    {
+        int discarded = 0;
+        for (WorkUnit unit : units.values())
+        {
+            if (!unit.isStarted() && units.remove(unit.id) != null)
+            {
+                size.decrementAndGet();
+                discarded++;
+            }
+        }
+        return discarded;
+    }
+
+    /**
+     * Gets the number of live units, queued or running.
+     *
+     * @return The number of registered units
+     */
+    public int size()
+    {
+        return size.get();
+    }
+
+    /**
+     * Gets the number of units a worker is running.
+     *
+     * @return The number of running units
+     */
+    public int getRunning()
+    {
+        return running.get();
+    }
+
+    /**
+     * Gets the number of units waiting for a worker.
+     *
+     * @return The number of queued units
+     */
+    public int getQueued()
+    {
+        return Math.max(0, size.get() - running.get());
+    }
+
+    /**
+     * Gets the maximum number of live units.
+     *
+     * @return The capacity
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Gets the age of the oldest live unit, which grows steadily when a unit is stuck.
+     *
+     * @return The age in milliseconds, or 0 if there are no units
+     */
+    public long getOldestAgeMillis()
+    {
+        long oldest = 0;
+        for (WorkUnit unit : units.values())
+        {
+            oldest = Math.max(oldest, unit.getAgeMillis());
+        }
+        return oldest;
+    }
+
+    /**
+     * Gets the live units, oldest first.
+     *
+     * @return A copy of the registered units
+     */
+    public List<WorkUnit> snapshot()
+    {
+        List<WorkUnit> snapshot = new ArrayList<>(units.values());
+        snapshot.sort(Comparator.comparingLong(WorkUnit::getId));
+        return snapshot;
+    }
+}
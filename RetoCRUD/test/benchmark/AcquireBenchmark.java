@@ -0,0 +1,193 @@
+package benchmark;
+
+import dao.HibernateImplementation;
+import dao.HibernateUtil;
+import exception.ErrorMessages;
+import exception.OurException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import metrics.LatencyHistogram;
+import org.hibernate.Session;
+
+/**
+ * Measures how long a DAO call waits for its session and connection when more
+ * callers than pooled connections compete for them. Three ways are compared at
+ * every bench.threads level (default 1,8,32,64):
+ * <ul>
+ * <li>acquire.hikari opens a session and begins a transaction, which is the time
+ * Hikari takes to hand out a connection or to time out;</li>
+ * <li>handoff.spinPoll replays the old SessionThread handoff: a thread per call,
+ * a ready flag polled every 10 ms up to 50 times and an empty transaction to
+ * detect a full pool before the work itself;</li>
+ * <li>handoff.future runs the same work through the SessionExecutor, which hands
+ * the result back through a Future.</li>
+ * </ul>
+ * Every unit holds its connection for bench.hold milliseconds (default 5), as a
+ * short query would. The pool size and acquire timeout are the ones of the
+ * active profile and config file, and can be set with
+ * -Dhibernate.hikari.maximumPoolSize and -Dhibernate.hikari.connectionTimeout.
+ * Other settings: bench.warmup and bench.measure in milliseconds, and
+ * bench.output (default build/bench/acquire-results.json). Calls refused with
+ * CONNECTION_POOL_FULL are counted as errors.
+ *
+ * @author ema
+ */
+public class AcquireBenchmark {
+
+    private static final int POLL_MILLIS = 10;
+    private static final int POLL_ATTEMPTS = 50;
+
+    private final HibernateImplementation dao = new HibernateImplementation();
+    private final long hold = Long.getLong("bench.hold", 5);
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Not used; the benchmark is configured with system properties
+     * @throws Exception If the database cannot be reached or the results cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        AcquireBenchmark benchmark = new AcquireBenchmark();
+        try {
+            benchmark.run();
+        } finally {
+            benchmark.dao.cleanupThreads();
+            HibernateUtil.close();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Measures the three ways of getting a session at every concurrency level.
+     *
+     * @throws Exception If the results cannot be written
+     */
+    private void run() throws Exception {
+        List<Integer> threads = new ArrayList<>();
+        for (String count : System.getProperty("bench.threads", "1,8,32,64").split(",")) {
+            threads.add(Integer.parseInt(count.trim()));
+        }
+        dao.getExecutor().execute(session -> null, ErrorMessages.DATABASE);
+
+        BenchmarkHarness harness = new BenchmarkHarness(Long.getLong("bench.warmup", 1000), Long.getLong("bench.measure", 3000));
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        BenchmarkHarness.printHeader();
+        for (int count : threads) {
+            LatencyHistogram acquire = new LatencyHistogram();
+            BenchmarkHarness.print(harness.run("acquire.hikari", count, (t, i) -> acquireAndHold(acquire)));
+            metadata.put("acquire.hikari@" + count + ".p50Ms", acquire.getPercentileMillis(0.50));
+            metadata.put("acquire.hikari@" + count + ".p99Ms", acquire.getPercentileMillis(0.99));
+            System.out.printf(Locale.ROOT, "  acquire p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    acquire.getPercentileMillis(0.50), acquire.getPercentileMillis(0.99), acquire.getMaxMillis());
+
+            BenchmarkHarness.print(harness.run("handoff.spinPoll", count, (t, i) -> spinPoll()));
+            BenchmarkHarness.print(harness.run("handoff.future", count, (t, i) -> dao.getExecutor().execute(session -> {
+                Thread.sleep(hold);
+                return null;
+            }, ErrorMessages.DATABASE)));
+        }
+
+        metadata.put("timestamp", java.time.Instant.now().toString());
+        metadata.put("url", System.getProperty("hibernate.connection.url", "configClass.properties"));
+        metadata.put("poolSize", System.getProperty("hibernate.hikari.maximumPoolSize", "profile"));
+        metadata.put("connectionTimeout", System.getProperty("hibernate.hikari.connectionTimeout",
+                HibernateUtil.getAcquireTimeout() > 0 ? Long.toString(HibernateUtil.getAcquireTimeout()) : "profile"));
+        metadata.put("holdMillis", hold);
+        metadata.put("poolTimeouts", dao.getExecutor().getPoolTimeouts());
+        metadata.put("javaVersion", System.getProperty("java.version"));
+        String output = System.getProperty("bench.output", "build/bench/acquire-results.json");
+        harness.writeJson(Paths.get(output), metadata);
+        System.out.println("Results written to " + output);
+    }
+
+    /**
+     * Takes a pooled connection, holds it for the hold time and gives it back.
+     *
+     * @param acquire Records the time taken to get the connection
+     * @throws InterruptedException If interrupted while holding the connection
+     */
+    private void acquireAndHold(LatencyHistogram acquire) throws InterruptedException {
+        long start = System.nanoTime();
+        try (Session session = HibernateUtil.getSession()) {
+            session.beginTransaction();
+            acquire.record(System.nanoTime() - start);
+            Thread.sleep(hold);
+            session.getTransaction().rollback();
+        }
+    }
+
+    /**
+     * Replays the handoff of the removed SessionThread for one call.
+     *
+     * @throws Exception If no session was ready in time or the pool was full
+     */
+    private void spinPoll() throws Exception {
+        PollingThread thread = new PollingThread();
+        thread.start();
+        try {
+            int attempts = 0;
+            while (!thread.ready && attempts < POLL_ATTEMPTS) {
+                Thread.sleep(POLL_MILLIS);
+                attempts++;
+            }
+            if (!thread.ready || thread.session == null) {
+                throw new OurException(ErrorMessages.CONNECTION_POOL_FULL);
+            }
+            Session session = thread.session;
+            session.beginTransaction();
+            session.getTransaction().rollback();
+
+            session.beginTransaction();
+            Thread.sleep(hold);
+            session.getTransaction().commit();
+        } finally {
+            thread.release();
+        }
+    }
+
+    /**
+     * Opens a session on its own thread and keeps it until released, as SessionThread did.
+     */
+    private static final class PollingThread extends Thread {
+
+        private volatile boolean ready;
+        private volatile boolean end;
+        private volatile Session session;
+
+        @Override
+        public void run() {
+            try {
+                session = HibernateUtil.getSession();
+            } catch (RuntimeException e) {
+                ready = true;
+                return;
+            }
+            ready = true;
+            while (!end) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Ends the thread and closes its session.
+         *
+         * @throws InterruptedException If interrupted while waiting for the thread
+         */
+        void release() throws InterruptedException {
+            end = true;
+            interrupt();
+            join();
+            if (session != null && session.isOpen()) {
+                session.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small benchmark runner for the plain main() benchmarks of this folder.
+ * Runs an operation from a number of concurrent caller threads, first for a
+ * warm-up period and then for a measured period, and records the latency of
+ * every measured call. Results can be printed as a table and written as JSON
+ * so runs can be compared over time.
+ *
+ * @author ema
+ */
+public class BenchmarkHarness {
+
+    /**
+     * An operation measured by the harness.
+     */
+    @FunctionalInterface
+    public interface Operation {
+
+        /**
+         * Runs the operation once.
+         *
+         * @param thread The index of the calling thread, from 0 to threads - 1
+         * @param iteration The number of calls this thread made before, warm-up included
+         * @throws Exception If the call fails; it is counted as an error
+         */
+        void run(int thread, long iteration) throws Exception;
+    }
+
+    /**
+     * Measurements of one operation at one concurrency level.
+     */
+    public static final class Result {
+
+        private final String name;
+        private final int threads;
+        private final long operations;
+        private final long errors;
+        private final double seconds;
+        private final double[] latenciesMs;
+        private final String firstError;
+
+        private Result(String name, int threads, long operations, long errors, double seconds, double[] latenciesMs, String firstError) {
+            this.name = name;
+            this.threads = threads;
+            this.operations = operations;
+            this.errors = errors;
+            this.seconds = seconds;
+            this.latenciesMs = latenciesMs;
+            this.firstError = firstError;
+        }
+
+        /**
+         * Gets the name of the operation.
+         *
+         * @return The operation name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of concurrent callers.
+         *
+         * @return The thread count
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * Gets the number of successful measured calls.
+         *
+         * @return The operation count
+         */
+        public long getOperations() {
+            return operations;
+        }
+
+        /**
+         * Gets the number of measured calls that threw.
+         *
+         * @return The error count
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Gets the successful calls per second of all the threads together.
+         *
+         * @return The throughput
+         */
+        public double getOpsPerSecond() {
+            return seconds == 0 ? 0 : operations / seconds;
+        }
+
+        /**
+         * Gets a latency percentile of the measured calls.
+         *
+         * @param fraction The percentile between 0 and 1
+         * @return The latency in milliseconds, or 0 if nothing was measured
+         */
+        public double percentile(double fraction) {
+            if (latenciesMs.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(fraction * latenciesMs.length) - 1;
+            return latenciesMs[Math.max(0, Math.min(latenciesMs.length - 1, index))];
+        }
+
+        /**
+         * Gets the message of the first error, to explain a non-zero error count.
+         *
+         * @return The first error message, or null if there were no errors
+         */
+        public String getFirstError() {
+            return firstError;
+        }
+    }
+
+    /**
+     * Latency samples kept per thread; beyond this the samples are reservoir sampled.
+     */
+    private static final int MAX_SAMPLES = 100000;
+
+    private final long warmupMillis;
+    private final long measureMillis;
+    private final List<Result> results = new ArrayList<>();
+
+    /**
+     * Constructs a new BenchmarkHarness.
+     *
+     * @param warmupMillis How long each operation runs before measuring
+     * @param measureMillis How long each operation is measured
+     */
+    public BenchmarkHarness(long warmupMillis, long measureMillis) {
+        this.warmupMillis = warmupMillis;
+        this.measureMillis = measureMillis;
+    }
+
+    /**
+     * Measures an operation with a number of concurrent callers and keeps the result.
+     *
+     * @param name The name of the operation
+     * @param threads The number of concurrent callers
+     * @param operation The operation to measure
+     * @return The measurements
+     * @throws InterruptedException If interrupted while waiting for the callers
+     */
+    public Result run(String name, int threads, Operation operation) throws InterruptedException {
+        AtomicLong operations = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        String[] firstError = {null};
+        double[][] samples = new double[threads][];
+        int[] sampleCounts = new int[threads];
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] window = new long[2];
+
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            Thread caller = new Thread(() -> {
+                Random random = new Random(thread);
+                double[] local = new double[1024];
+                int count = 0;
+                long seen = 0;
+                long iteration = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < window[1]) {
+                        boolean measured = System.nanoTime() >= window[0];
+                        long begin = System.nanoTime();
+                        try {
+                            operation.run(thread, iteration++);
+                        } catch (Exception ex) {
+                            if (measured) {
+                                errors.incrementAndGet();
+                                synchronized (firstError) {
+                                    if (firstError[0] == null) {
+                                        firstError[0] = ex.getClass().getSimpleName() + ": " + ex.getMessage();
+                                    }
+                                }
+                            }
+                            continue;
+                        }
+                        if (!measured) {
+                            continue;
+                        }
+                        double latency = (System.nanoTime() - begin) / 1e6;
+                        operations.incrementAndGet();
+                        seen++;
+                        if (count < MAX_SAMPLES) {
+                            if (count == local.length) {
+                                local = Arrays.copyOf(local, Math.min(MAX_SAMPLES, count * 2));
+                            }
+                            local[count++] = latency;
+                        } else {
+                            long slot = (long) (random.nextDouble() * seen);
+                            if (slot < MAX_SAMPLES) {
+                                local[(int) slot] = latency;
+                            }
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    samples[thread] = local;
+                    sampleCounts[thread] = count;
+                    done.countDown();
+                }
+            }, "bench-" + name + "-" + t);
+            caller.setDaemon(true);
+            caller.start();
+        }
+
+        long now = System.nanoTime();
+        window[0] = now + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        window[1] = window[0] + TimeUnit.MILLISECONDS.toNanos(measureMillis);
+        start.countDown();
+        if (!done.await(warmupMillis + measureMillis + TimeUnit.MINUTES.toMillis(5), TimeUnit.MILLISECONDS)) {
+            System.err.println(name + ": some callers did not finish in time");
+        }
+        double seconds = Math.max(measureMillis, (System.nanoTime() - window[0]) / 1e6) / 1000.0;
+
+        int total = 0;
+        for (int count : sampleCounts) {
+            total += count;
+        }
+        double[] merged = new double[total];
+        int offset = 0;
+        for (int t = 0; t < threads; t++) {
+            if (samples[t] != null) {
+                System.arraycopy(samples[t], 0, merged, offset, sampleCounts[t]);
+                offset += sampleCounts[t];
+            }
+        }
+        Arrays.sort(merged, 0, offset);
+
+        Result result = new Result(name, threads, operations.get(), errors.get(), seconds, Arrays.copyOf(merged, offset), firstError[0]);
+        results.add(result);
+        return result;
+    }
+
+    /**
+     * Gets every result measured so far.
+     *
+     * @return The results, in the order they were measured
+     */
+    public List<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Prints the header of the result table.
+     */
+    public static void printHeader() {
+        System.out.printf(Locale.ROOT, "%-28s %7s %12s %10s %10s %10s %10s %8s%n",
+                "operation", "threads", "ops/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+    }
+
+    /**
+     * Prints one result as a row of the result table.
+     *
+     * @param result The result to print
+     */
+    public static void print(Result result) {
+        System.out.printf(Locale.ROOT, "%-28s %7d %12.1f %10.3f %10.3f %10.3f %10.3f %8d%n",
+                result.getName(), result.getThreads(), result.getOpsPerSecond(), result.percentile(0.50),
+                result.percentile(0.90), result.percentile(0.99), result.percentile(1.0), result.getErrors());
+        if (result.getFirstError() != null) {
+            System.out.println("    first error: " + result.getFirstError());
+        }
+    }
+
+    /**
+     * Writes every result as a JSON document.
+     *
+     * @param file The file to write, created with its folders if needed
+     * @param metadata Values that describe the run, such as the seeding scale
+     * @throws IOException If the file cannot be written
+     */
+    public void writeJson(Path file, Map<String, Object> metadata) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("{\n  \"metadata\": {");
+            int i = 0;
+            for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+                out.write(i++ == 0 ? "\n" : ",\n");
+                out.write("    " + quote(entry.getKey()) + ": " + value(entry.getValue()));
+            }
+            out.write("\n  },\n  \"results\": [");
+            i = 0;
+            for (Result result : results) {
+                Map<String, Object> fields = new LinkedHashMap<>();
+                fields.put("operation", result.getName());
+                fields.put("threads", result.getThreads());
+                fields.put("operations", result.getOperations());
+                fields.put("errors", result.getErrors());
+                fields.put("opsPerSecond", result.getOpsPerSecond());
+                fields.put("p50Ms", result.percentile(0.50));
+                fields.put("p90Ms", result.percentile(0.90));
+                fields.put("p99Ms", result.percentile(0.99));
+                fields.put("maxMs", result.percentile(1.0));
+                fields.put("firstError", result.getFirstError());
+
+                out.write(i++ == 0 ? "\n    {" : ",\n    {");
+                int j = 0;
+                for (Map.Entry<String, Object> field : fields.entrySet()) {
+                    out.write(j++ == 0 ? "" : ", ");
+                    out.write(quote(field.getKey()) + ": " + value(field.getValue()));
+                }
+                out.write("}");
+            }
+            out.write("\n  ]\n}\n");
+        }
+    }
+
+    /**
+     * Formats a value as JSON.
+     *
+     * @param value A string, number, boolean or null
+     * @return The JSON text of the value
+     */
+    private static String value(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            return Double.isFinite(number) ? String.format(Locale.ROOT, "%.4f", number) : "null";
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        return quote(value.toString());
+    }
+
+    /**
+     * Quotes and escapes a string as JSON.
+     *
+     * @param text The string
+     * @return The JSON string literal
+     */
+    private static String quote(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2).append('"');
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
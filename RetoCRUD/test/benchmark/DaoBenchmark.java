@@ -0,0 +1,418 @@
+package benchmark;
+
+import dao.HibernateImplementation;
+import dao.HibernateUtil;
+import dao.PasswordHasher;
+import dao.SchemaMigration;
+import exception.ErrorMessages;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Listed;
+import model.Pegi;
+import model.Platform;
+import model.Profile;
+import model.Review;
+import model.User;
+import model.UserList;
+import model.VideoGame;
+
+/**
+ * Benchmarks every ClassDAO operation of HibernateImplementation with 1, 8 and
+ * 64 concurrent callers and writes the results as JSON.
+ * The database is the one in configClass.properties unless it is overridden with
+ * hibernate.* system properties, for example an embedded H2 database in MySQL mode:
+ *
+ * -Dhibernate.connection.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1
+ * -Dhibernate.connection.driver_class=org.h2.Driver -Dhibernate.dialect=org.hibernate.dialect.H2Dialect
+ *
+ * The database is seeded once with bench.games games, bench.users users with
+ * bench.lists lists of bench.listSize games each, and bench.reviews reviews.
+ * Other settings: bench.threads (default 1,8,64), bench.warmup and bench.measure
+ * in milliseconds, bench.only (comma separated operation names) and bench.output
+ * (default build/bench/dao-results.json). generateReport is not measured because
+ * it opens the PDF in the desktop viewer.
+ * The run stops before seeding its data if Hibernate turned JDBC batching off, since the
+ * batched writes would then be measured one statement at a time.
+ *
+ * @author ema
+ */
+public class DaoBenchmark {
+
+    private static final String PASSWORD = "Ab123456";
+    private static final String PREFIX = "bench";
+    private static final String MY_GAMES = "My Games";
+    private static final int PAGE = 100;
+    private static final int BULK = 10;
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36);
+
+    private final int games = Integer.getInteger("bench.games", 2000);
+    private final int users = Integer.getInteger("bench.users", 100);
+    private final int lists = Integer.getInteger("bench.lists", 3);
+    private final int listSize = Integer.getInteger("bench.listSize", 20);
+    private final int reviews = Integer.getInteger("bench.reviews", 2000);
+
+    private final HibernateImplementation dao = new HibernateImplementation();
+    private final List<Integer> gameIds = new ArrayList<>();
+    private final List<String> gameNames = new ArrayList<>();
+    private final ConcurrentLinkedQueue<String> signedUp = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Not used; the benchmark is configured with system properties
+     * @throws Exception If the database cannot be seeded or the results cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        DaoBenchmark benchmark = new DaoBenchmark();
+        try {
+            benchmark.run();
+        } finally {
+            benchmark.dao.cleanupThreads();
+            HibernateUtil.close();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Seeds the database, measures every operation and writes the results.
+     *
+     * @throws Exception If the database cannot be seeded or the results cannot be written
+     */
+    private void run() throws Exception {
+        long seedStart = System.nanoTime();
+        dao.initializeDefault();
+        int jdbcBatchSize = HibernateUtil.getEffectiveBatchSize();
+        if (HibernateUtil.getBatchSize() > 1 && jdbcBatchSize < 2) {
+            throw new IllegalStateException("JDBC batching is off (batch size " + jdbcBatchSize
+                    + "), the batched writes would be measured one statement at a time");
+        }
+        System.out.println("JDBC batch size " + jdbcBatchSize);
+        seed();
+        System.out.printf(Locale.ROOT, "Seeded in %.1f s: %d games, %d users x %d lists of %d games, %d reviews%n",
+                (System.nanoTime() - seedStart) / 1e9, games, users, lists, listSize, reviews);
+
+        BenchmarkHarness harness = new BenchmarkHarness(Long.getLong("bench.warmup", 1000), Long.getLong("bench.measure", 3000));
+        Map<String, BenchmarkHarness.Operation> operations = operations();
+        String only = System.getProperty("bench.only", "");
+
+        BenchmarkHarness.printHeader();
+        for (String threads : System.getProperty("bench.threads", "1,8,64").split(",")) {
+            int callers = Integer.parseInt(threads.trim());
+            if (callers > users) {
+                System.out.println("Skipping " + callers + " callers: only " + users + " bench users, raise bench.users");
+                continue;
+            }
+            for (Map.Entry<String, BenchmarkHarness.Operation> entry : operations.entrySet()) {
+                if (!only.isEmpty() && !(',' + only + ',').contains(',' + entry.getKey() + ',')) {
+                    continue;
+                }
+                BenchmarkHarness.print(harness.run(entry.getKey(), callers, entry.getValue()));
+            }
+        }
+
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("timestamp", java.time.Instant.now().toString());
+        metadata.put("url", System.getProperty("hibernate.connection.url", "configClass.properties"));
+        metadata.put("games", games);
+        metadata.put("users", users);
+        metadata.put("lists", lists);
+        metadata.put("listSize", listSize);
+        metadata.put("reviews", reviews);
+        metadata.put("jdbcBatchSize", jdbcBatchSize);
+        metadata.put("javaVersion", System.getProperty("java.version"));
+        metadata.put("processors", Runtime.getRuntime().availableProcessors());
+        String output = System.getProperty("bench.output", "build/bench/dao-results.json");
+        harness.writeJson(Paths.get(output), metadata);
+        System.out.println("Results written to " + output);
+    }
+
+    /**
+     * Builds the measured operations, one or two per ClassDAO method.
+     * Thread t always works on the bench user t, so concurrent writers do not
+     * fight over the same rows. Operations that change data undo it on the next
+     * call, so the data set keeps its size during the whole run.
+     *
+     * @return The operations by name, in the order they are measured
+     */
+    private Map<String, BenchmarkHarness.Operation> operations() {
+        Map<String, BenchmarkHarness.Operation> ops = new LinkedHashMap<>();
+
+        ops.put("logIn", (t, i) -> require(dao.logIn(user(t), PASSWORD) != null, "login failed"));
+        ops.put("logIn.failedCached", (t, i) -> dao.logIn(user(t), "wrong-" + t));
+        ops.put("signUp", (t, i) -> {
+            String username = PREFIX + "s" + RUN + "x" + sequence.incrementAndGet();
+            require(dao.signUp("MALE", "ES0000000000000000000000", username, PASSWORD, username + "@bench.local",
+                    "Bench", "600000000", "User"), "signUp refused " + username);
+            signedUp.add(username);
+        });
+        ops.put("dropOutUser", (t, i) -> {
+            String username = nextSignedUp();
+            require(dao.dropOutUser(username, PASSWORD), "dropOutUser refused " + username);
+        });
+        ops.put("dropOutAdmin", (t, i) -> {
+            String username = nextSignedUp();
+            require(dao.dropOutAdmin(username, "asanchez", "qwerty"), "dropOutAdmin refused " + username);
+        });
+        ops.put("modifyUser", (t, i) -> dao.modifyUser(PASSWORD, user(t) + "@bench.local", "Bench " + i,
+                "600000000", "User", user(t), "MALE"));
+        ops.put("comboBoxInsert", (t, i) -> dao.comboBoxInsert());
+        ops.put("findProfileByUsername", (t, i) -> require(dao.findProfileByUsername(user(t)) != null, "profile not found"));
+        ops.put("getAllVideoGames", (t, i) -> dao.getAllVideoGames());
+        ops.put("getVideoGamesPage", (t, i) -> dao.getVideoGamesPage(gameIds.get((int) (i % gameIds.size())), PAGE));
+        ops.put("findVideoGameByName", (t, i) -> dao.findVideoGameByName(gameNames.get((int) ((i * 31 + t) % gameNames.size()))));
+        ops.put("getUserLists", (t, i) -> dao.getUserLists(user(t)));
+        ops.put("getGamesFromList", (t, i) -> dao.getGamesFromList(user(t), MY_GAMES));
+        ops.put("verifyGameInList", (t, i) -> dao.verifyGameInList(user(t), MY_GAMES, game(t, i)));
+        ops.put("verifyListName", (t, i) -> dao.verifyListName(user(t), "L1"));
+        ops.put("verifyGamesInList", (t, i) -> {
+            ArrayList<VideoGame> bulk = new ArrayList<>();
+            for (int k = 0; k < BULK; k++) {
+                bulk.add(new VideoGame(game(t, i + k), "", null, Platform.DEFAULT, Pegi.DEFAULT));
+            }
+            dao.verifyGamesInList(user(t), MY_GAMES, bulk);
+        });
+        ops.put("addGameToList/removeGameFromList", (t, i) -> {
+            if (i % 2 == 0) {
+                dao.addGameToList(user(t), "Toggle", spareGame(t, 0));
+            } else {
+                dao.removeGameFromList(user(t), "Toggle", spareGame(t, 0));
+            }
+        });
+        ops.put("addGamesToList/removeGamesFromList", (t, i) -> {
+            ArrayList<VideoGame> bulk = new ArrayList<>();
+            for (int k = 0; k < BULK; k++) {
+                bulk.add(new VideoGame(spareGame(t, k), "", null, Platform.DEFAULT, Pegi.DEFAULT));
+            }
+            if (i % 2 == 0) {
+                dao.addGamesToList(user(t), "Toggle", bulk);
+            } else {
+                dao.removeGamesFromList(user(t), "Toggle", bulk);
+            }
+        });
+        ops.put("applyListChanges", (t, i) -> {
+            ArrayList<VideoGame> added = new ArrayList<>();
+            ArrayList<VideoGame> removed = new ArrayList<>();
+            for (int k = 0; k < BULK; k++) {
+                VideoGame game = new VideoGame(spareGame(t, k), "", null, Platform.DEFAULT, Pegi.DEFAULT);
+                ((k + i) % 2 == 0 ? added : removed).add(game);
+            }
+            dao.applyListChanges(user(t), "Toggle", added, removed);
+        });
+        ops.put("newList/deleteList", (t, i) -> {
+            if (i % 2 == 0) {
+                dao.newList(profile(t), "T" + t);
+            } else {
+                dao.deleteList(user(t), "T" + t);
+            }
+        });
+        ops.put("renameList", (t, i) -> dao.renameList(user(t), i % 2 == 0 ? "Ren" : "Ren2", i % 2 == 0 ? "Ren2" : "Ren"));
+        ops.put("getLibraryVersion", (t, i) -> dao.getLibraryVersion(user(t)));
+        ops.put("getUserLibrary", (t, i) -> dao.getUserLibrary(user(t)));
+        ops.put("findReview", (t, i) -> dao.findReview(user(t), reviewedGame(t, i)));
+        ops.put("findReviews", (t, i) -> dao.findReviews(game(t, i)));
+        ops.put("getAllReviews", (t, i) -> dao.getAllReviews());
+        ops.put("saveOrUpdateReview", (t, i) -> dao.saveOrUpdateReview(
+                review(t, reviewedGame(t, 0), (int) (i % 10))));
+        ops.put("saveOrUpdateReview/deleteReview", (t, i) -> {
+            Review review = review(t, spareGame(t, 0), 5);
+            if (i % 2 == 0) {
+                dao.saveOrUpdateReview(review);
+            } else {
+                dao.deleteReview(review);
+            }
+        });
+        ops.put("getScoreStats", (t, i) -> dao.getScoreStats());
+        ops.put("findReviewsByList", (t, i) -> dao.findReviewsByList(user(t), MY_GAMES, 0, PAGE, true));
+        ops.put("getReviewsPage", (t, i) -> dao.getReviewsPage(null, null, PAGE));
+        ops.put("forEachReview", (t, i) -> {
+            long[] count = {0};
+            dao.forEachReview(review -> count[0]++);
+        });
+        ops.put("initializeDefault", (t, i) -> dao.initializeDefault());
+        return ops;
+    }
+
+    /**
+     * Seeds the database unless a previous run already did.
+     * Users share one password hash, so seeding does not pay the hashing cost per user.
+     *
+     * @throws Exception If the data cannot be written
+     */
+    private void seed() throws Exception {
+        dao.getExecutor().execute(session -> {
+            boolean seeded = session.get(Profile.class, PREFIX + "0") != null;
+            int batch = HibernateUtil.getBatchSize();
+            if (!seeded) {
+                for (int g = 0; g < games; g++) {
+                    session.save(new VideoGame(PREFIX + " game " + g, LocalDate.of(1990, 1, 1).plusDays(g % 12000),
+                            Platform.values()[g % 4], Pegi.values()[g % 5]));
+                    if (g % batch == 0) {
+                        session.flush();
+                        session.clear();
+                    }
+                }
+                session.flush();
+                session.clear();
+            }
+
+            List<VideoGame> seededGames = session.createQuery(
+                    "FROM VideoGame v WHERE v.v_name LIKE :prefix ORDER BY v.v_id", VideoGame.class)
+                    .setParameter("prefix", PREFIX + " game %").list();
+            for (VideoGame game : seededGames) {
+                gameIds.add(game.getV_id());
+                gameNames.add(game.getV_name());
+            }
+            if (seeded) {
+                return null;
+            }
+
+            String hash = new PasswordHasher().hash(PASSWORD);
+            int rows = 0;
+            for (int u = 0; u < users; u++) {
+                User user = new User("MALE", "ES0000000000000000000000", PREFIX + u, hash, PREFIX + u + "@bench.local",
+                        "Bench", "600000000", "User");
+                session.save(user);
+                session.save(new UserList(user, "Toggle"));
+                session.save(new UserList(user, "Ren"));
+                UserList[] userLists = new UserList[lists + 1];
+                for (int l = 0; l <= lists; l++) {
+                    userLists[l] = new UserList(user, l == 0 ? MY_GAMES : "L" + l);
+                    session.save(userLists[l]);
+                }
+                for (int k = 0; k < listSize; k++) {
+                    VideoGame game = seededGames.get((u * listSize + k) % seededGames.size());
+                    for (UserList list : userLists) {
+                        session.save(new Listed(list, game));
+                    }
+                    if (++rows % batch == 0) {
+                        session.flush();
+                        session.clear();
+                        for (int l = 0; l <= lists; l++) {
+                            userLists[l] = session.load(UserList.class, userLists[l].getListId());
+                        }
+                    }
+                }
+            }
+            session.flush();
+            session.clear();
+
+            for (int r = 0; r < reviews; r++) {
+                Profile author = session.get(Profile.class, PREFIX + (r % users));
+                VideoGame game = session.get(VideoGame.class, seededGames.get((r / users) % seededGames.size()).getV_id());
+                session.save(new Review(author, game, r % 11, "Bench review " + r, LocalDate.of(2020, 1, 1).plusDays(r % 2000), game.getV_platform()));
+                if (r % batch == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.flush();
+            session.doWork(SchemaMigration::rebuildScoreStats);
+            return null;
+        }, ErrorMessages.DATABASE);
+        HibernateUtil.getCatalog().invalidate();
+    }
+
+    /**
+     * Gets the bench user of a thread.
+     *
+     * @param thread The thread index
+     * @return The username
+     */
+    private String user(int thread) {
+        return PREFIX + thread;
+    }
+
+    /**
+     * Gets a detached profile of the bench user of a thread.
+     *
+     * @param thread The thread index
+     * @return The profile
+     */
+    private Profile profile(int thread) {
+        return new User("MALE", "ES0000000000000000000000", user(thread), PASSWORD, user(thread) + "@bench.local",
+                "Bench", "600000000", "User");
+    }
+
+    /**
+     * Picks a seeded game for a call.
+     *
+     * @param thread The thread index
+     * @param iteration The iteration of the thread
+     * @return A game id
+     */
+    private int game(int thread, long iteration) {
+        return gameIds.get((int) ((thread * listSize + iteration) % gameIds.size()));
+    }
+
+    /**
+     * Picks a game the bench user of a thread has reviewed.
+     *
+     * @param thread The thread index
+     * @param iteration The iteration of the thread
+     * @return A game id
+     */
+    private int reviewedGame(int thread, long iteration) {
+        int perUser = Math.max(1, reviews / users);
+        return gameIds.get((int) (iteration % perUser) % gameIds.size());
+    }
+
+    /**
+     * Picks a game that no seeded list or review of the thread's user uses.
+     * Every thread gets its own block of BULK games at the end of the seeded ones.
+     *
+     * @param thread The thread index
+     * @param offset The position in the thread's block, from 0 to BULK - 1
+     * @return A game id
+     */
+    private int spareGame(int thread, int offset) {
+        int blocks = Math.max(1, gameIds.size() / BULK);
+        int index = gameIds.size() - (thread % blocks + 1) * BULK + offset;
+        return gameIds.get(Math.max(0, index));
+    }
+
+    /**
+     * Builds a review of the bench user of a thread.
+     *
+     * @param thread The thread index
+     * @param gameId The reviewed game
+     * @param score The score
+     * @return The review
+     */
+    private Review review(int thread, int gameId, int score) {
+        return new Review(profile(thread), new VideoGame(gameId, "", null, Platform.PC, Pegi.DEFAULT), score,
+                "Bench review", LocalDate.now(), Platform.PC);
+    }
+
+    /**
+     * Takes a user created by the signUp benchmark.
+     *
+     * @return The username
+     */
+    private String nextSignedUp() {
+        String username = signedUp.poll();
+        if (username == null) {
+            throw new IllegalStateException("no signed up users left");
+        }
+        return username;
+    }
+
+    /**
+     * Fails the call if a condition does not hold.
+     *
+     * @param condition The condition
+     * @param message The error message
+     */
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package benchmark;
+
+import dao.HibernateImplementation;
+import dao.HibernateUtil;
+import exception.ErrorMessages;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import model.Listed;
+import model.Pegi;
+import model.Platform;
+import model.Profile;
+import model.User;
+import model.UserList;
+import model.VideoGame;
+
+/**
+ * Compares the projection-based existence checks of HibernateImplementation
+ * with the entity loads they replaced, for users whose list holds
+ * bench.sizes games (default 100,10000,100000):
+ * <ul>
+ * <li>verifyGameInList and verifyListName against loading the profile and the
+ * Listed entities of the list, as the DAO used to do;</li>
+ * <li>verifyGamesInList for BULK selected games against loading the whole
+ * target list, as the list window used to do before adding games.</li>
+ * </ul>
+ * The database is the one in configClass.properties unless it is overridden with
+ * hibernate.* system properties, as in DaoBenchmark. Other settings: bench.warmup
+ * and bench.measure in milliseconds, and bench.output
+ * (default build/bench/existence-results.json).
+ *
+ * @author ema
+ */
+public class ExistenceCheckBenchmark {
+
+    private static final String PREFIX = "exists";
+    private static final String LIST = "Big";
+    private static final int BULK = 10;
+
+    private final HibernateImplementation dao = new HibernateImplementation();
+    private final List<Integer> gameIds = new ArrayList<>();
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Not used; the benchmark is configured with system properties
+     * @throws Exception If the database cannot be seeded or the results cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        ExistenceCheckBenchmark benchmark = new ExistenceCheckBenchmark();
+        try {
+            benchmark.run();
+        } finally {
+            benchmark.dao.cleanupThreads();
+            HibernateUtil.close();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Seeds one user per list size and measures both ways of every check.
+     *
+     * @throws Exception If the database cannot be seeded or the results cannot be written
+     */
+    private void run() throws Exception {
+        List<Integer> sizes = new ArrayList<>();
+        for (String size : System.getProperty("bench.sizes", "100,10000,100000").split(",")) {
+            sizes.add(Integer.parseInt(size.trim()));
+        }
+        int largest = 0;
+        for (int size : sizes) {
+            largest = Math.max(largest, size);
+        }
+
+        long seedStart = System.nanoTime();
+        seedGames(largest);
+        for (int size : sizes) {
+            seedUser(size);
+        }
+        System.out.printf(Locale.ROOT, "Seeded in %.1f s: %d games, one user per list size %s%n",
+                (System.nanoTime() - seedStart) / 1e9, gameIds.size(), sizes);
+
+        BenchmarkHarness harness = new BenchmarkHarness(Long.getLong("bench.warmup", 1000), Long.getLong("bench.measure", 3000));
+        BenchmarkHarness.printHeader();
+        for (int size : sizes) {
+            String user = PREFIX + size;
+            for (Map.Entry<String, BenchmarkHarness.Operation> entry : operations(user, size).entrySet()) {
+                BenchmarkHarness.print(harness.run(entry.getKey() + "@" + size, 1, entry.getValue()));
+            }
+        }
+
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("timestamp", java.time.Instant.now().toString());
+        metadata.put("url", System.getProperty("hibernate.connection.url", "configClass.properties"));
+        metadata.put("sizes", sizes.toString());
+        metadata.put("bulk", BULK);
+        metadata.put("javaVersion", System.getProperty("java.version"));
+        String output = System.getProperty("bench.output", "build/bench/existence-results.json");
+        harness.writeJson(Paths.get(output), metadata);
+        System.out.println("Results written to " + output);
+    }
+
+    /**
+     * Builds the measured operations for one user.
+     * Every check is made for a game at the end of the list, the worst case of a scan.
+     *
+     * @param user The username
+     * @param size The number of games in the user's list
+     * @return The operations by name, in the order they are measured
+     */
+    private Map<String, BenchmarkHarness.Operation> operations(String user, int size) {
+        Map<String, BenchmarkHarness.Operation> ops = new LinkedHashMap<>();
+        int last = gameIds.get(size - 1);
+        ArrayList<VideoGame> selected = new ArrayList<>();
+        for (int k = 0; k < BULK; k++) {
+            selected.add(new VideoGame(gameIds.get((int) ((long) k * size / BULK)), "", null, Platform.DEFAULT, Pegi.DEFAULT));
+        }
+
+        ops.put("verifyGameInList.entityLoad", (t, i) -> require(dao.getExecutor().execute(session -> {
+            session.get(Profile.class, user);
+            return !session.createQuery("SELECT l FROM Listed l JOIN l.userList u "
+                    + "WHERE u.profile.username = :username AND u.listName = :listName AND l.videogame.v_id = :gameId", Listed.class)
+                    .setParameter("username", user)
+                    .setParameter("listName", LIST)
+                    .setParameter("gameId", last)
+                    .list().isEmpty();
+        }, ErrorMessages.DATABASE), "game not found"));
+        ops.put("verifyGameInList.projection", (t, i) -> require(dao.verifyGameInList(user, LIST, last), "game not found"));
+        ops.put("verifyListName.entityLoad", (t, i) -> require(dao.getExecutor().execute(session -> {
+            session.get(Profile.class, user);
+            return !session.createQuery("SELECT l FROM Listed l JOIN l.userList u "
+                    + "WHERE u.profile.username = :username AND u.listName = :listName", Listed.class)
+                    .setParameter("username", user)
+                    .setParameter("listName", LIST)
+                    .list().isEmpty();
+        }, ErrorMessages.DATABASE), "list not found"));
+        ops.put("verifyListName.projection", (t, i) -> require(dao.verifyListName(user, LIST), "list not found"));
+        ops.put("addToListCheck.loadList", (t, i) -> {
+            BitSet listed = Profile.gameIds(dao.getGamesFromList(user, LIST));
+            require(listed.get(last), "game not found");
+        });
+        ops.put("addToListCheck.projection", (t, i) -> require(dao.verifyGamesInList(user, LIST, selected).size() == BULK, "games not found"));
+        return ops;
+    }
+
+    /**
+     * Creates the games the lists are filled with, unless a previous run already did.
+     *
+     * @param count The number of games needed
+     * @throws Exception If the games cannot be written
+     */
+    private void seedGames(int count) throws Exception {
+        dao.getExecutor().execute(session -> {
+            List<Integer> existing = session.createQuery(
+                    "SELECT v.v_id FROM VideoGame v WHERE v.v_name LIKE :prefix ORDER BY v.v_id", Integer.class)
+                    .setParameter("prefix", PREFIX + " game %").list();
+            int batch = HibernateUtil.getBatchSize();
+            for (int g = existing.size(); g < count; g++) {
+                session.save(new VideoGame(PREFIX + " game " + g, LocalDate.of(1990, 1, 1).plusDays(g % 12000),
+                        Platform.values()[g % 4], Pegi.values()[g % 5]));
+                if (g % batch == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.flush();
+            session.clear();
+            gameIds.addAll(session.createQuery(
+                    "SELECT v.v_id FROM VideoGame v WHERE v.v_name LIKE :prefix ORDER BY v.v_id", Integer.class)
+                    .setParameter("prefix", PREFIX + " game %").list());
+            return null;
+        }, ErrorMessages.DATABASE);
+        HibernateUtil.getCatalog().invalidate();
+    }
+
+    /**
+     * Creates the user whose list holds the given number of games, unless a previous run already did.
+     *
+     * @param size The number of games in the list
+     * @throws Exception If the user cannot be written
+     */
+    private void seedUser(int size) throws Exception {
+        dao.getExecutor().execute(session -> {
+            String username = PREFIX + size;
+            if (session.get(Profile.class, username) != null) {
+                return null;
+            }
+            User user = new User("MALE", "ES0000000000000000000000", username, "-", username + "@bench.local",
+                    "Bench", "600000000", "User");
+            session.save(user);
+            UserList list = new UserList(user, LIST);
+            session.save(list);
+
+            int batch = HibernateUtil.getBatchSize();
+            for (int k = 0; k < size; k++) {
+                session.save(new Listed(list, session.load(VideoGame.class, gameIds.get(k))));
+                if ((k + 1) % batch == 0) {
+                    session.flush();
+                    session.clear();
+                    list = session.load(UserList.class, list.getListId());
+                }
+            }
+            return null;
+        }, ErrorMessages.DATABASE);
+    }
+
+    /**
+     * Fails the call if a condition does not hold.
+     *
+     * @param condition The condition
+     * @param message The error message
+     */
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
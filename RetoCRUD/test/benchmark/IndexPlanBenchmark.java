@@ -0,0 +1,322 @@
+package benchmark;
+
+import dao.SchemaMigration;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.ResourceBundle;
+
+/**
+ * Shows how the secondary indexes of SchemaMigration change the query plans of
+ * the DAO access paths on the list, review and videogame tables.
+ * It creates the tables with their primary keys and unique keys only in a scratch
+ * MySQL database, fills them with bench.listed list entries (one million by default),
+ * and prints the EXPLAIN plan and the median time of every access path, first
+ * without the secondary indexes and then after SchemaMigration.createIndexes.
+ * Foreign keys are left out on purpose: MySQL would add an index on every
+ * foreign key column by itself and hide the plan without the declared indexes.
+ *
+ * The server and credentials are the ones in configClass.properties. Other settings:
+ * bench.database (default crud_index_bench, dropped at the end unless bench.keep=true),
+ * bench.listed, bench.users, bench.games, bench.reviews and bench.runs.
+ *
+ * @author ema
+ */
+public class IndexPlanBenchmark {
+
+    private static final String[] LIST_NAMES = {"My Games", "NINTENDO", "PLAYSTATION", "PC", "Wishlist"};
+    private static final int INSERT_BATCH = 5000;
+
+    private final String database = System.getProperty("bench.database", "crud_index_bench");
+    private final int listed = Integer.getInteger("bench.listed", 1000000);
+    private final int users = Integer.getInteger("bench.users", 20000);
+    private final int games = Integer.getInteger("bench.games", 20000);
+    private final int reviews = Integer.getInteger("bench.reviews", 200000);
+    private final int runs = Integer.getInteger("bench.runs", 50);
+    private final Random random = new Random(42);
+
+    /**
+     * One access path of the DAO, with the parameters of each run.
+     */
+    private interface Binder {
+
+        void bind(PreparedStatement stmt, Random random) throws SQLException;
+    }
+
+    private final List<String> names = new ArrayList<>();
+    private final List<String> sqls = new ArrayList<>();
+    private final List<Binder> binders = new ArrayList<>();
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Not used; the benchmark is configured with system properties
+     * @throws Exception If the database cannot be reached or filled
+     */
+    public static void main(String[] args) throws Exception {
+        new IndexPlanBenchmark().run();
+    }
+
+    /**
+     * Fills the scratch database and compares the plans before and after the indexes.
+     *
+     * @throws SQLException If a statement fails
+     */
+    private void run() throws SQLException {
+        ResourceBundle config = ResourceBundle.getBundle("config.configClass");
+        String server = "jdbc:mysql://" + config.getString("HOST") + ":" + config.getString("PORT")
+                + "/?serverTimezone=Europe/Madrid&useSSL=false&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true";
+
+        try (Connection connection = DriverManager.getConnection(server, config.getString("DBUSER"), config.getString("DBPASS"))) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("DROP DATABASE IF EXISTS " + database);
+                stmt.executeUpdate("CREATE DATABASE " + database + " CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci");
+                connection.setCatalog(database);
+                createTables(stmt);
+            }
+
+            long start = System.nanoTime();
+            fill(connection);
+            System.out.printf(Locale.ROOT, "Filled %d games, %d list entries and %d reviews in %.1f s%n",
+                    count(connection, "videogame"), count(connection, "list_entry"), count(connection, "review"),
+                    (System.nanoTime() - start) / 1e9);
+
+            defineQueries();
+            analyze(connection);
+            String[][] before = measure(connection);
+
+            start = System.nanoTime();
+            SchemaMigration.createIndexes(connection);
+            System.out.printf(Locale.ROOT, "Created the indexes in %.1f s%n", (System.nanoTime() - start) / 1e9);
+            analyze(connection);
+            String[][] after = measure(connection);
+
+            System.out.printf(Locale.ROOT, "%n%-22s %-8s %-22s %10s %10s   %-8s %-22s %10s %10s%n", "access path",
+                    "type", "key (before)", "rows", "p50 ms", "type", "key (after)", "rows", "p50 ms");
+            for (int q = 0; q < names.size(); q++) {
+                System.out.printf(Locale.ROOT, "%-22s %-8s %-22s %10s %10s   %-8s %-22s %10s %10s%n", names.get(q),
+                        before[q][0], before[q][1], before[q][2], before[q][4], after[q][0], after[q][1], after[q][2], after[q][4]);
+                System.out.printf(Locale.ROOT, "%-22s %-63s   %s%n", "", "  " + before[q][3], after[q][3]);
+            }
+
+            if (!Boolean.getBoolean("bench.keep")) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.executeUpdate("DROP DATABASE " + database);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the tables with the columns, primary keys and unique keys Hibernate maps, and no other index.
+     *
+     * @param stmt The statement to run the DDL with
+     * @throws SQLException If a table cannot be created
+     */
+    private void createTables(Statement stmt) throws SQLException {
+        stmt.executeUpdate("CREATE TABLE videogame (v_id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "v_name VARCHAR(100) NOT NULL, v_release DATE, v_platform VARCHAR(255), v_pegi VARCHAR(255))");
+        stmt.executeUpdate("CREATE TABLE user_list (list_id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "username VARCHAR(40) NOT NULL, list_name VARCHAR(255) NOT NULL, "
+                + "CONSTRAINT uk_user_list_name UNIQUE (username, list_name))");
+        stmt.executeUpdate("CREATE TABLE list_entry (list_id INT NOT NULL, videogame_id INT NOT NULL, "
+                + "PRIMARY KEY (list_id, videogame_id))");
+        stmt.executeUpdate("CREATE TABLE review (r_id VARCHAR(255) NOT NULL, username VARCHAR(40) NOT NULL, v_id INT NOT NULL, "
+                + "score INT NOT NULL, description VARCHAR(255) NOT NULL, review_date DATE, platform VARCHAR(255), "
+                + "PRIMARY KEY (username, v_id))");
+    }
+
+    /**
+     * Fills the tables in JDBC batches.
+     * Every list gets consecutive games from a random starting game, so the list
+     * entries are all distinct and exactly bench.listed of them are stored.
+     *
+     * @param connection The connection to the scratch database
+     * @throws SQLException If the rows cannot be inserted
+     */
+    private void fill(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO videogame (v_name, v_release, v_platform, v_pegi) VALUES (?, DATE_ADD('1990-01-01', INTERVAL ? DAY), 'PC', 'PEGI12')")) {
+            for (int g = 0; g < games; g++) {
+                stmt.setString(1, "Game " + g);
+                stmt.setInt(2, random.nextInt(12000));
+                addToBatch(stmt, g);
+            }
+            stmt.executeBatch();
+        }
+        try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO user_list (username, list_name) VALUES (?, ?)")) {
+            for (int i = 0; i < users * LIST_NAMES.length; i++) {
+                stmt.setString(1, "user" + (i / LIST_NAMES.length));
+                stmt.setString(2, LIST_NAMES[i % LIST_NAMES.length]);
+                addToBatch(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+        int listCount = users * LIST_NAMES.length;
+        if ((long) listCount * games < listed) {
+            throw new IllegalArgumentException(listed + " list entries do not fit in " + listCount + " lists of " + games + " games");
+        }
+        int[] offsets = new int[listCount];
+        for (int l = 0; l < listCount; l++) {
+            offsets[l] = random.nextInt(games);
+        }
+        try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO list_entry (list_id, videogame_id) VALUES (?, ?)")) {
+            for (int i = 0; i < listed; i++) {
+                int list = i % listCount;
+                stmt.setInt(1, 1 + list);
+                stmt.setInt(2, 1 + (offsets[list] + i / listCount) % games);
+                addToBatch(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT IGNORE INTO review (r_id, username, v_id, score, description, review_date, platform) "
+                + "VALUES (?, ?, ?, ?, 'Benchmark review', DATE_ADD('2015-01-01', INTERVAL ? DAY), 'PC')")) {
+            for (int i = 0; i < reviews; i++) {
+                String username = "user" + random.nextInt(users);
+                int game = 1 + random.nextInt(games);
+                stmt.setString(1, username + "-" + game);
+                stmt.setString(2, username);
+                stmt.setInt(3, game);
+                stmt.setInt(4, random.nextInt(11));
+                stmt.setInt(5, random.nextInt(3650));
+                addToBatch(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Counts the rows of a table of the scratch database.
+     *
+     * @param connection The connection to the scratch database
+     * @param table The table
+     * @return The number of rows stored
+     * @throws SQLException If the table cannot be read
+     */
+    private static long count(Connection connection, String table) throws SQLException {
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Adds the current parameters to the batch, sending it every INSERT_BATCH rows.
+     *
+     * @param stmt The insert statement
+     * @param row The number of rows added before
+     * @throws SQLException If the batch fails
+     */
+    private static void addToBatch(PreparedStatement stmt, int row) throws SQLException {
+        stmt.addBatch();
+        if ((row + 1) % INSERT_BATCH == 0) {
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Defines the access paths of the DAO that the indexes are meant for.
+     */
+    private void defineQueries() {
+        query("games of a list", "SELECT e.videogame_id FROM user_list u JOIN list_entry e ON e.list_id = u.list_id "
+                + "WHERE u.username = ? AND u.list_name = ?", (stmt, r) -> {
+            stmt.setString(1, "user" + r.nextInt(users));
+            stmt.setString(2, LIST_NAMES[r.nextInt(LIST_NAMES.length)]);
+        });
+        query("lists of a user", "SELECT list_name FROM user_list WHERE username = ? ORDER BY list_name",
+                (stmt, r) -> stmt.setString(1, "user" + r.nextInt(users)));
+        query("lists with a game", "SELECT list_id FROM list_entry WHERE videogame_id = ?",
+                (stmt, r) -> stmt.setInt(1, 1 + r.nextInt(games)));
+        query("reviews of a game", "SELECT * FROM review WHERE v_id = ? ORDER BY review_date DESC",
+                (stmt, r) -> stmt.setInt(1, 1 + r.nextInt(games)));
+        query("review of user+game", "SELECT * FROM review WHERE username = ? AND v_id = ?", (stmt, r) -> {
+            stmt.setString(1, "user" + r.nextInt(users));
+            stmt.setInt(2, 1 + r.nextInt(games));
+        });
+        query("latest reviews page", "SELECT * FROM review ORDER BY review_date DESC, r_id DESC LIMIT 100", (stmt, r) -> {
+        });
+        query("game by name", "SELECT * FROM videogame WHERE v_name = ?",
+                (stmt, r) -> stmt.setString(1, "Game " + r.nextInt(games)));
+    }
+
+    /**
+     * Adds an access path to the comparison.
+     *
+     * @param name The name printed in the table
+     * @param sql The query
+     * @param binder Sets the parameters of one run
+     */
+    private void query(String name, String sql, Binder binder) {
+        names.add(name);
+        sqls.add(sql);
+        binders.add(binder);
+    }
+
+    /**
+     * Updates the index statistics so the optimizer sees the current data.
+     *
+     * @param connection The connection to the scratch database
+     * @throws SQLException If the tables cannot be analyzed
+     */
+    private void analyze(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ANALYZE TABLE user_list, list_entry, review, videogame");
+        }
+    }
+
+    /**
+     * Explains and times every access path.
+     *
+     * @param connection The connection to the scratch database
+     * @return Per access path: access type, key, estimated rows, extra and median time
+     * @throws SQLException If a query fails
+     */
+    private String[][] measure(Connection connection) throws SQLException {
+        String[][] results = new String[names.size()][];
+        for (int q = 0; q < names.size(); q++) {
+            String[] plan = {"", "", "", "", ""};
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sqls.get(q))) {
+                binders.get(q).bind(explain, new Random(q));
+                try (ResultSet rs = explain.executeQuery()) {
+                    if (rs.next()) {
+                        plan[0] = String.valueOf(rs.getString("type"));
+                        plan[1] = String.valueOf(rs.getString("key"));
+                        plan[2] = String.valueOf(rs.getString("rows"));
+                        plan[3] = String.valueOf(rs.getString("Extra"));
+                    }
+                }
+            }
+
+            double[] times = new double[runs];
+            Random params = new Random(q);
+            try (PreparedStatement stmt = connection.prepareStatement(sqls.get(q))) {
+                for (int i = 0; i < runs; i++) {
+                    binders.get(q).bind(stmt, params);
+                    long start = System.nanoTime();
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            rs.getObject(1);
+                        }
+                    }
+                    times[i] = (System.nanoTime() - start) / 1e6;
+                }
+            }
+            Arrays.sort(times);
+            plan[4] = String.format(Locale.ROOT, "%.3f", times[runs / 2]);
+            results[q] = plan;
+        }
+        return results;
+    }
+}
@@ -0,0 +1,140 @@
+package benchmark;
+
+import dao.PasswordHasher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of PasswordHasher.verify for several iteration counts, so the
+ * HASHITERATIONS value in configClass.properties can be sized against the login
+ * throughput target. For each cost it reports the single-thread latency
+ * percentiles and the throughput with all the available cores, and recommends
+ * the highest cost that still meets the target.
+ *
+ * Usage: java benchmark.PasswordHasherBenchmark [targetLoginsPerSecond] [maxLatencyMs] [cost...]
+ *
+ * @author ema
+ */
+public class PasswordHasherBenchmark {
+
+    private static final String PASSWORD = "Ab123456";
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 30;
+    private static final long THROUGHPUT_MILLIS = 2000;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Target logins per second, maximum latency in milliseconds and the costs to measure
+     * @throws Exception if a measuring thread fails
+     */
+    public static void main(String[] args) throws Exception {
+        double targetPerSecond = args.length > 0 ? Double.parseDouble(args[0]) : 50;
+        double maxLatencyMs = args.length > 1 ? Double.parseDouble(args[1]) : 250;
+        int[] costs = args.length > 2
+                ? Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10000, 50000, 120000, 250000, 600000};
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf(Locale.ROOT, "Target: %.0f logins/s, p99 <= %.0f ms, %d threads%n", targetPerSecond, maxLatencyMs, threads);
+        System.out.printf(Locale.ROOT, "%10s %10s %10s %10s %14s%n", "cost", "p50 ms", "p99 ms", "max ms", "logins/s");
+
+        int recommended = -1;
+        for (int cost : costs) {
+            PasswordHasher hasher = new PasswordHasher(cost);
+            String stored = hasher.hash(PASSWORD);
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                check(hasher.verify(PASSWORD, stored));
+            }
+
+            double[] samples = new double[MEASURED_ROUNDS];
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long start = System.nanoTime();
+                check(hasher.verify(PASSWORD, stored));
+                samples[i] = (System.nanoTime() - start) / 1e6;
+            }
+            Arrays.sort(samples);
+
+            double throughput = throughput(hasher, stored, threads);
+            double p99 = percentile(samples, 0.99);
+
+            System.out.printf(Locale.ROOT, "%10d %10.2f %10.2f %10.2f %14.1f%n",
+                    cost, percentile(samples, 0.50), p99, samples[samples.length - 1], throughput);
+
+            if (throughput >= targetPerSecond && p99 <= maxLatencyMs) {
+                recommended = Math.max(recommended, cost);
+            }
+        }
+
+        if (recommended > 0) {
+            System.out.println("Recommended HASHITERATIONS=" + recommended);
+        } else {
+            System.out.println("No measured cost meets the target; lower the cost or the target.");
+        }
+    }
+
+    /**
+     * Verifies the password from every thread for a fixed time.
+     *
+     * @param hasher The hasher to measure
+     * @param stored The stored hash
+     * @param threads The number of threads
+     * @return The verifications per second of all the threads together
+     * @throws Exception if a thread fails
+     */
+    private static double throughput(PasswordHasher hasher, String stored, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(THROUGHPUT_MILLIS);
+        long start = System.nanoTime();
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        check(hasher.verify(PASSWORD, stored));
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+            long total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            return total / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets a percentile of sorted samples.
+     *
+     * @param sorted The samples in ascending order
+     * @param fraction The percentile between 0 and 1
+     * @return The sample at that percentile
+     */
+    private static double percentile(double[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * Fails the benchmark if a verification returned the wrong result.
+     *
+     * @param verified The result of the verification
+     */
+    private static void check(boolean verified) {
+        if (!verified) {
+            throw new IllegalStateException("Password verification failed");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import model.Pegi;
+import model.Platform;
+import model.VideoGame;
+import model.VideoGameIndex;
+
+/**
+ * Compares the main menu filter done with VideoGameIndex against a linear scan
+ * that lowercases every name, over a synthetic catalog. Both are run once per
+ * query before measuring so the JIT has compiled them. Every query is also
+ * checked to return exactly the games the linear scan returns.
+ *
+ * Usage: java benchmark.VideoGameIndexBenchmark [games] [queries]
+ *
+ * @author ema
+ */
+public class VideoGameIndexBenchmark {
+
+    private static final String[] WORDS = {"legend", "dark", "souls", "mario", "kart", "zelda", "space",
+        "war", "craft", "racing", "city", "empire", "ninja", "dragon", "quest", "star", "field", "tales"};
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Number of games and number of queries
+     */
+    public static void main(String[] args) {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        Random random = new Random(42);
+
+        List<VideoGame> games = new ArrayList<>(gameCount);
+        for (int i = 0; i < gameCount; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            LocalDate release = random.nextInt(50) == 0 ? null : LocalDate.of(1990, 1, 1).plusDays(random.nextInt(12000));
+            games.add(new VideoGame(name, release, Platform.values()[random.nextInt(4)], Pegi.values()[random.nextInt(5)]));
+        }
+
+        long start = System.nanoTime();
+        VideoGameIndex index = new VideoGameIndex(games);
+        System.out.printf(Locale.ROOT, "Index of %d games built in %.1f ms%n", gameCount, (System.nanoTime() - start) / 1e6);
+
+        String[] texts = new String[queryCount];
+        List<EnumSet<Platform>> platforms = new ArrayList<>();
+        List<EnumSet<Pegi>> pegis = new ArrayList<>();
+        LocalDate[] froms = new LocalDate[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            int from = random.nextInt(word.length());
+            texts[q] = word.substring(from, from + 1 + random.nextInt(word.length() - from)).toUpperCase(Locale.ROOT);
+            platforms.add(random.nextBoolean() ? EnumSet.noneOf(Platform.class) : EnumSet.of(Platform.values()[random.nextInt(4)]));
+            pegis.add(random.nextBoolean() ? EnumSet.noneOf(Pegi.class) : EnumSet.of(Pegi.PEGI12, Pegi.PEGI16));
+            froms[q] = random.nextBoolean() ? null : LocalDate.of(2000 + random.nextInt(20), 1, 1);
+        }
+
+        for (int q = 0; q < queryCount; q++) {
+            index.search(texts[q], platforms.get(q), pegis.get(q), froms[q], null);
+            scan(games, texts[q], platforms.get(q), pegis.get(q), froms[q]);
+        }
+
+        double[] indexed = new double[queryCount];
+        double[] scanned = new double[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            long t0 = System.nanoTime();
+            BitSet fast = index.search(texts[q], platforms.get(q), pegis.get(q), froms[q], null);
+            long t1 = System.nanoTime();
+            BitSet slow = scan(games, texts[q], platforms.get(q), pegis.get(q), froms[q]);
+            long t2 = System.nanoTime();
+            if (!fast.equals(slow)) {
+                throw new IllegalStateException("Index and scan disagree for query \"" + texts[q] + "\"");
+            }
+            indexed[q] = (t1 - t0) / 1e6;
+            scanned[q] = (t2 - t1) / 1e6;
+        }
+        Arrays.sort(indexed);
+        Arrays.sort(scanned);
+
+        System.out.printf(Locale.ROOT, "%10s %10s %10s%n", "", "p50 ms", "p99 ms");
+        System.out.printf(Locale.ROOT, "%10s %10.3f %10.3f%n", "index", indexed[queryCount / 2], indexed[queryCount * 99 / 100]);
+        System.out.printf(Locale.ROOT, "%10s %10.3f %10.3f%n", "scan", scanned[queryCount / 2], scanned[queryCount * 99 / 100]);
+    }
+
+    /**
+     * Filters the games the way the main menu did before the index.
+     *
+     * @param games The games
+     * @param text The search text
+     * @param platforms The accepted platforms, or empty for all
+     * @param pegis The accepted PEGI ratings, or empty for all
+     * @param from The first release date accepted, or null
+     * @return The positions of the matching games
+     */
+    private static BitSet scan(List<VideoGame> games, String text, EnumSet<Platform> platforms, EnumSet<Pegi> pegis, LocalDate from) {
+        BitSet result = new BitSet(games.size());
+        String searchText = text.toLowerCase().trim();
+        for (int i = 0; i < games.size(); i++) {
+            VideoGame game = games.get(i);
+            if (!searchText.isEmpty() && !game.getV_name().toLowerCase().contains(searchText)) continue;
+            if (!platforms.isEmpty() && !platforms.contains(game.getV_platform())) continue;
+            if (!pegis.isEmpty() && !pegis.contains(game.getV_pegi())) continue;
+            if (game.getV_release() != null && from != null && game.getV_release().isBefore(from)) continue;
+            result.set(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,304 @@
+package logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ * Test class for AsyncLogHandler.
+ * Writes to a file in a temporary folder and checks the record order of concurrent
+ * producers, both overflow policies, size rotation and the final drain on close.
+ * A formatter that waits on a latch holds the writer thread, so the buffer can be
+ * filled on purpose.
+ *
+ * @author ema
+ */
+public class AsyncLogHandlerTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private AsyncLogHandler handler;
+    private final CountDownLatch writerHeld = new CountDownLatch(1);
+    private final CountDownLatch releaseWriter = new CountDownLatch(1);
+
+    /**
+     * Formats a record as its message on one line, optionally holding the writer
+     * thread on the first record until the test releases it.
+     */
+    private final class LineFormatter extends Formatter
+    {
+        private final boolean hold;
+
+        private LineFormatter(boolean hold)
+        {
+            this.hold = hold;
+        }
+
+        @Override
+        public String format(LogRecord record)
+        {
+            if (hold && writerHeld.getCount() > 0)
+            {
+                writerHeld.countDown();
+                try
+                {
+                    releaseWriter.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return record.getMessage() + "\n";
+        }
+    }
+
+    /**
+     * Chooses the log file of the test.
+     *
+     * @throws IOException If the temporary folder cannot be created
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        file = new File(folder.getRoot(), "test.log");
+    }
+
+    /**
+     * Releases the writer thread and closes the handler, if a test left it open.
+     */
+    @After
+    public void tearDown()
+    {
+        releaseWriter.countDown();
+        if (handler != null)
+        {
+            handler.close();
+        }
+    }
+
+    /**
+     * Verifies that every record of concurrent producers is written once, and that
+     * the records of each producer keep the order they were published in.
+     *
+     * @throws Exception If the handler or the producers fail
+     */
+    @Test
+    public void testConcurrentProducersKeepTheirOrder() throws Exception
+    {
+        int producers = 8;
+        int perProducer = 2000;
+        handler = open(64, AsyncLogHandler.OverflowPolicy.BLOCK, 0, 0, false);
+
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++)
+        {
+            int producer = p;
+            Thread thread = new Thread(() ->
+            {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException ex)
+                {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++)
+                {
+                    handler.publish(record(producer + ":" + i));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+            assertFalse("Producer still running", thread.isAlive());
+        }
+        handler.close();
+
+        List<String> lines = lines(file);
+        assertEquals(producers * perProducer, lines.size());
+        int[] next = new int[producers];
+        for (String line : lines)
+        {
+            String[] parts = line.split(":");
+            int producer = Integer.parseInt(parts[0]);
+            assertEquals("Record of producer " + producer + " out of order", next[producer], Integer.parseInt(parts[1]));
+            next[producer]++;
+        }
+        assertEquals(0, handler.getDroppedCount());
+        assertEquals(producers * perProducer, handler.getWrittenCount());
+    }
+
+    /**
+     * Verifies that the DROP policy discards and counts the records that do not fit.
+     *
+     * @throws Exception If the handler fails
+     */
+    @Test
+    public void testDropCountsRecordsWhenFull() throws Exception
+    {
+        handler = open(2, AsyncLogHandler.OverflowPolicy.DROP, 0, 0, true);
+        handler.publish(record("held"));
+        assertTrue("Writer did not pick up the first record", writerHeld.await(5, TimeUnit.SECONDS));
+
+        handler.publish(record("first"));
+        handler.publish(record("second"));
+        handler.publish(record("dropped 1"));
+        handler.publish(record("dropped 2"));
+        assertEquals(2, handler.getDroppedCount());
+        assertEquals(2, handler.getPendingCount());
+
+        releaseWriter.countDown();
+        handler.close();
+        assertEquals(Arrays.asList("held", "first", "second"), lines(file));
+        assertEquals(3, handler.getWrittenCount());
+    }
+
+    /**
+     * Verifies that the BLOCK policy makes the producer wait until the writer frees a slot.
+     *
+     * @throws Exception If the handler fails
+     */
+    @Test
+    public void testBlockWaitsForFreeSlot() throws Exception
+    {
+        handler = open(2, AsyncLogHandler.OverflowPolicy.BLOCK, 0, 0, true);
+        handler.publish(record("held"));
+        assertTrue("Writer did not pick up the first record", writerHeld.await(5, TimeUnit.SECONDS));
+        handler.publish(record("first"));
+        handler.publish(record("second"));
+
+        Thread producer = new Thread(() -> handler.publish(record("waited")));
+        producer.start();
+        producer.join(300);
+        assertTrue("Producer did not wait for a free slot", producer.isAlive());
+
+        releaseWriter.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse("Producer still waiting after the writer freed slots", producer.isAlive());
+        handler.close();
+
+        assertEquals(Arrays.asList("held", "first", "second", "waited"), lines(file));
+        assertEquals(0, handler.getDroppedCount());
+    }
+
+    /**
+     * Verifies that size rotation shifts the old files to .1 ... .n and deletes older ones.
+     *
+     * @throws Exception If the handler fails
+     */
+    @Test
+    public void testRotationRenamesOldFiles() throws Exception
+    {
+        handler = open(64, AsyncLogHandler.OverflowPolicy.BLOCK, 25, 3, false);
+        for (int i = 0; i < 20; i++)
+        {
+            handler.publish(record(String.format("record %02d", i)));
+        }
+        handler.close();
+
+        assertEquals(Arrays.asList("record 18", "record 19"), lines(file));
+        assertEquals(Arrays.asList("record 16", "record 17"), lines(new File(file.getPath() + ".1")));
+        assertEquals(Arrays.asList("record 14", "record 15"), lines(new File(file.getPath() + ".2")));
+        assertEquals(Arrays.asList("record 12", "record 13"), lines(new File(file.getPath() + ".3")));
+        assertFalse(new File(file.getPath() + ".4").exists());
+    }
+
+    /**
+     * Verifies that close writes every record still buffered and ignores later ones.
+     *
+     * @throws Exception If the handler fails
+     */
+    @Test
+    public void testCloseWritesBufferedRecords() throws Exception
+    {
+        handler = open(16, AsyncLogHandler.OverflowPolicy.DROP, 0, 0, true);
+        handler.publish(record("held"));
+        assertTrue("Writer did not pick up the first record", writerHeld.await(5, TimeUnit.SECONDS));
+        List<String> expected = new ArrayList<>();
+        expected.add("held");
+        for (int i = 0; i < 10; i++)
+        {
+            handler.publish(record("buffered " + i));
+            expected.add("buffered " + i);
+        }
+        assertEquals(10, handler.getPendingCount());
+
+        Thread closer = new Thread(handler::close);
+        closer.start();
+        closer.join(200);
+        releaseWriter.countDown();
+        closer.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse("close did not return", closer.isAlive());
+
+        handler.publish(record("after close"));
+        assertEquals(expected, lines(file));
+        assertEquals(0, handler.getPendingCount());
+        assertEquals(11, handler.getWrittenCount());
+    }
+
+    /**
+     * Opens a handler on the test file with a one-line formatter.
+     *
+     * @param capacity The buffer capacity
+     * @param policy The overflow policy
+     * @param maxBytes The rotation size, or 0
+     * @param maxFiles The rotated files kept
+     * @param hold Whether the formatter holds the writer on the first record
+     * @return The handler
+     * @throws IOException If the file cannot be opened
+     */
+    private AsyncLogHandler open(int capacity, AsyncLogHandler.OverflowPolicy policy, long maxBytes, int maxFiles,
+            boolean hold) throws IOException
+    {
+        AsyncLogHandler opened = new AsyncLogHandler(file, capacity, policy, maxBytes, maxFiles, 0, 60000);
+        opened.setFormatter(new LineFormatter(hold));
+        return opened;
+    }
+
+    /**
+     * Builds an INFO record.
+     *
+     * @param message The message of the record
+     * @return The record
+     */
+    private static LogRecord record(String message)
+    {
+        return new LogRecord(Level.INFO, message);
+    }
+
+    /**
+     * Reads the lines of a log file.
+     *
+     * @param log The file
+     * @return The lines, without line separators
+     * @throws IOException If the file cannot be read
+     */
+    private static List<String> lines(File log) throws IOException
+    {
+        return Files.readAllLines(log.toPath(), StandardCharsets.UTF_8);
+    }
+}
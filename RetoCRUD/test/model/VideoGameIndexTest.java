@@ -0,0 +1,203 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Test class for VideoGameIndex.
+ * Checks every kind of filter against the linear scan the main menu used before
+ * the index: short and overlapping name queries, release date ranges and
+ * platform and PEGI combinations.
+ *
+ * @author ema
+ */
+public class VideoGameIndexTest {
+
+    private static final LocalDate JAN_2000 = LocalDate.of(2000, 1, 1);
+    private static final LocalDate JUN_2010 = LocalDate.of(2010, 6, 15);
+    private static final LocalDate DEC_2020 = LocalDate.of(2020, 12, 31);
+
+    private List<VideoGame> games;
+    private VideoGameIndex index;
+
+    /**
+     * Builds an index over a small catalog with repeated letters, shared trigrams
+     * and games without a release date, platform or PEGI.
+     */
+    @Before
+    public void setUp() {
+        games = new ArrayList<>();
+        games.add(new VideoGame(1, "Banana Bonanza", JAN_2000, Platform.NINTENDO, Pegi.PEGI3));
+        games.add(new VideoGame(2, "aaaa", JUN_2010, Platform.PC, Pegi.PEGI12));
+        games.add(new VideoGame(3, "AAAB", DEC_2020, Platform.PLAYSTATION, Pegi.PEGI18));
+        games.add(new VideoGame(4, "abcxbcd", JUN_2010, Platform.XBOX, Pegi.PEGI16));
+        games.add(new VideoGame(5, "The Legend of Zelda", null, Platform.NINTENDO, Pegi.PEGI12));
+        games.add(new VideoGame(6, "Zelda II", LocalDate.of(1987, 1, 14), Platform.NINTENDO, Pegi.PEGI6));
+        games.add(new VideoGame(7, "Halo", JAN_2000, Platform.XBOX, Pegi.PEGI16));
+        games.add(new VideoGame(8, "  Nanana  ", DEC_2020, null, null));
+        games.add(new VideoGame(9, "Ab", JUN_2010, Platform.PC, Pegi.PEGI3));
+        index = new VideoGameIndex(games);
+    }
+
+    /**
+     * Verifies that queries shorter than a trigram match like the linear scan.
+     */
+    @Test
+    public void testShortQueries() {
+        for (String text : new String[] {"", " ", "a", "A", "ab", " ze ", "z", "ii", "q"}) {
+            assertSame(text, scan(text, null, null, null, null), index.search(text, null, null, null, null));
+        }
+        assertEquals(positions(2, 3, 8), index.nameContains("ab"));
+    }
+
+    /**
+     * Verifies that overlapping trigrams only match names that hold the whole query.
+     */
+    @Test
+    public void testOverlappingTrigrams() {
+        for (String text : new String[] {"aaa", "aaaa", "aaab", "aaaaa", "ana", "anana", "nan", "bon", "abcd", "bcd", "zelda", "LEGEND OF"}) {
+            assertSame(text, scan(text, null, null, null, null), index.search(text, null, null, null, null));
+        }
+        assertEquals(positions(), index.nameContains("abcd"));
+        assertEquals(positions(1, 2), index.nameContains("aaa"));
+        assertEquals(positions(0, 7), index.nameContains("anana"));
+    }
+
+    /**
+     * Verifies empty, single-day, open and inverted release date ranges.
+     * Games without a release date always match.
+     */
+    @Test
+    public void testDateRanges() {
+        LocalDate[][] ranges = {
+            {null, null}, {JAN_2000, null}, {null, JUN_2010}, {JUN_2010, JUN_2010},
+            {JUN_2010.plusDays(1), JUN_2010.plusDays(2)}, {DEC_2020, JAN_2000}, {JUN_2010, JUN_2010.minusDays(1)}
+        };
+        for (LocalDate[] range : ranges) {
+            String label = Arrays.toString(range);
+            assertSame(label, scan(null, null, null, range[0], range[1]), index.search(null, null, null, range[0], range[1]));
+        }
+        assertEquals(positions(4), index.releasedBetween(DEC_2020, JAN_2000));
+        assertEquals(positions(1, 3, 4, 8), index.releasedBetween(JUN_2010, JUN_2010));
+    }
+
+    /**
+     * Verifies platform and PEGI filters alone and combined, including empty sets.
+     */
+    @Test
+    public void testPlatformAndPegiCombinations() {
+        List<EnumSet<Platform>> platformSets = Arrays.asList(EnumSet.noneOf(Platform.class), EnumSet.of(Platform.NINTENDO),
+                EnumSet.of(Platform.PC, Platform.XBOX), EnumSet.allOf(Platform.class));
+        List<EnumSet<Pegi>> pegiSets = Arrays.asList(EnumSet.noneOf(Pegi.class), EnumSet.of(Pegi.PEGI12),
+                EnumSet.of(Pegi.PEGI3, Pegi.PEGI16), EnumSet.allOf(Pegi.class));
+        for (EnumSet<Platform> platforms : platformSets) {
+            for (EnumSet<Pegi> pegis : pegiSets) {
+                String label = platforms + " " + pegis;
+                assertSame(label, scan(null, platforms, pegis, null, null), index.search(null, platforms, pegis, null, null));
+                assertSame(label, scan("a", platforms, pegis, JAN_2000, DEC_2020), index.search("a", platforms, pegis, JAN_2000, DEC_2020));
+            }
+        }
+        assertEquals(positions(3, 6), index.search(null, EnumSet.of(Platform.PC, Platform.XBOX), EnumSet.of(Pegi.PEGI16), null, null));
+    }
+
+    /**
+     * Verifies random combinations of every filter against the linear scan.
+     */
+    @Test
+    public void testRandomCombinations() {
+        Random random = new Random(7);
+        String[] texts = {null, "", "a", "an", "ana", "zel", "aaab", "o", "ld", "halo", "x"};
+        LocalDate[] dates = {null, LocalDate.of(1987, 1, 14), JAN_2000, JUN_2010, DEC_2020, LocalDate.of(2030, 1, 1)};
+        for (int q = 0; q < 500; q++) {
+            String text = texts[random.nextInt(texts.length)];
+            EnumSet<Platform> platforms = EnumSet.noneOf(Platform.class);
+            for (Platform platform : Platform.values()) {
+                if (random.nextInt(3) == 0) {
+                    platforms.add(platform);
+                }
+            }
+            EnumSet<Pegi> pegis = EnumSet.noneOf(Pegi.class);
+            for (Pegi pegi : Pegi.values()) {
+                if (random.nextInt(3) == 0) {
+                    pegis.add(pegi);
+                }
+            }
+            LocalDate from = dates[random.nextInt(dates.length)];
+            LocalDate to = dates[random.nextInt(dates.length)];
+            String label = text + " " + platforms + " " + pegis + " " + from + ".." + to;
+            assertSame(label, scan(text, platforms, pegis, from, to), index.search(text, platforms, pegis, from, to));
+        }
+    }
+
+    /**
+     * Verifies that select returns the games at the given positions, in list order.
+     */
+    @Test
+    public void testSelect() {
+        List<VideoGame> selected = VideoGameIndex.select(games, index.nameContains("zelda"));
+        assertEquals(2, selected.size());
+        assertEquals(5, selected.get(0).getV_id());
+        assertEquals(6, selected.get(1).getV_id());
+        assertEquals(Collections.emptyList(), VideoGameIndex.select(games, new BitSet()));
+    }
+
+    /**
+     * Asserts that the index returned the same games as the linear scan.
+     *
+     * @param label Describes the query in the failure message
+     * @param expected The positions found by the linear scan
+     * @param actual The positions found by the index
+     */
+    private void assertSame(String label, BitSet expected, BitSet actual) {
+        assertEquals("Query " + label, expected, actual);
+    }
+
+    /**
+     * Filters the games the way the main menu did before the index.
+     *
+     * @param text The search text, or null
+     * @param platforms The accepted platforms, or null or empty for all
+     * @param pegis The accepted PEGI ratings, or null or empty for all
+     * @param from The first release date accepted, or null
+     * @param to The last release date accepted, or null
+     * @return The positions of the matching games
+     */
+    private BitSet scan(String text, Collection<Platform> platforms, Collection<Pegi> pegis, LocalDate from, LocalDate to) {
+        BitSet result = new BitSet(games.size());
+        String searchText = text == null ? "" : text.toLowerCase().trim();
+        for (int i = 0; i < games.size(); i++) {
+            VideoGame game = games.get(i);
+            if (!searchText.isEmpty() && !game.getV_name().toLowerCase().contains(searchText)) continue;
+            if (platforms != null && !platforms.isEmpty() && !platforms.contains(game.getV_platform())) continue;
+            if (pegis != null && !pegis.isEmpty() && !pegis.contains(game.getV_pegi())) continue;
+            if (game.getV_release() != null && from != null && game.getV_release().isBefore(from)) continue;
+            if (game.getV_release() != null && to != null && game.getV_release().isAfter(to)) continue;
+            result.set(i);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a BitSet with the given positions set.
+     *
+     * @param positions The positions
+     * @return The BitSet
+     */
+    private static BitSet positions(int... positions) {
+        BitSet result = new BitSet();
+        for (int position : positions) {
+            result.set(position);
+        }
+        return result;
+    }
+}